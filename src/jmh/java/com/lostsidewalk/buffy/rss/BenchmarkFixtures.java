@@ -0,0 +1,173 @@
+package com.lostsidewalk.buffy.rss;
+
+import com.lostsidewalk.buffy.post.*;
+import com.lostsidewalk.buffy.queue.QueueDefinition;
+import com.rometools.modules.itunes.EntryInformationImpl;
+import com.rometools.modules.mediarss.MediaEntryModuleImpl;
+import com.rometools.modules.mediarss.types.Metadata;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Synthetic queues and posts for the benchmarks.
+ */
+final class BenchmarkFixtures {
+
+    static final long QUEUE_ID = 666L;
+
+    private BenchmarkFixtures() {
+    }
+
+    static RSSPublisherConfigProps configProps() {
+        RSSPublisherConfigProps configProps = new RSSPublisherConfigProps();
+        configProps.setChannelLinkTemplate("https://localhost/rss/%s");
+        configProps.setChannelUriTemplate("https://localhost/atom/%s");
+        configProps.setChannelImageUrlTemplate("https://localhost/img/%s");
+        configProps.setChannelImageHeight(32);
+        configProps.setChannelImageWidth(32);
+        configProps.setRssFeedType("rss_2.0");
+        configProps.setAtomFeedType("atom_1.0");
+        configProps.setChannelTtl(10);
+        configProps.setDefaultGeneratorValue("NewsGears RSS");
+        configProps.setDefaultGeneratorUrl("https://www.feedgears.com");
+        configProps.setDefaultGeneratorVersion("0.5.10");
+        configProps.setPublishThreadPoolSize(2);
+        configProps.setPublishTimeoutMillis(30_000L);
+        configProps.setItemFragmentCacheMaxBytes(32L << 20);
+        configProps.setStreamingWriterEnabled(true);
+        return configProps;
+    }
+
+    static QueueDefinition queueDefinition() {
+        QueueDefinition queueDefinition = QueueDefinition.from(
+                "benchFeedIdent",
+                "Benchmark Feed",
+                "A feed of synthetic posts",
+                null,
+                "benchTransportIdent",
+                "bench",
+                "{ \"rssConfig\": { \"managingEditor\" : \"editor@localhost\", \"webMaster\" : \"webmaster@localhost\", " +
+                        "\"categoryValue\" : \"bench\", \"skipHours\" : \"1,2\", \"skipDays\" : \"Monday\" }, " +
+                        "\"atomConfig\": { \"authorName\" : \"Bench Author\", \"authorEmail\" : \"author@localhost\", " +
+                        "\"categoryTerm\" : \"bench\" } }",
+                "Copyright (c) bench",
+                "en-US",
+                "benchImgTransportIdent",
+                false
+        );
+        queueDefinition.setId(QUEUE_ID);
+        return queueDefinition;
+    }
+
+    static List<StagingPost> stagingPosts(int postCt, boolean withModules) {
+        List<StagingPost> stagingPosts = new ArrayList<>(postCt);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < postCt; i++) {
+            Date timestamp = new Date(now - i * 60_000L);
+            stagingPosts.add(StagingPost.from(
+                    "benchImporterId",
+                    QUEUE_ID,
+                    "benchImporterDesc",
+                    (long) i,
+                    ContentObject.from(String.valueOf(i), "text", "Post title " + i),
+                    ContentObject.from(String.valueOf(i), "html", "<p>Post description " + i + " with <b>some</b> markup</p>"),
+                    List.of(ContentObject.from(String.valueOf(i), "html", "<p>Post content " + i + ", which is usually the longest part of a post.</p>")),
+                    withModules ? postMedia() : null,
+                    withModules ? postITunes() : null,
+                    "https://localhost/posts/" + i,
+                    List.of(postUrl(i)),
+                    "https://localhost/posts/" + i + "/img.png",
+                    timestamp,
+                    "postHash" + i,
+                    "bench",
+                    "https://localhost/posts/" + i + "/comments",
+                    "Copyright (c) bench",
+                    List.of(postPerson("Contributor " + i)),
+                    List.of(postPerson("Author " + i)),
+                    List.of("bench", "category" + (i % 10)),
+                    timestamp,
+                    null,
+                    List.of(postEnclosure(i)),
+                    timestamp
+            ));
+        }
+        return stagingPosts;
+    }
+
+    /**
+     * Posts with only the fields that every post has (title, description, URL, hash and timestamps), and none of the
+     * optional data (contents, media/iTunes modules, related URLs, people, categories or enclosures).
+     */
+    static List<StagingPost> bareStagingPosts(int postCt) {
+        List<StagingPost> stagingPosts = new ArrayList<>(postCt);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < postCt; i++) {
+            Date timestamp = new Date(now - i * 60_000L);
+            stagingPosts.add(StagingPost.from(
+                    "benchImporterId",
+                    QUEUE_ID,
+                    "benchImporterDesc",
+                    (long) i,
+                    ContentObject.from(String.valueOf(i), "text", "Post title " + i),
+                    ContentObject.from(String.valueOf(i), "html", "<p>Post description " + i + "</p>"),
+                    null,
+                    null,
+                    null,
+                    "https://localhost/posts/" + i,
+                    null,
+                    null,
+                    timestamp,
+                    "postHash" + i,
+                    "bench",
+                    null,
+                    null,
+                    null,
+                    null,
+                    null,
+                    timestamp,
+                    null,
+                    null,
+                    timestamp
+            ));
+        }
+        return stagingPosts;
+    }
+
+    private static PostMedia postMedia() {
+        MediaEntryModuleImpl mediaEntryModule = new MediaEntryModuleImpl();
+        mediaEntryModule.setMetadata(new Metadata());
+        return PostMedia.from(mediaEntryModule);
+    }
+
+    private static PostITunes postITunes() {
+        EntryInformationImpl entryInformation = new EntryInformationImpl();
+        entryInformation.setKeywords(new String[]{"bench", "synthetic"});
+        return PostITunes.from(entryInformation);
+    }
+
+    private static PostUrl postUrl(int i) {
+        PostUrl postUrl = new PostUrl();
+        postUrl.setTitle("Related " + i);
+        postUrl.setRel("related");
+        postUrl.setHref("https://localhost/posts/" + i + "/related");
+        postUrl.setType("text/html");
+        return postUrl;
+    }
+
+    private static PostPerson postPerson(String name) {
+        PostPerson postPerson = new PostPerson();
+        postPerson.setName(name);
+        postPerson.setEmail("person@localhost");
+        return postPerson;
+    }
+
+    private static PostEnclosure postEnclosure(int i) {
+        PostEnclosure postEnclosure = new PostEnclosure();
+        postEnclosure.setUrl("https://localhost/posts/" + i + "/audio.mp3");
+        postEnclosure.setType("audio/mpeg");
+        postEnclosure.setLength(4821L + i);
+        return postEnclosure;
+    }
+}
@@ -0,0 +1,73 @@
+package com.lostsidewalk.buffy.rss;
+
+import com.lostsidewalk.buffy.queue.QueueDefinition;
+import com.rometools.rome.feed.atom.Feed;
+import com.rometools.rome.feed.rss.Channel;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the RSS channel and ATOM feed builders, and the per-post item/entry mapping underneath them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FeedBuilderBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    int postCt;
+
+    @Param({"true", "false"})
+    boolean withModules;
+
+    private RSSChannelBuilder rssChannelBuilder;
+
+    private ATOMFeedBuilder atomFeedBuilder;
+
+    private QueueDefinition queueDefinition;
+
+    private List<NormalizedPost> posts;
+
+    private Date pubDate;
+
+    @Setup
+    public void setup() {
+        RSSPublisherConfigProps configProps = BenchmarkFixtures.configProps();
+        rssChannelBuilder = new RSSChannelBuilder(configProps);
+        atomFeedBuilder = new ATOMFeedBuilder(configProps);
+        queueDefinition = BenchmarkFixtures.queueDefinition();
+        posts = NormalizedPost.normalize(BenchmarkFixtures.stagingPosts(postCt, withModules));
+        pubDate = new Date();
+    }
+
+    @Benchmark
+    public Channel buildChannel() {
+        return rssChannelBuilder.buildChannel(queueDefinition, posts, pubDate);
+    }
+
+    @Benchmark
+    public Feed buildFeed() {
+        return atomFeedBuilder.buildFeed(queueDefinition, posts, pubDate);
+    }
+
+    @Benchmark
+    public void toItem(Blackhole blackhole) {
+        for (NormalizedPost post : posts) {
+            blackhole.consume(RSSChannelItemBuilder.toItem(post));
+        }
+    }
+
+    @Benchmark
+    public void toEntry(Blackhole blackhole) {
+        for (NormalizedPost post : posts) {
+            blackhole.consume(ATOMFeedEntryBuilder.toEntry(post, pubDate));
+        }
+    }
+}
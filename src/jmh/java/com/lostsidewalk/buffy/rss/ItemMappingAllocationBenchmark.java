@@ -0,0 +1,119 @@
+package com.lostsidewalk.buffy.rss;
+
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the bytes allocated per post by the RSS item and ATOM entry mapping, for posts with and without optional
+ * data.  Run through {@link #main}, the benchmark doubles as an allocation regression check: the GC profiler's
+ * normalized allocation rate is divided by the number of posts per operation, and the check fails if it exceeds the
+ * ceiling of the mapping and post shape.
+ * <p>
+ * <pre>
+ * ./gradlew jmhAllocationCheck
+ * </pre>
+ * The check also runs as part of {@code ./gradlew check}.
+ */
+@Slf4j
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class ItemMappingAllocationBenchmark {
+
+    static final int POST_CT = 100;
+
+    /**
+     * Ceilings, in bytes per post, keyed by benchmark method and post shape (measured at 144, 344, 264 and 760 bytes on
+     * a 64-bit JVM with compressed oops, plus some headroom).
+     */
+    static final Map<String, Long> BYTES_PER_POST_CEILINGS = Map.of(
+            "toItem:bare", 160L,
+            "toItem:full", 368L,
+            "toEntry:bare", 288L,
+            "toEntry:full", 824L);
+
+    @Param({"bare", "full"})
+    String shape;
+
+    private List<NormalizedPost> posts;
+
+    private Date pubDate;
+
+    @Setup
+    public void setup() {
+        posts = NormalizedPost.normalize("bare".equals(shape) ?
+                BenchmarkFixtures.bareStagingPosts(POST_CT) : BenchmarkFixtures.stagingPosts(POST_CT, true));
+        pubDate = new Date();
+    }
+
+    @Benchmark
+    public void toItem(Blackhole blackhole) {
+        for (NormalizedPost post : posts) {
+            blackhole.consume(RSSChannelItemBuilder.toItem(post));
+        }
+    }
+
+    @Benchmark
+    public void toEntry(Blackhole blackhole) {
+        for (NormalizedPost post : posts) {
+            blackhole.consume(ATOMFeedEntryBuilder.toEntry(post, pubDate));
+        }
+    }
+
+    /**
+     * Runs the benchmark with the GC profiler, and fails if any mapping allocates more bytes per post than its ceiling.
+     */
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ItemMappingAllocationBenchmark.class.getName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        Collection<RunResult> runResults = new Runner(options).run();
+        List<String> violations = new ArrayList<>(4);
+        for (RunResult runResult : runResults) {
+            String benchmark = runResult.getParams().getBenchmark();
+            String key = benchmark.substring(benchmark.lastIndexOf('.') + 1) + ':' + runResult.getParams().getParam("shape");
+            Result<?> allocRateNorm = allocRateNorm(runResult.getSecondaryResults());
+            if (allocRateNorm == null) {
+                throw new IllegalStateException("GC profiler did not report gc.alloc.rate.norm for " + key);
+            }
+            double bytesPerPost = allocRateNorm.getScore() / POST_CT;
+            long ceiling = BYTES_PER_POST_CEILINGS.get(key);
+            log.info("{}: {} bytes/post (ceiling {})", key, String.format("%.1f", bytesPerPost), ceiling);
+            if (bytesPerPost > ceiling) {
+                violations.add(String.format("%s allocates %.1f bytes/post, ceiling is %d", key, bytesPerPost, ceiling));
+            }
+        }
+        if (!violations.isEmpty()) {
+            throw new AssertionError("Allocation ceilings exceeded: " + violations);
+        }
+    }
+
+    // the profiler's result labels carry a leading marker in some JMH versions
+    private static Result<?> allocRateNorm(Map<String, Result> secondaryResults) {
+        for (Map.Entry<String, Result> e : secondaryResults.entrySet()) {
+            if (e.getKey().endsWith("gc.alloc.rate.norm")) {
+                return e.getValue();
+            }
+        }
+        return null;
+    }
+}
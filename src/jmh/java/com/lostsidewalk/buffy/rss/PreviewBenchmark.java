@@ -0,0 +1,70 @@
+package com.lostsidewalk.buffy.rss;
+
+import com.lostsidewalk.buffy.model.RenderedFeedDao;
+import com.lostsidewalk.buffy.post.StagingPost;
+import com.lostsidewalk.buffy.publisher.FeedPreview;
+import com.lostsidewalk.buffy.queue.QueueDefinitionDao;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.lostsidewalk.buffy.publisher.Publisher.PubFormat.ATOM;
+import static com.lostsidewalk.buffy.publisher.Publisher.PubFormat.RSS;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Benchmarks full feed preview (normalization, build and serialization) through {@link RSSPublisher#doPreview}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PreviewBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    int postCt;
+
+    @Param({"true", "false"})
+    boolean withModules;
+
+    private RSSPublisher rssPublisher;
+
+    private List<StagingPost> stagingPosts;
+
+    @Setup
+    public void setup() throws Exception {
+        RSSPublisherConfigProps configProps = BenchmarkFixtures.configProps();
+        QueueDefinitionDao queueDefinitionDao = mock(QueueDefinitionDao.class);
+        when(queueDefinitionDao.findByUser(anyString())).thenReturn(List.of(BenchmarkFixtures.queueDefinition()));
+        rssPublisher = new RSSPublisher();
+        rssPublisher.configProps = configProps;
+        rssPublisher.rssChannelBuilder = new RSSChannelBuilder(configProps);
+        rssPublisher.atomFeedBuilder = new ATOMFeedBuilder(configProps);
+        rssPublisher.queueDefinitionDao = queueDefinitionDao;
+        rssPublisher.renderedFeedDao = mock(RenderedFeedDao.class);
+        rssPublisher.publisherMetrics = new PublisherMetrics(new SimpleMeterRegistry());
+        rssPublisher.postConstruct();
+        stagingPosts = BenchmarkFixtures.stagingPosts(postCt, withModules);
+    }
+
+    @TearDown
+    public void tearDown() {
+        rssPublisher.preDestroy();
+    }
+
+    @Benchmark
+    public List<FeedPreview> previewRSS() throws Exception {
+        return rssPublisher.doPreview("bench", stagingPosts, RSS);
+    }
+
+    @Benchmark
+    public List<FeedPreview> previewATOM() throws Exception {
+        return rssPublisher.doPreview("bench", stagingPosts, ATOM);
+    }
+}
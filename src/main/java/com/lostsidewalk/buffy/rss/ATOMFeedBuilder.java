@@ -1,18 +1,17 @@
 package com.lostsidewalk.buffy.rss;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonObject;
-import com.lostsidewalk.buffy.post.StagingPost;
 import com.lostsidewalk.buffy.queue.QueueDefinition;
+import com.lostsidewalk.buffy.rss.QueueExportConfig.AtomConfig;
 import com.rometools.rome.feed.atom.*;
 import com.rometools.rome.feed.synd.SyndPerson;
 import com.rometools.rome.feed.synd.SyndPersonImpl;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.*;
+import java.util.function.Function;
 
 import static java.util.Collections.singletonList;
-import static java.util.Comparator.comparing;
+import static java.util.Comparator.naturalOrder;
 import static org.apache.commons.collections4.CollectionUtils.isNotEmpty;
 import static org.apache.commons.collections4.CollectionUtils.size;
 import static org.apache.commons.lang3.StringUtils.defaultString;
@@ -22,8 +21,6 @@ import static org.apache.commons.lang3.StringUtils.isNotBlank;
 @Slf4j
 class ATOMFeedBuilder {
 
-    private static final Gson GSON = new Gson();
-
     private final RSSPublisherConfigProps configProps;
 
     ATOMFeedBuilder(RSSPublisherConfigProps configProps) {
@@ -34,55 +31,69 @@ class ATOMFeedBuilder {
     // FEED DEFINITION
     //
 
-    final Feed buildFeed(QueueDefinition queueDefinition, Collection<? extends StagingPost> stagingPosts, Date pubDate) {
+    final Feed buildFeed(QueueDefinition queueDefinition, List<NormalizedPost> posts, Date pubDate) {
+        return buildFeed(queueDefinition, QueueRenderContext.of(queueDefinition, configProps), posts, post -> ATOMFeedEntryBuilder.toEntry(post, pubDate));
+    }
+
+    final Feed buildFeed(QueueDefinition queueDefinition, QueueRenderContext renderContext, List<NormalizedPost> posts, Function<? super NormalizedPost, Entry> entryMapper) {
+        Feed feed = buildFeedHeader(queueDefinition, renderContext, posts);
+        // entries
+        List<Entry> entries = getEntries(posts, entryMapper);
+        if (isNotEmpty(entries)) {
+            entries.forEach(e -> e.setSource(feed));
+            feed.setEntries(entries);
+        }
+
+        return feed;
+    }
+
+    /**
+     * Builds the feed without its entries, so that they can be added as they are fitted into a byte budget.  The
+     * updated date is still taken from the given posts.
+     */
+    final Feed buildFeedHeader(QueueDefinition queueDefinition, QueueRenderContext renderContext, List<NormalizedPost> posts) {
         Feed feed = new Feed();
         // feed type
         feed.setFeedType(configProps.getAtomFeedType()); // ok
         // other links
-        feed.setOtherLinks(getOtherLinks(queueDefinition)); // ok
+        feed.setOtherLinks(getOtherLinks(renderContext)); // ok
         // updated
         // last build date
-        Date lastBuildDate = stagingPosts.stream()
-                .filter(stagingPost -> stagingPost.getLastUpdatedTimestamp() != null)
-                .max(comparing(StagingPost::getLastUpdatedTimestamp))
-                .map(StagingPost::getLastUpdatedTimestamp)
+        Date lastBuildDate = posts.stream()
+                .map(NormalizedPost::getLastUpdatedTimestamp)
+                .filter(Objects::nonNull)
+                .max(naturalOrder())
                 .orElse(null);
         feed.setUpdated(lastBuildDate); // ok
         // required
-        setFeedRequiredProperties(feed, queueDefinition);
+        setFeedRequiredProperties(feed, queueDefinition, renderContext);
         // optional
-        setFeedOptionalProperties(feed, getAtomConfigObj(queueDefinition));
-        // entries
-        List<Entry> entries = getEntries(stagingPosts, pubDate);
-        if (isNotEmpty(entries)) {
-            entries.forEach(e -> e.setSource(feed));
-            feed.setEntries(entries);
-        }
+        setFeedOptionalProperties(feed, renderContext.getExportConfig().getAtomConfig());
 
         return feed;
     }
 
-    private List<Link> getOtherLinks(QueueDefinition queueDefinition) {
+    private static List<Link> getOtherLinks(QueueRenderContext renderContext) {
         Link link = new Link();
         link.setRel("self");
-        link.setHref(String.format(configProps.getChannelUriTemplate(), queueDefinition.getTransportIdent()));
+        link.setHref(renderContext.getChannelUri());
         return singletonList(link);
     }
 
-    private void setFeedRequiredProperties(Feed feed, QueueDefinition queueDefinition) {
+    private void setFeedRequiredProperties(Feed feed, QueueDefinition queueDefinition, QueueRenderContext renderContext) {
         feed.setTitle(defaultString(queueDefinition.getTitle(), queueDefinition.getIdent())); // ok
         feed.setSubtitle(getDescription(queueDefinition)); // ok
 //        feed.setTagline(getDescription(queueDefinition)); // legacy
-        feed.setId(String.format(configProps.getChannelUriTemplate(), queueDefinition.getTransportIdent())); // ok
+        feed.setId(renderContext.getChannelUri()); // ok
         feed.setLanguage(queueDefinition.getLanguage()); // legacy
 //        feed.setCopyright(queueDefinition.getCopyright()); // legacy
         feed.setRights(queueDefinition.getCopyright()); // ok
         feed.setGenerator(getGenerator(queueDefinition)); // ok
         //        feed.setModified(queueDefinition.getLastDeployed()); // legacy
-        String queueImgTransportIdent = queueDefinition.getQueueImgTransportIdent();
-        if (isNotBlank(queueImgTransportIdent)) {
-            feed.setLogo(String.format(configProps.getChannelImageUrlTemplate(), queueImgTransportIdent)); // ok
-            feed.setIcon(String.format(configProps.getChannelImageUrlTemplate(), queueImgTransportIdent)); // ok
+        String channelImageUrl = renderContext.getChannelImageUrl();
+        if (channelImageUrl != null) {
+            feed.setLogo(channelImageUrl); // ok
+            feed.setIcon(channelImageUrl); // ok
         }
     }
 
@@ -101,12 +112,12 @@ class ATOMFeedBuilder {
         return generator;
     }
 
-    private static void setFeedOptionalProperties(Feed feed, JsonObject atomConfigObj) {
-        if (atomConfigObj != null) {
-            feed.setAuthors(getAuthors(atomConfigObj)); // ok
-            feed.setContributors(getContributors(atomConfigObj)); // ok
-//            feed.setInfo(getInfo(atomConfigObj)); // legacy
-            feed.setCategories(getCategories(atomConfigObj)); // ok
+    private static void setFeedOptionalProperties(Feed feed, AtomConfig atomConfig) {
+        if (atomConfig != null) {
+            feed.setAuthors(getAuthors(atomConfig)); // ok
+            feed.setContributors(getContributors(atomConfig)); // ok
+//            feed.setInfo(getInfo(atomConfig)); // legacy
+            feed.setCategories(getCategories(atomConfig)); // ok
         }
     }
 
@@ -114,16 +125,6 @@ class ATOMFeedBuilder {
     //
     //
 
-    private static JsonObject getAtomConfigObj(QueueDefinition queueDefinition) {
-        JsonObject exportConfigObj = Optional.ofNullable(queueDefinition.getExportConfig())
-                .map(Object::toString)
-                .map(s -> GSON.fromJson(s, JsonObject.class))
-                .orElse(null);
-        return (exportConfigObj != null && exportConfigObj.has("atomConfig")) ?
-                exportConfigObj.get("atomConfig").getAsJsonObject() :
-                null;
-    }
-
     private static Content getDescription(QueueDefinition queueDefinition) {
         Content subtitle = new Content();
         String description = queueDefinition.getDescription();
@@ -141,46 +142,39 @@ class ATOMFeedBuilder {
     //
     //
 
-    private static String getStringProperty(JsonObject obj, String propertyName) {
-        if (obj != null) {
-            if (obj.has(propertyName)) return obj.get(propertyName).getAsString();
-        }
-        return null;
-    }
-
-    private static List<SyndPerson> getAuthors(JsonObject atomConfigObj) {
-        String authorName = getStringProperty(atomConfigObj, "authorName");
+    private static List<SyndPerson> getAuthors(AtomConfig atomConfig) {
+        String authorName = atomConfig.getAuthorName();
         if (isNotBlank(authorName)) {
             SyndPerson author = new SyndPersonImpl();
             author.setName(authorName);
-            author.setEmail(getStringProperty(atomConfigObj, "authorEmail"));
-            author.setUri(getStringProperty(atomConfigObj, "authorUri"));
+            author.setEmail(atomConfig.getAuthorEmail());
+            author.setUri(atomConfig.getAuthorUri());
             return singletonList(author);
         }
 
         return null;
     }
 
-    private static List<SyndPerson> getContributors(JsonObject atomConfigObj) {
-        String contributorName = getStringProperty(atomConfigObj, "contributorName");
+    private static List<SyndPerson> getContributors(AtomConfig atomConfig) {
+        String contributorName = atomConfig.getContributorName();
         if (isNotBlank(contributorName)) {
             SyndPerson contributor = new SyndPersonImpl();
             contributor.setName(contributorName);
-            contributor.setEmail(getStringProperty(atomConfigObj, "contributorEmail"));
-            contributor.setUri(getStringProperty(atomConfigObj, "contributorUri"));
+            contributor.setEmail(atomConfig.getContributorEmail());
+            contributor.setUri(atomConfig.getContributorUri());
             return singletonList(contributor);
         }
 
         return null;
     }
 
-    private static List<Category> getCategories(JsonObject atomConfigObj) {
-        String categoryTerm = getStringProperty(atomConfigObj, "categoryTerm");
+    private static List<Category> getCategories(AtomConfig atomConfig) {
+        String categoryTerm = atomConfig.getCategoryTerm();
         if (isNotBlank(categoryTerm)) {
             Category category = new Category();
             category.setTerm(categoryTerm);
-            category.setLabel(getStringProperty(atomConfigObj, "categoryLabel"));
-            category.setScheme(getStringProperty(atomConfigObj, "categoryScheme"));
+            category.setLabel(atomConfig.getCategoryLabel());
+            category.setScheme(atomConfig.getCategoryScheme());
             return singletonList(category);
         }
 
@@ -191,12 +185,12 @@ class ATOMFeedBuilder {
     //
     //
 
-    private static List<Entry> getEntries(Collection<? extends StagingPost> stagingPosts, Date pubDate) {
+    private static List<Entry> getEntries(List<NormalizedPost> posts, Function<? super NormalizedPost, Entry> entryMapper) {
         List<Entry> entries = null;
-        if (isNotEmpty(stagingPosts)) {
-            entries = new ArrayList<>(size(stagingPosts));
-            for (StagingPost stagingPost : stagingPosts) {
-                Entry entry = ATOMFeedEntryBuilder.toEntry(stagingPost, pubDate);
+        if (isNotEmpty(posts)) {
+            entries = new ArrayList<>(size(posts));
+            for (NormalizedPost post : posts) {
+                Entry entry = entryMapper.apply(post);
                 entries.add(entry);
             }
         }
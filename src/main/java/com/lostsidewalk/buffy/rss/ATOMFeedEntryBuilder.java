@@ -1,13 +1,13 @@
 package com.lostsidewalk.buffy.rss;
 
-import com.lostsidewalk.buffy.post.*;
-import com.rometools.modules.itunes.ITunes;
-import com.rometools.modules.mediarss.MediaEntryModule;
+import com.lostsidewalk.buffy.post.ContentObject;
+import com.lostsidewalk.buffy.post.PostEnclosure;
+import com.lostsidewalk.buffy.post.PostPerson;
+import com.lostsidewalk.buffy.post.PostUrl;
 import com.rometools.rome.feed.atom.Category;
 import com.rometools.rome.feed.atom.Content;
 import com.rometools.rome.feed.atom.Entry;
 import com.rometools.rome.feed.atom.Link;
-import com.rometools.rome.feed.module.Module;
 import com.rometools.rome.feed.synd.SyndPerson;
 import com.rometools.rome.feed.synd.SyndPersonImpl;
 import lombok.extern.slf4j.Slf4j;
@@ -25,22 +25,48 @@ import static org.apache.commons.lang3.StringUtils.isNotBlank;
 @Slf4j
 class ATOMFeedEntryBuilder {
 
-    static Entry toEntry(StagingPost stagingPost, Date pubDate) {
+    static Entry toEntry(NormalizedPost post, Date pubDate) {
         Entry entry = new Entry();
-        setEntryRequiredProperties(entry, stagingPost);
-        setEntryOptionalProperties(entry, stagingPost, pubDate);
+        setEntryRequiredProperties(entry, post);
+        setEntryOptionalProperties(entry, post, pubDate);
         return entry;
     }
 
-    private static void setEntryRequiredProperties(Entry entry, StagingPost stagingPost) {
-        entry.setId(stagingPost.getPostUrl()); // TODO: this is required, but post URL can be null
-        entry.setTitleEx(getTitleEx(stagingPost));
-        entry.setUpdated(stagingPost.getLastUpdatedTimestamp());
-        entry.setSummary(getSummary(stagingPost));
+    /**
+     * Makes a shallow copy of the given entry; collections other than the module list are shared with the original, and
+     * must not be modified.  (A deep clone would follow the entry source back into the feed, and from there into every
+     * other entry.)
+     */
+    static Entry copyOf(Entry entry) {
+        Entry copy = new Entry();
+        copy.setTitleEx(entry.getTitleEx());
+        copy.setAlternateLinks(entry.getAlternateLinks());
+        copy.setOtherLinks(entry.getOtherLinks());
+        copy.setCategories(entry.getCategories());
+        copy.setAuthors(entry.getAuthors());
+        copy.setContributors(entry.getContributors());
+        copy.setId(entry.getId());
+        copy.setUpdated(entry.getUpdated());
+        copy.setPublished(entry.getPublished());
+        copy.setContents(entry.getContents());
+        copy.setSummary(entry.getSummary());
+        copy.setSource(entry.getSource());
+        copy.setRights(entry.getRights());
+        copy.setXmlBase(entry.getXmlBase());
+        copy.setModules(new ArrayList<>(entry.getModules()));
+        copy.setForeignMarkup(entry.getForeignMarkup());
+        return copy;
     }
 
-    private static Content getTitleEx(StagingPost stagingPost) {
-        ContentObject postTitle = stagingPost.getPostTitle();
+    private static void setEntryRequiredProperties(Entry entry, NormalizedPost post) {
+        entry.setId(post.getPostUrl()); // TODO: this is required, but post URL can be null
+        entry.setTitleEx(getTitleEx(post));
+        entry.setUpdated(post.getLastUpdatedTimestamp());
+        entry.setSummary(getSummary(post));
+    }
+
+    private static Content getTitleEx(NormalizedPost post) {
+        ContentObject postTitle = post.getPostTitle();
         if (postTitle != null) {
             Content title = new Content();
             title.setType(postTitle.getType());
@@ -51,8 +77,8 @@ class ATOMFeedEntryBuilder {
         return null;
     }
 
-    private static Content getSummary(StagingPost stagingPost) {
-        ContentObject postDesc = stagingPost.getPostDesc();
+    private static Content getSummary(NormalizedPost post) {
+        ContentObject postDesc = post.getPostDesc();
         if (postDesc != null) {
             Content summary = new Content();
             summary.setType(postDesc.getType());
@@ -63,41 +89,48 @@ class ATOMFeedEntryBuilder {
         return null;
     }
 
-    private static void setEntryOptionalProperties(Entry entry, StagingPost stagingPost, Date pubDate) {
-        entry.setAlternateLinks(getAlternateLinks(stagingPost));
-        //
-        List<Link> otherLinks = new ArrayList<>(16);
-        otherLinks.addAll(getPostUrlLinks(stagingPost));
-        otherLinks.addAll(getEnclosureLinks(stagingPost));
-        entry.setOtherLinks(otherLinks);
-        //
-        entry.setAuthors(getAuthors(stagingPost));
-        entry.setContributors(getContributors(stagingPost));
-        entry.setRights(stagingPost.getPostRights());
-//        entry.setCreated(stagingPost.getImportTimestamp()); // legacy
+    /**
+     * Gets the published date of the entry of the given post: its publish timestamp, or else the publish date of the feed.
+     */
+    static Date publishedDate(NormalizedPost post, Date pubDate) {
+        return post.getPublishTimestamp() == null ? pubDate : post.getPublishTimestamp();
+    }
+
+    private static void setEntryOptionalProperties(Entry entry, NormalizedPost post, Date pubDate) {
+        entry.setAlternateLinks(getAlternateLinks(post));
+        entry.setOtherLinks(getOtherLinks(post));
+        entry.setAuthors(getAuthors(post));
+        entry.setContributors(getContributors(post));
+        entry.setRights(post.getPostRights());
+//        entry.setCreated(post.getImportTimestamp()); // legacy
 //        entry.setIssued(now); // legacy
-        entry.setPublished(stagingPost.getPublishTimestamp() == null ? pubDate : stagingPost.getPublishTimestamp());
-        entry.setCategories(getCategories(stagingPost));
-        entry.setContents(getContents(stagingPost));
-        entry.setModules(getModules(stagingPost));
+        entry.setPublished(publishedDate(post, pubDate));
+        entry.setCategories(getCategories(post));
+        entry.setContents(getContents(post));
+        entry.setModules(post.copyModules());
     }
 
-    private static List<Link> getAlternateLinks(StagingPost stagingPost) {
+    private static List<Link> getAlternateLinks(NormalizedPost post) {
         List<Link> links = null;
-        String postUrl = stagingPost.getPostUrl();
+        String postUrl = post.getPostUrl();
         if (isNotBlank(postUrl)) {
             Link link = new Link();
-            link.setHref(stagingPost.getPostUrl());
+            link.setHref(post.getPostUrl());
             link.setRel("alternate");
             links = singletonList(link);
         }
         return links;
     }
 
-    private static List<Link> getPostUrlLinks(StagingPost stagingPost) {
+    private static List<Link> getOtherLinks(NormalizedPost post) {
         // Note: skip the link w/rel=alternate (accounted for above)
-        List<PostUrl> postUrls = stagingPost.getPostUrls();
-        List<Link> links = new ArrayList<>(size(postUrls));
+        List<PostUrl> postUrls = post.getPostUrls();
+        List<PostEnclosure> postEnclosures = post.getEnclosures();
+        int linkCt = size(postUrls) + size(postEnclosures);
+        if (linkCt == 0) {
+            return null;
+        }
+        List<Link> links = new ArrayList<>(linkCt);
         if (isNotEmpty(postUrls)) {
             for (PostUrl postUrl : postUrls) {
                 Link link = new Link();
@@ -109,14 +142,6 @@ class ATOMFeedEntryBuilder {
                 links.add(link);
             }
         }
-
-        return links;
-    }
-
-    private static List<Link> getEnclosureLinks(StagingPost stagingPost) {
-        //
-        List<PostEnclosure> postEnclosures = stagingPost.getEnclosures();
-        List<Link> links = new ArrayList<>(size(postEnclosures));
         if (isNotEmpty(postEnclosures)) {
             for (PostEnclosure postEnclosure : postEnclosures) {
                 Link link = new Link();
@@ -131,8 +156,8 @@ class ATOMFeedEntryBuilder {
         return links;
     }
 
-    private static List<SyndPerson> getAuthors(StagingPost stagingPost) {
-        List<PostPerson> postAuthors = stagingPost.getAuthors();
+    private static List<SyndPerson> getAuthors(NormalizedPost post) {
+        List<PostPerson> postAuthors = post.getAuthors();
         List<SyndPerson> authors = null;
         if (isNotEmpty(postAuthors)) {
             authors = new ArrayList<>(size(postAuthors));
@@ -148,8 +173,8 @@ class ATOMFeedEntryBuilder {
         return authors;
     }
 
-    private static List<SyndPerson> getContributors(StagingPost stagingPost) {
-        List<PostPerson> postContributors = stagingPost.getContributors();
+    private static List<SyndPerson> getContributors(NormalizedPost post) {
+        List<PostPerson> postContributors = post.getContributors();
         List<SyndPerson> contributors = null;
         if (isNotEmpty(postContributors)) {
             contributors = new ArrayList<>(size(postContributors));
@@ -165,25 +190,29 @@ class ATOMFeedEntryBuilder {
         return contributors;
     }
 
-    private static List<Category> getCategories(StagingPost stagingPost) {
-        List<String> postCategories = stagingPost.getPostCategories();
+    private static List<Category> getCategories(NormalizedPost post) {
+        List<String> postCategories = post.getPostCategories();
         List<Category> categories = null;
         if (isNotEmpty(postCategories)) {
             categories = new ArrayList<>(size(postCategories));
             for (String postCategory : postCategories) {
-                Category category = new Category();
-                category.setTerm(postCategory);
-                category.setLabel(postCategory);
-                categories.add(category);
+                categories.add(newCategory(postCategory));
             }
         }
 
         return categories;
     }
 
-    private static List<Content> getContents(StagingPost stagingPost) {
+    private static Category newCategory(String postCategory) {
+        Category category = new Category();
+        category.setTerm(postCategory);
+        category.setLabel(postCategory);
+        return category;
+    }
+
+    private static List<Content> getContents(NormalizedPost post) {
         List<Content> contents = null;
-        List<ContentObject> postContents = stagingPost.getPostContents();
+        List<ContentObject> postContents = post.getPostContents();
         if (isNotEmpty(postContents)) {
             contents = new ArrayList<>(size(postContents));
             for (ContentObject p : postContents) {
@@ -196,22 +225,4 @@ class ATOMFeedEntryBuilder {
 
         return contents;
     }
-
-    private static List<Module> getModules(StagingPost stagingPost) {
-        List<Module> modules = new ArrayList<>(2);
-        // post media
-        PostMedia postMedia = stagingPost.getPostMedia();
-        if (postMedia != null) {
-            MediaEntryModule mm = postMedia.toModule();
-            modules.add(mm);
-        }
-        PostITunes postITunes = stagingPost.getPostITunes();
-        // post iTunes
-        if (postITunes != null) {
-            ITunes im = postITunes.toEntryModule();
-            modules.add(im);
-        }
-
-        return modules.isEmpty() ? null : modules;
-    }
 }
@@ -0,0 +1,248 @@
+package com.lostsidewalk.buffy.rss;
+
+import com.rometools.rome.feed.atom.Entry;
+import com.rometools.rome.feed.atom.Feed;
+import com.rometools.rome.feed.rss.Channel;
+import com.rometools.rome.feed.rss.Item;
+import com.rometools.rome.io.FeedException;
+import com.rometools.rome.io.WireFeedOutput;
+import lombok.extern.slf4j.Slf4j;
+import org.jdom2.Element;
+import org.jdom2.Namespace;
+import org.jdom2.output.Format;
+import org.jdom2.output.support.AbstractXMLOutputProcessor;
+import org.jdom2.output.support.FormatStack;
+import org.jdom2.util.NamespaceStack;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+
+import static java.util.Collections.singletonList;
+import static org.apache.commons.collections4.CollectionUtils.isEmpty;
+
+/**
+ * Renders RSS channels and ATOM feeds to XML by serializing the feed header once and splicing in the serialized
+ * {@code <item>}/{@code <entry>} fragment of each post.  Fragments are held in an {@link ItemFragmentCache}, so that
+ * republishing a feed whose posts are mostly unchanged only serializes the new or changed posts.
+ * <p>
+ * Documents are rendered as {@link WireFeedOutput} pretty-prints them (i.e., as the stored feed is served), and each
+ * fragment is rendered as it appears in such a document, indented and preceded by its line break, so that the length
+ * of a document is the length of its header plus the length of its fragments.  The one difference is that namespaces
+ * used by items (e.g., content:encoded) are declared on the elements that use them rather than on the root element,
+ * which makes a rendered document at least as long as the document that WireFeedOutput renders.
+ */
+@Slf4j
+class CachingFeedRenderer {
+
+    private static final String PLACEHOLDER = "-";
+
+    private static final String RSS_FORMAT = "RSS";
+
+    private static final String ATOM_FORMAT = "ATOM";
+
+    // both are stateless once constructed (the generator registries are static), and are shared by all renders
+    private static final WireFeedOutput WIRE_FEED_OUTPUT = new WireFeedOutput();
+
+    private static final FragmentOutputProcessor FRAGMENT_OUTPUT_PROCESSOR = new FragmentOutputProcessor();
+
+    // items are children of the channel element, and entries are children of the root element
+    private static final int ITEM_DEPTH = 2;
+
+    private static final int ENTRY_DEPTH = 1;
+
+    private final ItemFragmentCache fragmentCache;
+
+    CachingFeedRenderer(ItemFragmentCache fragmentCache) {
+        this.fragmentCache = fragmentCache;
+    }
+
+    //
+    // RSS
+    //
+
+    final String renderChannel(Channel channel, List<NormalizedPost> posts) throws FeedException {
+        String header = renderChannelHeader(channel);
+        List<Item> items = channel.getItems();
+        if (isEmpty(items)) {
+            return header;
+        }
+        int insertAt = insertionPoint(header, "</channel>");
+        StringBuilder rendered = new StringBuilder(header.length() + (items.size() << 10));
+        rendered.append(header, 0, insertAt);
+        String feedType = channel.getFeedType();
+        for (int i = 0; i < items.size(); i++) {
+            rendered.append(getItemFragment(feedType, items.get(i), postAt(posts, i)));
+        }
+        rendered.append(header, insertAt, header.length());
+        return rendered.toString();
+    }
+
+    /**
+     * Renders the given channel without its items.
+     */
+    static String renderChannelHeader(Channel channel) throws FeedException {
+        List<Item> items = channel.getItems();
+        channel.setItems(null);
+        try {
+            return WIRE_FEED_OUTPUT.outputString(channel);
+        } finally {
+            channel.setItems(items);
+        }
+    }
+
+    /**
+     * Gets the rendered form of a single channel item, as it is spliced into the channel by {@link #renderChannel}.
+     *
+     * @param post the normalized post that the item was built from, used to key the item fragment cache; may be null,
+     *             in which case the item is not cached
+     */
+    final String getItemFragment(String feedType, Item item, NormalizedPost post) throws FeedException {
+        return fragmentCache.getFragment(RSS_FORMAT, post, () -> renderItem(feedType, item));
+    }
+
+    /**
+     * Gets the rendered form of the channel item of the given post, building the item only if its fragment is not
+     * cached.
+     */
+    final String getItemFragment(String feedType, NormalizedPost post, Function<? super NormalizedPost, Item> itemMapper) throws FeedException {
+        return fragmentCache.getFragment(RSS_FORMAT, post, () -> renderItem(feedType, itemMapper.apply(post)));
+    }
+
+    private static String renderItem(String feedType, Item item) throws FeedException {
+        Channel fragmentChannel = new Channel(feedType);
+        fragmentChannel.setTitle(PLACEHOLDER);
+        fragmentChannel.setLink(PLACEHOLDER);
+        fragmentChannel.setDescription(PLACEHOLDER);
+        fragmentChannel.setItems(singletonList(item));
+        Element eRoot = WIRE_FEED_OUTPUT.outputJDom(fragmentChannel).getRootElement();
+        Element eItem = eRoot.getChild("channel").getChild("item");
+        return FRAGMENT_OUTPUT_PROCESSOR.print(eItem, eRoot.getNamespace(), ITEM_DEPTH);
+    }
+
+    //
+    // ATOM
+    //
+
+    final String renderFeed(Feed feed, List<NormalizedPost> posts) throws FeedException {
+        String header = renderFeedHeader(feed);
+        List<Entry> entries = feed.getEntries();
+        if (isEmpty(entries)) {
+            return header;
+        }
+        String headerScope = ItemFragmentCache.scopeOf(header);
+        int insertAt = insertionPoint(header, "</feed>");
+        StringBuilder rendered = new StringBuilder(header.length() + (entries.size() << 10));
+        rendered.append(header, 0, insertAt);
+        for (int i = 0; i < entries.size(); i++) {
+            rendered.append(getEntryFragment(feed, headerScope, entries.get(i), postAt(posts, i)));
+        }
+        rendered.append(header, insertAt, header.length());
+        return rendered.toString();
+    }
+
+    /**
+     * Renders the given feed without its entries.
+     */
+    static String renderFeedHeader(Feed feed) throws FeedException {
+        List<Entry> entries = feed.getEntries();
+        feed.setEntries(null);
+        try {
+            return WIRE_FEED_OUTPUT.outputString(feed);
+        } finally {
+            feed.setEntries(entries);
+        }
+    }
+
+    /**
+     * Gets the rendered form of a single feed entry, as it is spliced into the feed by {@link #renderFeed}.  Entries
+     * embed the feed header as their source, so entry fragments are scoped to the header (and keyed by their published
+     * date, which may be the publish date of the feed).
+     *
+     * @param feed        the feed that the entry belongs to
+     * @param headerScope the scope of the rendered feed header (see {@link ItemFragmentCache#scopeOf})
+     * @param post        the normalized post that the entry was built from, used to key the entry fragment cache; may
+     *                    be null, in which case the entry is not cached
+     */
+    final String getEntryFragment(Feed feed, String headerScope, Entry entry, NormalizedPost post) throws FeedException {
+        return fragmentCache.getFragment(ATOM_FORMAT, post, headerScope, entry.getPublished(), () -> renderEntry(feed, entry));
+    }
+
+    /**
+     * Gets the rendered form of the feed entry of the given post, building the entry only if its fragment is not
+     * cached.
+     *
+     * @param published the published date that the entry will have (see {@link ATOMFeedEntryBuilder#publishedDate})
+     */
+    final String getEntryFragment(Feed feed, String headerScope, NormalizedPost post, Date published, Function<? super NormalizedPost, Entry> entryMapper) throws FeedException {
+        return fragmentCache.getFragment(ATOM_FORMAT, post, headerScope, published, () -> renderEntry(feed, entryMapper.apply(post)));
+    }
+
+    private static String renderEntry(Feed feed, Entry entry) throws FeedException {
+        // the entry is rendered with the feed as its source, as it is once it has been added to the feed
+        entry.setSource(feed);
+        Feed fragmentFeed = new Feed(feed.getFeedType());
+        fragmentFeed.setEntries(singletonList(entry));
+        Element eRoot = WIRE_FEED_OUTPUT.outputJDom(fragmentFeed).getRootElement();
+        Element eEntry = eRoot.getChild("entry", eRoot.getNamespace());
+        return FRAGMENT_OUTPUT_PROCESSOR.print(eEntry, eRoot.getNamespace(), ENTRY_DEPTH);
+    }
+
+    //
+    //
+    //
+
+    /**
+     * Finds where fragments are spliced into a rendered header: ahead of the line break that precedes the given closing
+     * tag.
+     */
+    private static int insertionPoint(String header, String closingTag) {
+        int closingAt = header.lastIndexOf(closingTag);
+        int lineBreakAt = header.lastIndexOf(FRAGMENT_OUTPUT_PROCESSOR.lineSeparator, closingAt);
+        return lineBreakAt < 0 || !header.substring(lineBreakAt + FRAGMENT_OUTPUT_PROCESSOR.lineSeparator.length(), closingAt).isBlank() ?
+                closingAt : lineBreakAt;
+    }
+
+    private static NormalizedPost postAt(List<NormalizedPost> posts, int idx) {
+        // excerpted items have no post (see FeedByteBudget.Outcome)
+        return posts == null ? null : posts.get(idx);
+    }
+
+    /**
+     * Prints an element as the pretty-printing WireFeedOutput prints it at the given depth of a document, preceded by
+     * its line break and indent.  Only the namespace of the root element is taken to be in scope.
+     */
+    private static final class FragmentOutputProcessor extends AbstractXMLOutputProcessor {
+
+        private final Format format = Format.getPrettyFormat();
+
+        private final String lineSeparator = format.getLineSeparator();
+
+        private String print(Element element, Namespace rootNamespace, int depth) throws FeedException {
+            StringWriter fragment = new StringWriter(1024);
+            FormatStack formatStack = new FormatStack(format);
+            NamespaceStack namespaceStack = new NamespaceStack();
+            namespaceStack.push(rootNamespace);
+            fragment.write(lineSeparator);
+            for (int i = 0; i < depth; i++) {
+                fragment.write(format.getIndent());
+                formatStack.push();
+            }
+            try {
+                printElement(fragment, formatStack, namespaceStack, element);
+            } catch (IOException e) {
+                throw new FeedException(e.getMessage(), e);
+            }
+            return fragment.toString();
+        }
+    }
+
+    @Override
+    public final String toString() {
+        return "CachingFeedRenderer{" +
+                "fragmentCache=" + fragmentCache +
+                '}';
+    }
+}
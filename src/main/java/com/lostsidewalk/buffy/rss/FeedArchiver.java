@@ -0,0 +1,160 @@
+package com.lostsidewalk.buffy.rss;
+
+import com.lostsidewalk.buffy.queue.QueueDefinition;
+import com.rometools.rome.feed.atom.Feed;
+import com.rometools.rome.feed.atom.Link;
+import com.rometools.rome.feed.rss.Channel;
+import lombok.extern.slf4j.Slf4j;
+import org.jdom2.Element;
+import org.jdom2.Namespace;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Support for RFC 5005 (Feed Paging and Archiving) archived feeds.  Posts that roll out of a bounded feed are published
+ * as numbered archive documents, each stored at its own transport identifier (the transport identifier of the feed,
+ * suffixed with the page number), marked with {@code <fh:archive/>}, and linked to its neighbours with
+ * {@code prev-archive}/{@code next-archive} and to the feed with {@code current}; the feed itself links to the newest
+ * archive page with {@code prev-archive}.  RSS channels carry these links as {@code <atom:link>} elements.
+ * <p>
+ * Archive pages are only rebuilt and stored when their content changes, which is tracked with a signature (a SHA-256
+ * digest of the inputs the page is rendered from) of each published page.  Signatures are retained for a bounded
+ * number of feeds; the archive pages of a feed whose signatures have been forgotten are all stored again on its next
+ * publish.
+ */
+@Slf4j
+final class FeedArchiver {
+
+    static final String ARCHIVE_TRANSPORT_IDENT_SUFFIX = "-archive-";
+
+    static final String REL_CURRENT = "current";
+
+    static final String REL_PREV_ARCHIVE = "prev-archive";
+
+    static final String REL_NEXT_ARCHIVE = "next-archive";
+
+    private static final Namespace ATOM_NAMESPACE = Namespace.getNamespace("atom", "http://www.w3.org/2005/Atom");
+
+    private static final Namespace FH_NAMESPACE = Namespace.getNamespace("fh", "http://purl.org/syndication/history/1.0");
+
+    private final WeightedLruCache<String, Map<String, String>> pageSignatures;
+
+    /**
+     * @param maxFeeds the maximum number of feeds whose page signatures are retained
+     */
+    FeedArchiver(long maxFeeds) {
+        this.pageSignatures = new WeightedLruCache<>(maxFeeds, feedPageSignatures -> 1L);
+    }
+
+    static String archiveTransportIdent(String transportIdent, int page) {
+        return transportIdent + ARCHIVE_TRANSPORT_IDENT_SUFFIX + page;
+    }
+
+    //
+    // MARKUP
+    //
+
+    /**
+     * Adds archive links to an RSS channel; null URLs are omitted.
+     */
+    static void addArchiveMarkup(Channel channel, String currentUrl, String prevArchiveUrl, String nextArchiveUrl, boolean archive) {
+        List<Element> foreignMarkup = new ArrayList<>(channel.getForeignMarkup());
+        addAtomLink(foreignMarkup, REL_CURRENT, currentUrl);
+        addAtomLink(foreignMarkup, REL_PREV_ARCHIVE, prevArchiveUrl);
+        addAtomLink(foreignMarkup, REL_NEXT_ARCHIVE, nextArchiveUrl);
+        if (archive) {
+            foreignMarkup.add(new Element("archive", FH_NAMESPACE));
+        }
+        channel.setForeignMarkup(foreignMarkup);
+    }
+
+    private static void addAtomLink(List<? super Element> foreignMarkup, String rel, String href) {
+        if (href != null) {
+            Element link = new Element("link", ATOM_NAMESPACE);
+            link.setAttribute("rel", rel);
+            link.setAttribute("href", href);
+            foreignMarkup.add(link);
+        }
+    }
+
+    /**
+     * Adds archive links to an ATOM feed; null URLs are omitted.
+     */
+    static void addArchiveMarkup(Feed feed, String currentUrl, String prevArchiveUrl, String nextArchiveUrl, boolean archive) {
+        List<Link> otherLinks = new ArrayList<>(feed.getOtherLinks());
+        addLink(otherLinks, REL_CURRENT, currentUrl);
+        addLink(otherLinks, REL_PREV_ARCHIVE, prevArchiveUrl);
+        addLink(otherLinks, REL_NEXT_ARCHIVE, nextArchiveUrl);
+        feed.setOtherLinks(otherLinks);
+        if (archive) {
+            List<Element> foreignMarkup = new ArrayList<>(feed.getForeignMarkup());
+            foreignMarkup.add(new Element("archive", FH_NAMESPACE));
+            feed.setForeignMarkup(foreignMarkup);
+        }
+    }
+
+    private static void addLink(List<? super Link> links, String rel, String href) {
+        if (href != null) {
+            Link link = new Link();
+            link.setRel(rel);
+            link.setHref(href);
+            links.add(link);
+        }
+    }
+
+    //
+    // PAGE SIGNATURES
+    //
+
+    /**
+     * Computes the signature of an archive page, which changes whenever the rendered page would: when the queue
+     * header changes, when any post on the page is added, removed or updated, or when the page gains a successor.
+     */
+    static String pageSignature(QueueDefinition queueDefinition, List<NormalizedPost> pagePosts, boolean hasNextPage) {
+        FeedDigester.ValueDigest signature = FeedDigester.digestValues()
+                .add(queueDefinition.getTransportIdent())
+                .add(queueDefinition.getIdent())
+                .add(queueDefinition.getTitle())
+                .add(queueDefinition.getDescription())
+                .add(queueDefinition.getGenerator())
+                .add(queueDefinition.getLanguage())
+                .add(queueDefinition.getCopyright())
+                .add(queueDefinition.getQueueImgTransportIdent())
+                .add(Objects.toString(queueDefinition.getExportConfig(), null))
+                .add(hasNextPage);
+        for (NormalizedPost post : pagePosts) {
+            signature.add(post.getPostHash())
+                    .add(post.getLastUpdatedTimestamp())
+                    .add(post.getPublishTimestamp());
+        }
+        return signature.digest();
+    }
+
+    final boolean isPublished(String transportIdent, String publisherId, int page, String signature) {
+        Map<String, String> feedPageSignatures = pageSignatures.get(transportIdent);
+        return feedPageSignatures != null && signature.equals(feedPageSignatures.get(pageKey(publisherId, page)));
+    }
+
+    final void setPublished(String transportIdent, String publisherId, int page, String signature) {
+        pageSignatures.computeIfAbsent(transportIdent, t -> new ConcurrentHashMap<>(8)).put(pageKey(publisherId, page), signature);
+    }
+
+    final void forget(String transportIdent) {
+        pageSignatures.remove(transportIdent);
+    }
+
+    private static String pageKey(String publisherId, int page) {
+        return publisherId + '/' + page;
+    }
+
+    @Override
+    public final String toString() {
+        return "FeedArchiver{" +
+                "archivedFeedCt=" + pageSignatures.size() +
+                '}';
+    }
+}
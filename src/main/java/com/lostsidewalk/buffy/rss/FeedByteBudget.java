@@ -0,0 +1,366 @@
+package com.lostsidewalk.buffy.rss;
+
+import com.lostsidewalk.buffy.queue.QueueDefinition;
+import com.rometools.rome.feed.atom.Content;
+import com.rometools.rome.feed.atom.Entry;
+import com.rometools.rome.feed.atom.Feed;
+import com.rometools.rome.feed.rss.Channel;
+import com.rometools.rome.feed.rss.Description;
+import com.rometools.rome.feed.rss.Item;
+import com.rometools.rome.io.FeedException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.unmodifiableList;
+import static org.apache.commons.collections4.CollectionUtils.isNotEmpty;
+import static org.apache.commons.lang3.StringUtils.abbreviate;
+import static org.apache.commons.lang3.StringUtils.isBlank;
+import static org.apache.commons.lang3.StringUtils.normalizeSpace;
+
+/**
+ * Caps the size of a rendered feed.  The budget is applied as the feed is assembled from its posts, before the items
+ * are added to the feed model: items are measured one at a time, in feed order, as they are served, against the bytes
+ * left over after the feed envelope (the channel/feed header and the closing tags).  RSS and ATOM feeds are stored as
+ * feed models and served as ROME's WireFeedOutput pretty-prints them, so they are measured as the caching feed renderer
+ * renders them, which is never shorter (see {@link CachingFeedRenderer}); the feed variants that the streaming writer
+ * renders are not indented, and are shorter still.  JSON feeds are measured as the JSON feed writer writes them.  Items whose fragments are cached are measured without being built.  An item that does not fit is
+ * replaced with an excerpt (plain text, without the full content) if that fits, and is dropped otherwise.  The whole
+ * document is never rendered to find out that it is too large.
+ * <p>
+ * Excerpts are built on shallow copies of the items, so that items reused across publishes are never modified.
+ */
+@Slf4j
+final class FeedByteBudget {
+
+    static final int EXCERPT_LENGTH = 280;
+
+    private static final String EXCERPT_MARKER = "…";
+
+    private static final Pattern TAG_PATTERN = Pattern.compile("<[^>]*>");
+
+    // the sizes of an empty item and entry, below which no item or entry can fit
+    private static final long MIN_ITEM_BYTES = "<item></item>".length();
+
+    private static final long MIN_ENTRY_BYTES = "<entry></entry>".length();
+
+    private final CachingFeedRenderer cachingFeedRenderer;
+
+    private final JsonFeedWriter jsonFeedWriter;
+
+    FeedByteBudget(CachingFeedRenderer cachingFeedRenderer, JsonFeedWriter jsonFeedWriter) {
+        this.cachingFeedRenderer = cachingFeedRenderer;
+        this.jsonFeedWriter = jsonFeedWriter;
+    }
+
+    /**
+     * Gets the byte budget of the given queue: the maxFeedBytes property of its export config, if set, and the
+     * publisher-wide maximum otherwise.  Values less than one indicate no limit.
+     */
+    static long maxFeedBytes(QueueExportConfig exportConfig, RSSPublisherConfigProps configProps) {
+        Long maxFeedBytes = exportConfig.getMaxFeedBytes();
+        return maxFeedBytes == null ? configProps.getMaxFeedBytes() : maxFeedBytes;
+    }
+
+    //
+    // RSS
+    //
+
+    /**
+     * Fits the items of the given posts into the byte budget, and sets the items that fit on the channel.  Items are
+     * built (with the given mapper) only if they are kept or excerpted, or if their fragment is not cached; once the
+     * budget cannot hold even an empty item, the remaining posts are dropped without being built.
+     *
+     * @param channel      the channel, built without items
+     * @param posts        the normalized posts to build the channel items from, in feed order
+     * @param itemMapper   builds the channel item of a post
+     * @param maxFeedBytes the byte budget
+     */
+    final Outcome applyToChannel(Channel channel, List<NormalizedPost> posts, Function<? super NormalizedPost, Item> itemMapper, long maxFeedBytes) throws FeedException {
+        long remaining = maxFeedBytes - utf8Length(CachingFeedRenderer.renderChannelHeader(channel));
+        String feedType = channel.getFeedType();
+        Outcome outcome = new Outcome(posts.size());
+        List<Item> fitted = new ArrayList<>(posts.size());
+        for (NormalizedPost post : posts) {
+            if (remaining < MIN_ITEM_BYTES) {
+                outcome.dropped(post);
+                continue;
+            }
+            long itemBytes = utf8Length(cachingFeedRenderer.getItemFragment(feedType, post, itemMapper));
+            if (itemBytes <= remaining) {
+                fitted.add(itemMapper.apply(post));
+                outcome.kept(post);
+                remaining -= itemBytes;
+                continue;
+            }
+            Item excerpt = excerptItem(itemMapper.apply(post));
+            if (excerpt != null) {
+                // excerpts are not cached
+                long excerptBytes = utf8Length(cachingFeedRenderer.getItemFragment(feedType, excerpt, null));
+                if (excerptBytes <= remaining) {
+                    fitted.add(excerpt);
+                    outcome.excerpted(post);
+                    remaining -= excerptBytes;
+                    continue;
+                }
+            }
+            outcome.dropped(post);
+        }
+        channel.setItems(fitted);
+        return outcome;
+    }
+
+    private static Item excerptItem(Item item) {
+        Description description = item.getDescription();
+        String source = description == null ? null : description.getValue();
+        if (isBlank(source) && item.getContent() != null) {
+            source = item.getContent().getValue();
+        }
+        if (isBlank(source)) {
+            return null;
+        }
+        Item excerpt = copyOf(item);
+        Description excerptDescription = new Description();
+        excerptDescription.setType("text/plain");
+        excerptDescription.setValue(excerptOf(source));
+        excerpt.setDescription(excerptDescription);
+        excerpt.setContent(null);
+        return excerpt;
+    }
+
+    /**
+     * Makes a shallow copy of the given item; collections other than the module list are shared with the original, and
+     * must not be modified.
+     */
+    private static Item copyOf(Item item) {
+        Item copy = new Item();
+        copy.setTitle(item.getTitle());
+        copy.setLink(item.getLink());
+        copy.setUri(item.getUri());
+        copy.setDescription(item.getDescription());
+        copy.setContent(item.getContent());
+        copy.setSource(item.getSource());
+        copy.setEnclosures(item.getEnclosures());
+        copy.setCategories(item.getCategories());
+        copy.setGuid(item.getGuid());
+        copy.setComments(item.getComments());
+        copy.setAuthor(item.getAuthor());
+        copy.setModules(new ArrayList<>(item.getModules()));
+        copy.setPubDate(item.getPubDate());
+        copy.setExpirationDate(item.getExpirationDate());
+        copy.setForeignMarkup(item.getForeignMarkup());
+        return copy;
+    }
+
+    //
+    // ATOM
+    //
+
+    /**
+     * Fits the entries of the given posts into the byte budget, and sets the entries that fit on the feed.  Entries are
+     * built (with the given mapper) only if they are kept or excerpted, or if their fragment is not cached; once the
+     * budget cannot hold even an empty entry, the remaining posts are dropped without being built.
+     *
+     * @param feed         the feed, built without entries
+     * @param posts        the normalized posts to build the feed entries from, in feed order
+     * @param pubDate      the publish date of the feed, which entries of posts without a publish timestamp carry
+     * @param entryMapper  builds the feed entry of a post
+     * @param maxFeedBytes the byte budget
+     */
+    final Outcome applyToFeed(Feed feed, List<NormalizedPost> posts, Date pubDate, Function<? super NormalizedPost, Entry> entryMapper, long maxFeedBytes) throws FeedException {
+        String feedHeader = CachingFeedRenderer.renderFeedHeader(feed);
+        long remaining = maxFeedBytes - utf8Length(feedHeader);
+        String headerScope = ItemFragmentCache.scopeOf(feedHeader);
+        Outcome outcome = new Outcome(posts.size());
+        List<Entry> fitted = new ArrayList<>(posts.size());
+        for (NormalizedPost post : posts) {
+            if (remaining < MIN_ENTRY_BYTES) {
+                outcome.dropped(post);
+                continue;
+            }
+            Date published = ATOMFeedEntryBuilder.publishedDate(post, pubDate);
+            long entryBytes = utf8Length(cachingFeedRenderer.getEntryFragment(feed, headerScope, post, published, entryMapper));
+            if (entryBytes <= remaining) {
+                fitted.add(entryMapper.apply(post));
+                outcome.kept(post);
+                remaining -= entryBytes;
+                continue;
+            }
+            Entry excerpt = excerptEntry(entryMapper.apply(post));
+            if (excerpt != null) {
+                // excerpts are not cached
+                long excerptBytes = utf8Length(cachingFeedRenderer.getEntryFragment(feed, headerScope, excerpt, null));
+                if (excerptBytes <= remaining) {
+                    fitted.add(excerpt);
+                    outcome.excerpted(post);
+                    remaining -= excerptBytes;
+                    continue;
+                }
+            }
+            outcome.dropped(post);
+        }
+        fitted.forEach(e -> e.setSource(feed));
+        feed.setEntries(fitted);
+        return outcome;
+    }
+
+    private static Entry excerptEntry(Entry entry) {
+        Content summary = entry.getSummary();
+        String source = summary == null ? null : summary.getValue();
+        if (isBlank(source) && isNotEmpty(entry.getContents())) {
+            source = entry.getContents().get(0).getValue();
+        }
+        if (isBlank(source)) {
+            return null;
+        }
+        Entry excerpt = ATOMFeedEntryBuilder.copyOf(entry);
+        Content excerptSummary = new Content();
+        excerptSummary.setType(Content.TEXT);
+        excerptSummary.setValue(excerptOf(source));
+        excerpt.setSummary(excerptSummary);
+        excerpt.setContents(emptyList());
+        return excerpt;
+    }
+
+    //
+    // JSON FEED
+    //
+
+    /**
+     * Fits the items of the given posts into the byte budget.  JSON feed items are written straight from their posts,
+     * so items that do not fit are dropped rather than excerpted.
+     *
+     * @param queueDefinition the queue definition
+     * @param renderContext   the URLs and export config of the queue
+     * @param posts           the normalized posts to write as feed items, in feed order
+     * @param maxFeedBytes    the byte budget
+     */
+    final Outcome applyToJsonFeed(QueueDefinition queueDefinition, QueueRenderContext renderContext, List<NormalizedPost> posts, long maxFeedBytes) throws IOException {
+        StringWriter envelope = new StringWriter(1024);
+        jsonFeedWriter.writeFeed(queueDefinition, renderContext, emptyList(), envelope);
+        long remaining = maxFeedBytes - utf8Length(envelope.toString());
+        Outcome outcome = new Outcome(posts.size());
+        for (NormalizedPost post : posts) {
+            // items after the first are preceded by a separator
+            long itemBytes = utf8Length(jsonFeedWriter.getItemFragment(post)) + (outcome.getPosts().isEmpty() ? 0L : 1L);
+            if (itemBytes <= remaining) {
+                outcome.kept(post);
+                remaining -= itemBytes;
+            } else {
+                outcome.dropped(post);
+            }
+        }
+        return outcome;
+    }
+
+    //
+    //
+    //
+
+    private static String excerptOf(String source) {
+        return abbreviate(normalizeSpace(TAG_PATTERN.matcher(source).replaceAll(" ")), EXCERPT_MARKER, EXCERPT_LENGTH);
+    }
+
+    /**
+     * Computes the UTF-8 encoded length of the given string without encoding it.
+     */
+    static long utf8Length(CharSequence s) {
+        long length = 0L;
+        int len = s.length();
+        for (int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                length += 1L;
+            } else if (c < 0x800) {
+                length += 2L;
+            } else if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(s.charAt(i + 1))) {
+                length += 4L;
+                i++;
+            } else {
+                length += 3L;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * The result of fitting a feed into its byte budget.
+     */
+    static final class Outcome {
+
+        private final List<NormalizedPost> posts;
+
+        private final List<String> excerptedPostHashes;
+
+        private final List<String> droppedPostHashes;
+
+        private Outcome(int postCt) {
+            this.posts = new ArrayList<>(postCt);
+            this.excerptedPostHashes = new ArrayList<>(0);
+            this.droppedPostHashes = new ArrayList<>(0);
+        }
+
+        private Outcome(List<NormalizedPost> posts) {
+            this.posts = posts;
+            this.excerptedPostHashes = emptyList();
+            this.droppedPostHashes = emptyList();
+        }
+
+        static Outcome unbounded(List<NormalizedPost> posts) {
+            return new Outcome(posts);
+        }
+
+        private void kept(NormalizedPost post) {
+            posts.add(post);
+        }
+
+        private void excerpted(NormalizedPost post) {
+            // excerpts are not keyed by their post, as they differ from its cached rendering
+            posts.add(null);
+            excerptedPostHashes.add(post.getPostHash());
+        }
+
+        private void dropped(NormalizedPost post) {
+            droppedPostHashes.add(post.getPostHash());
+        }
+
+        /**
+         * Gets the posts that the remaining items were built from, in feed order; excerpted items have null posts.
+         */
+        final List<NormalizedPost> getPosts() {
+            return posts;
+        }
+
+        final List<String> getExcerptedPostHashes() {
+            return unmodifiableList(excerptedPostHashes);
+        }
+
+        final List<String> getDroppedPostHashes() {
+            return unmodifiableList(droppedPostHashes);
+        }
+
+        @Override
+        public final String toString() {
+            return "Outcome{" +
+                    "postCt=" + posts.size() +
+                    ", excerptedPostHashes=" + excerptedPostHashes +
+                    ", droppedPostHashes=" + droppedPostHashes +
+                    '}';
+        }
+    }
+
+    @Override
+    public final String toString() {
+        return "FeedByteBudget{" +
+                "cachingFeedRenderer=" + cachingFeedRenderer +
+                ", jsonFeedWriter=" + jsonFeedWriter +
+                '}';
+    }
+}
@@ -0,0 +1,26 @@
+package com.lostsidewalk.buffy.rss;
+
+import java.io.IOException;
+
+/**
+ * Produces a compressed variant of a rendered feed, for a single HTTP content-coding.  A gzip compressor is provided;
+ * additional codings (e.g., brotli) may be supported by registering further FeedCompressor beans.
+ */
+public interface FeedCompressor {
+
+    /**
+     * Gets the HTTP content-coding produced by this compressor (e.g., gzip, or br).
+     *
+     * @return The content-coding token.
+     */
+    String getEncoding();
+
+    /**
+     * Compresses the given rendered feed.
+     *
+     * @param content The rendered feed, UTF-8 encoded.
+     * @return The compressed feed.
+     * @throws IOException If the feed cannot be compressed.
+     */
+    byte[] compress(byte[] content) throws IOException;
+}
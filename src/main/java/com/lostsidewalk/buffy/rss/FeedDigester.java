@@ -0,0 +1,295 @@
+package com.lostsidewalk.buffy.rss;
+
+import com.rometools.rome.feed.atom.Feed;
+import com.rometools.rome.feed.rss.Channel;
+import com.rometools.rome.io.FeedException;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Computes a stable content digest (SHA-256) of rendered feeds, and remembers the digest of the last feed stored at
+ * each transport identifier, so that publishing a feed that is identical to the stored one can skip the store write.
+ * The digest covers the rendered document except for the RSS channel publication date, which changes on every
+ * publish; it doubles as a strong ETag for the feed.
+ * <p>
+ * The remembered digests are held in this JVM only, so the publisher only consults them when the application has no
+ * {@link FeedVariantStore}, whose stored variants carry the digest of each stored feed.  They say nothing of what the
+ * store holds if other publisher instances write the same feeds, or if the store evicts or expires feeds; in either
+ * case, forget the feeds concerned (or turn off skipping unchanged writes).
+ * <p>
+ * The rendered document may be retained as it is digested, so that it can be stored elsewhere (e.g., as precompressed
+ * feed variants) without serializing the feed again.
+ */
+@Slf4j
+final class FeedDigester {
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    private static final HexFormat HEX_FORMAT = HexFormat.of();
+
+    private final StreamingFeedWriter streamingFeedWriter;
+
+    private final CachingFeedRenderer cachingFeedRenderer;
+
+    private final WeightedLruCache<String, String> storedDigests;
+
+    /**
+     * @param maxStoredDigests the maximum number of stored feed digests to remember; a feed whose digest has been
+     *                         forgotten is stored again on its next publish
+     */
+    FeedDigester(StreamingFeedWriter streamingFeedWriter, CachingFeedRenderer cachingFeedRenderer, long maxStoredDigests) {
+        this.streamingFeedWriter = streamingFeedWriter;
+        this.cachingFeedRenderer = cachingFeedRenderer;
+        this.storedDigests = new WeightedLruCache<>(maxStoredDigests, digest -> 1L);
+    }
+
+    /**
+     * The digest of a rendered feed, the size of the rendered feed in bytes, and the rendered feed (if it was retained).
+     */
+    record FeedDigest(String digest, long byteCt, byte[] content) {
+    }
+
+    //
+    // DIGEST
+    //
+
+    /**
+     * Digests the given channel, optionally retaining the rendered document.  The document is only retained for feed
+     * types that the streaming writer supports.
+     */
+    final FeedDigest digestChannel(Channel channel, List<NormalizedPost> posts, boolean retainContent) throws XMLStreamException, IOException, FeedException {
+        if (retainContent && StreamingFeedWriter.supportsFeedType(channel.getFeedType())) {
+            ByteArrayOutputStream contentStream = new ByteArrayOutputStream(8192);
+            Writer writer = new OutputStreamWriter(contentStream, UTF_8);
+            streamingFeedWriter.writeChannel(channel, posts, writer);
+            writer.flush();
+            byte[] content = contentStream.toByteArray();
+            // the channel publication date is written in the channel header, ahead of every item, and is left out of the
+            // digest; if it cannot be found, the digest covers it, and the feed is simply never skipped
+            DigestingOutputStream digestStream = new DigestingOutputStream();
+            Date pubDate = channel.getPubDate();
+            byte[] pubDateElement = pubDate == null ? null :
+                    ("<pubDate>" + StreamingFeedWriter.formatRFC822Date(pubDate) + "</pubDate>").getBytes(UTF_8);
+            int pubDateAt = pubDateElement == null ? -1 : indexOf(content, pubDateElement);
+            if (pubDateAt < 0) {
+                digestStream.write(content, 0, content.length);
+            } else {
+                digestStream.write(content, 0, pubDateAt);
+                int pubDateEnd = pubDateAt + pubDateElement.length;
+                digestStream.write(content, pubDateEnd, content.length - pubDateEnd);
+            }
+            return digestStream.toFeedDigest(content);
+        }
+        Date pubDate = channel.getPubDate();
+        channel.setPubDate(null);
+        try {
+            DigestingOutputStream digestStream = new DigestingOutputStream();
+            Writer writer = new OutputStreamWriter(digestStream, UTF_8);
+            if (StreamingFeedWriter.supportsFeedType(channel.getFeedType())) {
+                streamingFeedWriter.writeChannel(channel, posts, writer);
+            } else {
+                writer.write(cachingFeedRenderer.renderChannel(channel, posts));
+            }
+            writer.flush();
+            return digestStream.toFeedDigest(null);
+        } finally {
+            channel.setPubDate(pubDate);
+        }
+    }
+
+    /**
+     * Digests the given feed, optionally retaining the rendered document.
+     */
+    final FeedDigest digestFeed(Feed feed, List<NormalizedPost> posts, boolean retainContent) throws XMLStreamException, IOException, FeedException {
+        DigestingOutputStream digestStream = new DigestingOutputStream(retainContent);
+        Writer writer = new OutputStreamWriter(digestStream, UTF_8);
+        if (StreamingFeedWriter.supportsFeedType(feed.getFeedType())) {
+            streamingFeedWriter.writeFeed(feed, posts, writer);
+        } else {
+            writer.write(cachingFeedRenderer.renderFeed(feed, posts));
+        }
+        writer.flush();
+        return digestStream.toFeedDigest(digestStream.retained());
+    }
+
+    /**
+     * Digests an already-serialized feed (e.g., a JSON feed, which has no publication date to leave out).
+     */
+    static FeedDigest digestContent(byte[] content) {
+        DigestingOutputStream digestStream = new DigestingOutputStream();
+        digestStream.write(content, 0, content.length);
+        return digestStream.toFeedDigest(content);
+    }
+
+    /**
+     * Starts a digest of a sequence of values (e.g., the inputs from which a feed is rendered), rather than of a rendered
+     * document.
+     */
+    static ValueDigest digestValues() {
+        return new ValueDigest();
+    }
+
+    private static int indexOf(byte[] content, byte[] target) {
+        int last = content.length - target.length;
+        outer:
+        for (int i = 0; i <= last; i++) {
+            for (int j = 0; j < target.length; j++) {
+                if (content[i + j] != target[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    //
+    // STORED DIGESTS
+    //
+
+    final boolean isStored(String transportIdent, String publisherId, FeedDigest feedDigest) {
+        return feedDigest != null && feedDigest.digest().equals(storedDigests.get(storedDigestKey(transportIdent, publisherId)));
+    }
+
+    final void setStored(String transportIdent, String publisherId, FeedDigest feedDigest) {
+        String key = storedDigestKey(transportIdent, publisherId);
+        if (feedDigest == null) {
+            storedDigests.remove(key);
+        } else {
+            storedDigests.put(key, feedDigest.digest());
+        }
+    }
+
+    private static String storedDigestKey(String transportIdent, String publisherId) {
+        return transportIdent + '/' + publisherId;
+    }
+
+    //
+    //
+    //
+
+    /**
+     * A digest of a sequence of values.  Each value is written with a marker and (for strings) its length, so that
+     * distinct sequences never share an encoding.
+     */
+    static final class ValueDigest {
+
+        private final DigestingOutputStream digestStream = new DigestingOutputStream();
+
+        private ValueDigest() {
+        }
+
+        final ValueDigest add(String value) {
+            if (value == null) {
+                digestStream.write(0);
+            } else {
+                byte[] bytes = value.getBytes(UTF_8);
+                digestStream.write(1);
+                writeLong(bytes.length);
+                digestStream.write(bytes, 0, bytes.length);
+            }
+            return this;
+        }
+
+        final ValueDigest add(Date value) {
+            if (value == null) {
+                digestStream.write(0);
+            } else {
+                digestStream.write(1);
+                writeLong(value.getTime());
+            }
+            return this;
+        }
+
+        final ValueDigest add(boolean value) {
+            digestStream.write(value ? 1 : 0);
+            return this;
+        }
+
+        private void writeLong(long value) {
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                digestStream.write((int) (value >>> shift));
+            }
+        }
+
+        final String digest() {
+            return digestStream.toFeedDigest(null).digest();
+        }
+
+        @Override
+        public final String toString() {
+            return "ValueDigest{" +
+                    "byteCt=" + digestStream.byteCt +
+                    '}';
+        }
+    }
+
+    private static final class DigestingOutputStream extends OutputStream {
+
+        private final MessageDigest messageDigest;
+
+        private final ByteArrayOutputStream retained;
+
+        private long byteCt;
+
+        private DigestingOutputStream() {
+            this(false);
+        }
+
+        private DigestingOutputStream(boolean retain) {
+            retained = retain ? new ByteArrayOutputStream(8192) : null;
+            try {
+                messageDigest = MessageDigest.getInstance(DIGEST_ALGORITHM);
+            } catch (NoSuchAlgorithmException e) {
+                // every JRE is required to support SHA-256
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void write(int b) {
+            messageDigest.update((byte) b);
+            if (retained != null) {
+                retained.write(b);
+            }
+            byteCt++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            messageDigest.update(b, off, len);
+            if (retained != null) {
+                retained.write(b, off, len);
+            }
+            byteCt += len;
+        }
+
+        private byte[] retained() {
+            return retained == null ? null : retained.toByteArray();
+        }
+
+        private FeedDigest toFeedDigest(byte[] content) {
+            return new FeedDigest(HEX_FORMAT.formatHex(messageDigest.digest()), content == null ? byteCt : content.length, content);
+        }
+    }
+
+    @Override
+    public final String toString() {
+        return "FeedDigester{" +
+                "storedDigestCt=" + storedDigests.size() +
+                '}';
+    }
+}
@@ -0,0 +1,347 @@
+package com.lostsidewalk.buffy.rss;
+
+import com.lostsidewalk.buffy.post.StagingPost;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.Comparator.comparingInt;
+import static java.util.Collections.emptyList;
+
+/**
+ * Splits the posts of a queue into the head of the feed (the newest posts, up to the maximum number of items per feed)
+ * and the archive (all older posts).  Posts are ranked by their last-updated timestamp, falling back to their publish
+ * timestamp; ties go to the post that appears first.  The head is selected with a bounded heap, in O(n log k) rather
+ * than with a full sort, and keeps the input order of the selected posts.  The archive is ordered oldest first, so that
+ * its pages only change at the newest end as posts roll out of the head.  Posts with the same post hash are reduced to
+ * the most recently updated copy before the split, so that no feed carries duplicate GUIDs or entry Ids.
+ */
+@Slf4j
+final class FeedPartition {
+
+    private final List<NormalizedPost> head;
+
+    private final List<NormalizedPost> archived;
+
+    private final int archivedCt;
+
+    private final int duplicateCt;
+
+    private FeedPartition(List<NormalizedPost> head, List<NormalizedPost> archived, int duplicateCt) {
+        this(head, archived, archived.size(), duplicateCt);
+    }
+
+    private FeedPartition(List<NormalizedPost> head, List<NormalizedPost> archived, int archivedCt, int duplicateCt) {
+        this.head = head;
+        this.archived = archived;
+        this.archivedCt = archivedCt;
+        this.duplicateCt = duplicateCt;
+    }
+
+    static FeedPartition of(List<NormalizedPost> posts, int maxItems) {
+        int inputCt = posts.size();
+        posts = dedup(posts);
+        int duplicateCt = inputCt - posts.size();
+        int postCt = posts.size();
+        if (maxItems <= 0 || postCt <= maxItems) {
+            return new FeedPartition(posts, emptyList(), duplicateCt);
+        }
+        long[] recency = new long[postCt];
+        for (int i = 0; i < postCt; i++) {
+            recency[i] = recencyOf(posts.get(i));
+        }
+        // orders post indexes from oldest to newest
+        Comparator<Integer> byAge = (a, b) -> {
+            int c = Long.compare(recency[a], recency[b]);
+            return c != 0 ? c : Integer.compare(b, a);
+        };
+        // keep the newest posts in a min-heap of (at most) maxItems entries, whose root is the oldest post kept
+        PriorityQueue<Integer> newest = new PriorityQueue<>(maxItems, byAge);
+        for (int i = 0; i < postCt; i++) {
+            if (newest.size() < maxItems) {
+                newest.add(i);
+            } else if (byAge.compare(i, newest.peek()) > 0) {
+                newest.poll();
+                newest.add(i);
+            }
+        }
+        boolean[] selected = new boolean[postCt];
+        for (Integer i : newest) {
+            selected[i] = true;
+        }
+        List<NormalizedPost> head = new ArrayList<>(maxItems);
+        List<Integer> archivedIdxs = new ArrayList<>(postCt - maxItems);
+        for (int i = 0; i < postCt; i++) {
+            if (selected[i]) {
+                head.add(posts.get(i));
+            } else {
+                archivedIdxs.add(i);
+            }
+        }
+        archivedIdxs.sort(byAge);
+        List<NormalizedPost> archived = new ArrayList<>(archivedIdxs.size());
+        for (Integer i : archivedIdxs) {
+            archived.add(posts.get(i));
+        }
+        return new FeedPartition(head, archived, duplicateCt);
+    }
+
+    /**
+     * Removes the duplicates of each post hash, in a single pass.  Of the posts with the same hash, the post with the
+     * newest last-updated timestamp is kept (the first, if they are equally new), in the position of the first.  The
+     * given list is returned as is if it has no duplicates.
+     */
+    private static List<NormalizedPost> dedup(List<NormalizedPost> posts) {
+        int postCt = posts.size();
+        Map<String, Integer> idxByHash = new HashMap<>(max(16, postCt * 4 / 3 + 1));
+        List<NormalizedPost> deduped = null;
+        for (int i = 0; i < postCt; i++) {
+            NormalizedPost post = posts.get(i);
+            String postHash = post.getPostHash();
+            Integer firstIdx = postHash == null ? null :
+                    idxByHash.putIfAbsent(postHash, deduped == null ? i : deduped.size());
+            if (firstIdx == null) {
+                if (deduped != null) {
+                    deduped.add(post);
+                }
+            } else {
+                if (deduped == null) {
+                    // copy the posts seen so far, none of which were duplicates
+                    deduped = new ArrayList<>(posts.subList(0, i));
+                }
+                if (isNewer(post, deduped.get(firstIdx))) {
+                    deduped.set(firstIdx, post);
+                }
+            }
+        }
+        return deduped == null ? posts : deduped;
+    }
+
+    private static boolean isNewer(NormalizedPost post, NormalizedPost other) {
+        return isNewer(post, other.getLastUpdatedTimestamp());
+    }
+
+    private static boolean isNewer(NormalizedPost post, Date lastUpdatedTimestamp) {
+        Date timestamp = post.getLastUpdatedTimestamp();
+        return timestamp != null && (lastUpdatedTimestamp == null || timestamp.after(lastUpdatedTimestamp));
+    }
+
+    /**
+     * Partitions the staging posts produced by the given iterator in a single pass.  Each staging post is normalized as
+     * it arrives and offered to the bounded heap of the newest posts.  Posts that fall out of the heap are added to the
+     * archive if it is retained, and are otherwise only counted.  Duplicate posts are removed as they arrive, as with
+     * the list form.
+     * <p>
+     * The number of posts held at once depends on what the partition has to return:
+     * <ul>
+     * <li>if maxItems is less than one, every post is in the feed, so every post is held;</li>
+     * <li>if the archive is retained, every post is held as well: maxItems in the head, and the rest in the archive,
+     * whose pages are all rebuilt from the older posts, oldest first, on each publish;</li>
+     * <li>otherwise, no more than maxItems posts are held, however many posts the iterator produces.</li>
+     * </ul>
+     * In every case, the hash and last-updated timestamp of each distinct post are kept (but not the post itself), so
+     * that later duplicates of a dropped post can be recognized.
+     */
+    static FeedPartition of(Iterator<? extends StagingPost> stagingPosts, int maxItems, boolean retainArchived) {
+        if (maxItems <= 0) {
+            List<NormalizedPost> posts = new ArrayList<>();
+            while (stagingPosts.hasNext()) {
+                posts.add(NormalizedPost.from(stagingPosts.next()));
+            }
+            return of(posts, 0);
+        }
+        // orders ranked posts from oldest to newest; of two posts with the same recency, the later post is the older
+        Comparator<RankedPost> byAge = (a, b) -> {
+            int c = Long.compare(a.recency, b.recency);
+            return c != 0 ? c : Integer.compare(b.idx, a.idx);
+        };
+        // superseded posts are flagged rather than removed from the heap or the archive (which would take linear time
+        // per duplicate), and are filtered out once, at the end; the heap holds liveCt current posts and deadCt
+        // superseded ones, and is compacted whenever the superseded posts outnumber the current ones
+        PriorityQueue<RankedPost> newest = new PriorityQueue<>(maxItems, byAge);
+        List<RankedPost> archivedPosts = new ArrayList<>(retainArchived ? 16 : 0);
+        Map<String, SeenPost> seenPosts = new HashMap<>(64);
+        int liveCt = 0;
+        int deadCt = 0;
+        int archivedCt = 0;
+        int duplicateCt = 0;
+        int idx = 0;
+        while (stagingPosts.hasNext()) {
+            NormalizedPost post = NormalizedPost.from(stagingPosts.next());
+            String postHash = post.getPostHash();
+            RankedPost rankedPost;
+            SeenPost seenPost = postHash == null ? null : seenPosts.get(postHash);
+            if (seenPost == null) {
+                rankedPost = new RankedPost(post, recencyOf(post), idx++);
+            } else {
+                duplicateCt++;
+                if (!isNewer(post, seenPost.lastUpdatedTimestamp)) {
+                    continue;
+                }
+                // the newer post takes the place of the post it duplicates, wherever that post was
+                rankedPost = new RankedPost(post, recencyOf(post), seenPost.idx);
+                RankedPost supersededPost = seenPost.rankedPost;
+                if (supersededPost != null) {
+                    supersededPost.superseded = true;
+                }
+                if (supersededPost != null && supersededPost.inHead) {
+                    liveCt--;
+                    deadCt++;
+                } else {
+                    archivedCt--;
+                }
+            }
+            while (!newest.isEmpty() && newest.peek().superseded) {
+                newest.poll();
+                deadCt--;
+            }
+            RankedPost evicted = null;
+            if (liveCt < maxItems) {
+                newest.add(rankedPost);
+                liveCt++;
+            } else if (byAge.compare(rankedPost, newest.peek()) > 0) {
+                evicted = newest.poll();
+                newest.add(rankedPost);
+            } else {
+                evicted = rankedPost;
+            }
+            rankedPost.inHead = evicted != rankedPost;
+            if (deadCt > liveCt) {
+                newest.removeIf(r -> r.superseded);
+                deadCt = 0;
+            }
+            if (postHash != null) {
+                seenPosts.put(postHash, new SeenPost(post.getLastUpdatedTimestamp(), rankedPost.idx, rankedPost));
+            }
+            if (evicted != null) {
+                evicted.inHead = false;
+                archivedCt++;
+                if (retainArchived) {
+                    archivedPosts.add(evicted);
+                } else if (evicted.post.getPostHash() != null) {
+                    // let go of the dropped post, but remember it in case it is duplicated later
+                    seenPosts.put(evicted.post.getPostHash(), new SeenPost(evicted.post.getLastUpdatedTimestamp(), evicted.idx, null));
+                }
+            }
+        }
+        List<RankedPost> selected = new ArrayList<>(liveCt);
+        for (RankedPost rankedPost : newest) {
+            if (!rankedPost.superseded) {
+                selected.add(rankedPost);
+            }
+        }
+        selected.sort(comparingInt(r -> r.idx));
+        List<NormalizedPost> head = new ArrayList<>(selected.size());
+        for (RankedPost rankedPost : selected) {
+            head.add(rankedPost.post);
+        }
+        archivedPosts.removeIf(r -> r.superseded);
+        archivedPosts.sort(byAge);
+        List<NormalizedPost> archived = new ArrayList<>(archivedPosts.size());
+        for (RankedPost rankedPost : archivedPosts) {
+            archived.add(rankedPost.post);
+        }
+        return new FeedPartition(head, archived, archivedCt, duplicateCt);
+    }
+
+    private record SeenPost(Date lastUpdatedTimestamp, int idx, RankedPost rankedPost) {
+    }
+
+    private static final class RankedPost {
+
+        private final NormalizedPost post;
+
+        private final long recency;
+
+        private final int idx;
+
+        // whether the post is in the heap of the newest posts
+        private boolean inHead;
+
+        // whether a newer copy of the post has taken its place
+        private boolean superseded;
+
+        private RankedPost(NormalizedPost post, long recency, int idx) {
+            this.post = post;
+            this.recency = recency;
+            this.idx = idx;
+        }
+
+        @Override
+        public String toString() {
+            return "RankedPost{" +
+                    "postHash=" + post.getPostHash() +
+                    ", recency=" + recency +
+                    ", idx=" + idx +
+                    ", inHead=" + inHead +
+                    ", superseded=" + superseded +
+                    '}';
+        }
+    }
+
+    private static long recencyOf(NormalizedPost post) {
+        Date timestamp = post.getLastUpdatedTimestamp();
+        if (timestamp == null) {
+            timestamp = post.getPublishTimestamp();
+        }
+        return timestamp == null ? Long.MIN_VALUE : timestamp.getTime();
+    }
+
+    /**
+     * Gets the posts to include in the feed itself, in input order.
+     */
+    final List<NormalizedPost> getHead() {
+        return head;
+    }
+
+    /**
+     * Gets the posts that did not fit in the feed, oldest first.
+     */
+    final List<NormalizedPost> getArchived() {
+        return archived;
+    }
+
+    /**
+     * Gets the number of posts that did not fit in the feed, whether or not they were retained.
+     */
+    final int getArchivedCt() {
+        return archivedCt;
+    }
+
+    /**
+     * Gets the number of duplicate posts (posts with the same hash as another post) that were removed.
+     */
+    final int getDuplicateCt() {
+        return duplicateCt;
+    }
+
+    final int getArchivePageCt(int pageSize) {
+        return pageSize <= 0 ? 0 : (archived.size() + pageSize - 1) / pageSize;
+    }
+
+    /**
+     * Gets the posts on the given archive page; pages are numbered from one, starting with the oldest posts.
+     */
+    final List<NormalizedPost> getArchivePage(int page, int pageSize) {
+        int fromIdx = (page - 1) * pageSize;
+        return archived.subList(fromIdx, min(fromIdx + pageSize, archived.size()));
+    }
+
+    @Override
+    public final String toString() {
+        return "FeedPartition{" +
+                "headCt=" + head.size() +
+                ", archivedCt=" + archivedCt +
+                ", duplicateCt=" + duplicateCt +
+                '}';
+    }
+}
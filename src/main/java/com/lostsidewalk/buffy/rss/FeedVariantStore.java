@@ -0,0 +1,50 @@
+package com.lostsidewalk.buffy.rss;
+
+/**
+ * Storage for the serialized (and precompressed) variants of published feeds, from which the serving tier may hand out
+ * bytes as-is.  No store is provided: feed variants are only stored if the application registers a FeedVariantStore
+ * bean, backed by storage that its serving tier can read.
+ * <p>
+ * The variants carry the content digest of the feed, which is shared by every publisher instance that uses the store,
+ * and which decides whether publishing may skip writing an unchanged feed.  A store must therefore lose the variants of
+ * a feed whenever the rendered feed store loses the feed itself (e.g., by evicting or expiring them alike).
+ */
+public interface FeedVariantStore {
+
+    /**
+     * Stores the variants of a feed, replacing any previously stored variants of it.
+     *
+     * @param variants The feed variants.
+     */
+    void putVariants(RenderedFeedVariants variants);
+
+    /**
+     * Retrieves the variants of a feed.
+     *
+     * @param transportIdent The transport identifier of the feed.
+     * @param publisherId    The publisher identifier of the feed format (i.e., RSS_20 or ATOM_10).
+     * @return The feed variants, or null if none are stored.
+     */
+    RenderedFeedVariants getVariants(String transportIdent, String publisherId);
+
+    /**
+     * Retrieves the content digest of the stored variants of a feed.  Stores that can read the digest without reading
+     * the variants should override this.
+     *
+     * @param transportIdent The transport identifier of the feed.
+     * @param publisherId    The publisher identifier of the feed format (i.e., RSS_20 or ATOM_10).
+     * @return The digest, or null if no variants (or no digest) are stored.
+     */
+    default String getDigest(String transportIdent, String publisherId) {
+        RenderedFeedVariants variants = getVariants(transportIdent, publisherId);
+        return variants == null ? null : variants.getDigest();
+    }
+
+    /**
+     * Removes the variants of a feed, if any are stored.
+     *
+     * @param transportIdent The transport identifier of the feed.
+     * @param publisherId    The publisher identifier of the feed format (i.e., RSS_20 or ATOM_10).
+     */
+    void removeVariants(String transportIdent, String publisherId);
+}
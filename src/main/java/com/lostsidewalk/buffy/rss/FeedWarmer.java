@@ -0,0 +1,158 @@
+package com.lostsidewalk.buffy.rss;
+
+import com.lostsidewalk.buffy.post.*;
+import com.lostsidewalk.buffy.queue.QueueDefinition;
+import com.rometools.modules.itunes.EntryInformationImpl;
+import com.rometools.modules.mediarss.MediaEntryModuleImpl;
+import com.rometools.modules.mediarss.types.Metadata;
+import com.rometools.rome.feed.atom.Feed;
+import com.rometools.rome.feed.rss.Channel;
+import com.rometools.rome.io.WireFeedOutput;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Writer;
+import java.util.Date;
+import java.util.List;
+
+import static java.lang.System.nanoTime;
+import static java.util.Collections.nCopies;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Warms up the rendering path at startup, so that the first publish or preview after a deploy does not pay for it.
+ * ROME loads its generator and module generator registries (every class listed in each rome.properties on the class
+ * path) reflectively on first use, and the builders, writers and renderers are otherwise interpreted until they have
+ * run a few times.  The warm-up loads the registries and renders a synthetic feed, with one fully populated post, in
+ * every format and through every writer.
+ * <p>
+ * The synthetic feed is rendered through scratch writers whose fragment cache retains nothing, so that it leaves no
+ * trace in the caches of the publisher; only the (stateless) builders are shared.
+ */
+@Slf4j
+final class FeedWarmer {
+
+    private static final String WARM_UP_IDENT = "rss-publisher-warm-up";
+
+    private final RSSPublisherConfigProps configProps;
+
+    private final RSSChannelBuilder rssChannelBuilder;
+
+    private final ATOMFeedBuilder atomFeedBuilder;
+
+    FeedWarmer(RSSPublisherConfigProps configProps, RSSChannelBuilder rssChannelBuilder, ATOMFeedBuilder atomFeedBuilder) {
+        this.configProps = configProps;
+        this.rssChannelBuilder = rssChannelBuilder;
+        this.atomFeedBuilder = atomFeedBuilder;
+    }
+
+    /**
+     * Loads the ROME generator registries and renders the synthetic feed the given number of times.  Failures are
+     * logged and otherwise ignored; the warm-up never prevents the publisher from starting.
+     */
+    final void warmUp(int iterations) {
+        long start = nanoTime();
+        try {
+            List<String> feedTypes = WireFeedOutput.getSupportedFeedTypes();
+            ItemFragmentCache scratchCache = new ItemFragmentCache(0L);
+            StreamingFeedWriter streamingFeedWriter = new StreamingFeedWriter(scratchCache);
+            CachingFeedRenderer cachingFeedRenderer = new CachingFeedRenderer(scratchCache);
+            JsonFeedWriter jsonFeedWriter = new JsonFeedWriter(scratchCache);
+            QueueDefinition queueDefinition = warmUpQueueDefinition();
+            QueueRenderContext renderContext = QueueRenderContext.of(queueDefinition, configProps);
+            Writer discard = Writer.nullWriter();
+            for (int i = 0; i < iterations; i++) {
+                List<NormalizedPost> posts = NormalizedPost.normalize(List.of(warmUpStagingPost()));
+                // null posts are never cached
+                List<NormalizedPost> uncached = nCopies(posts.size(), null);
+                Date pubDate = new Date();
+                Channel channel = rssChannelBuilder.buildChannel(queueDefinition, renderContext, posts, pubDate, RSSChannelItemBuilder::toItem);
+                if (StreamingFeedWriter.supportsFeedType(channel.getFeedType())) {
+                    streamingFeedWriter.writeChannel(channel, uncached, discard);
+                }
+                discard.write(cachingFeedRenderer.renderChannel(channel, uncached));
+                Feed feed = atomFeedBuilder.buildFeed(queueDefinition, renderContext, posts, post -> ATOMFeedEntryBuilder.toEntry(post, pubDate));
+                if (StreamingFeedWriter.supportsFeedType(feed.getFeedType())) {
+                    streamingFeedWriter.writeFeed(feed, uncached, discard);
+                }
+                discard.write(cachingFeedRenderer.renderFeed(feed, uncached));
+                jsonFeedWriter.writeFeed(queueDefinition, renderContext, posts, discard);
+            }
+            log.info("RSS publisher warmed up in {}ms, iterations={}, feedTypes={}", NANOSECONDS.toMillis(nanoTime() - start), iterations, feedTypes);
+        } catch (Exception e) {
+            log.warn("RSS publisher warm-up failed after {}ms due to: {}", NANOSECONDS.toMillis(nanoTime() - start), e.getMessage());
+        }
+    }
+
+    //
+    //
+    //
+
+    private static QueueDefinition warmUpQueueDefinition() {
+        return QueueDefinition.from(
+                WARM_UP_IDENT,
+                "Warm-up",
+                "Warm-up feed",
+                null,
+                WARM_UP_IDENT,
+                WARM_UP_IDENT,
+                null,
+                "Warm-up",
+                "en-US",
+                WARM_UP_IDENT,
+                false
+        );
+    }
+
+    private static StagingPost warmUpStagingPost() {
+        Date timestamp = new Date();
+        PostUrl postUrl = new PostUrl();
+        postUrl.setTitle("Warm-up");
+        postUrl.setRel("related");
+        postUrl.setHref("https://localhost/warm-up/related");
+        postUrl.setType("text/html");
+        PostPerson postPerson = new PostPerson();
+        postPerson.setName("Warm-up");
+        postPerson.setEmail("warm-up@localhost");
+        PostEnclosure postEnclosure = new PostEnclosure();
+        postEnclosure.setUrl("https://localhost/warm-up/audio.mp3");
+        postEnclosure.setType("audio/mpeg");
+        postEnclosure.setLength(1L);
+        MediaEntryModuleImpl mediaEntryModule = new MediaEntryModuleImpl();
+        mediaEntryModule.setMetadata(new Metadata());
+        EntryInformationImpl entryInformation = new EntryInformationImpl();
+        entryInformation.setKeywords(new String[]{"warm-up"});
+        return StagingPost.from(
+                WARM_UP_IDENT,
+                null,
+                WARM_UP_IDENT,
+                null,
+                ContentObject.from(WARM_UP_IDENT, "text", "Warm-up"),
+                ContentObject.from(WARM_UP_IDENT, "html", "<p>Warm-up</p>"),
+                List.of(ContentObject.from(WARM_UP_IDENT, "html", "<p>Warm-up</p>")),
+                PostMedia.from(mediaEntryModule),
+                PostITunes.from(entryInformation),
+                "https://localhost/warm-up",
+                List.of(postUrl),
+                "https://localhost/warm-up/img.png",
+                timestamp,
+                WARM_UP_IDENT,
+                WARM_UP_IDENT,
+                "https://localhost/warm-up/comments",
+                "Warm-up",
+                List.of(postPerson),
+                List.of(postPerson),
+                List.of(WARM_UP_IDENT),
+                timestamp,
+                null,
+                List.of(postEnclosure),
+                timestamp
+        );
+    }
+
+    @Override
+    public final String toString() {
+        return "FeedWarmer{" +
+                "configProps=" + configProps +
+                '}';
+    }
+}
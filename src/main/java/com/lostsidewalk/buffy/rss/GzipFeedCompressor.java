@@ -0,0 +1,54 @@
+package com.lostsidewalk.buffy.rss;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compresses rendered feeds with gzip, at the configured level (rss.publisher.gzip-level, 6 by default).  Compression
+ * happens once per publish rather than once per read, so levels out of range fall back to the best (slowest) level.
+ */
+@Slf4j
+final class GzipFeedCompressor implements FeedCompressor {
+
+    static final String GZIP_ENCODING = "gzip";
+
+    private final int level;
+
+    GzipFeedCompressor(int level) {
+        this.level = level < Deflater.NO_COMPRESSION || level > Deflater.BEST_COMPRESSION ? Deflater.BEST_COMPRESSION : level;
+    }
+
+    @Override
+    public String getEncoding() {
+        return GZIP_ENCODING;
+    }
+
+    @Override
+    public byte[] compress(byte[] content) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, content.length >> 2));
+        try (OutputStream gzip = new LeveledGZIPOutputStream(compressed, level)) {
+            gzip.write(content);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static final class LeveledGZIPOutputStream extends GZIPOutputStream {
+
+        private LeveledGZIPOutputStream(OutputStream out, int level) throws IOException {
+            super(out, 8192);
+            def.setLevel(level);
+        }
+    }
+
+    @Override
+    public final String toString() {
+        return "GzipFeedCompressor{" +
+                "level=" + level +
+                '}';
+    }
+}
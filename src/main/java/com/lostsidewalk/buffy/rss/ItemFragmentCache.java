@@ -0,0 +1,87 @@
+package com.lostsidewalk.buffy.rss;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.HexFormat;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Bounded cache of serialized {@code <item>}/{@code <entry>} XML fragments, keyed by format, post hash, last-updated
+ * timestamp, an optional scope (e.g., the digest of the feed header that an ATOM entry embeds as its source), and the
+ * published date that the fragment embeds (an ATOM entry falls back to the publish date of the feed when its post has
+ * no publish timestamp).  Fragments are weighed by their length, which approximates their size in bytes.
+ */
+@Slf4j
+final class ItemFragmentCache {
+
+    @FunctionalInterface
+    interface FragmentRenderer<E extends Exception> {
+        String render() throws E;
+    }
+
+    private static final String SCOPE_DIGEST_ALGORITHM = "SHA-256";
+
+    private static final HexFormat HEX_FORMAT = HexFormat.of();
+
+    private final WeightedLruCache<FragmentKey, String> fragments;
+
+    ItemFragmentCache(long maxBytes) {
+        this.fragments = new WeightedLruCache<>(maxBytes, String::length);
+    }
+
+    final <E extends Exception> String getFragment(String format, NormalizedPost post, FragmentRenderer<E> fragmentRenderer) throws E {
+        return getFragment(format, post, null, null, fragmentRenderer);
+    }
+
+    /**
+     * @param scope     the scope of the fragment, or null if it is rendered the same way in every feed; fragments that
+     *                  embed (part of) the feed are scoped to it by a strong digest (see {@link #scopeOf})
+     * @param published the published date that the fragment embeds, or null if it embeds none
+     */
+    final <E extends Exception> String getFragment(String format, NormalizedPost post, String scope, Date published, FragmentRenderer<E> fragmentRenderer) throws E {
+        String postHash = post == null ? null : post.getPostHash();
+        if (postHash == null || post.getLastUpdatedTimestamp() == null) {
+            // not cacheable
+            return fragmentRenderer.render();
+        }
+        FragmentKey fragmentKey = new FragmentKey(format, postHash, post.getLastUpdatedTimestamp().getTime(), scope,
+                published == null ? Long.MIN_VALUE : published.getTime());
+        String fragment = fragments.get(fragmentKey);
+        if (fragment == null) {
+            fragment = fragmentRenderer.render();
+            fragments.put(fragmentKey, fragment);
+        }
+        return fragment;
+    }
+
+    private record FragmentKey(String format, String postHash, long lastUpdated, String scope, long published) {
+    }
+
+    /**
+     * Computes the scope of fragments that embed the given content (e.g., the rendered feed header that ATOM entries
+     * embed as their source): its SHA-256 digest, so that fragments of different feeds never share a scope.
+     */
+    static String scopeOf(String content) {
+        try {
+            return HEX_FORMAT.formatHex(MessageDigest.getInstance(SCOPE_DIGEST_ALGORITHM).digest(content.getBytes(UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform implements SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    final int size() {
+        return fragments.size();
+    }
+
+    @Override
+    public String toString() {
+        return "ItemFragmentCache{" +
+                "fragments=" + fragments +
+                '}';
+    }
+}
@@ -0,0 +1,199 @@
+package com.lostsidewalk.buffy.rss;
+
+import com.google.gson.stream.JsonWriter;
+import com.lostsidewalk.buffy.post.ContentObject;
+import com.lostsidewalk.buffy.post.PostEnclosure;
+import com.lostsidewalk.buffy.post.PostPerson;
+import com.lostsidewalk.buffy.queue.QueueDefinition;
+import com.lostsidewalk.buffy.rss.QueueExportConfig.AtomConfig;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Date;
+import java.util.List;
+
+import static com.rometools.rome.io.impl.DateParser.formatW3CDateTime;
+import static java.util.Locale.US;
+import static org.apache.commons.collections4.CollectionUtils.isNotEmpty;
+import static org.apache.commons.lang3.StringUtils.EMPTY;
+import static org.apache.commons.lang3.StringUtils.containsIgnoreCase;
+import static org.apache.commons.lang3.StringUtils.defaultIfBlank;
+import static org.apache.commons.lang3.StringUtils.defaultString;
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+
+/**
+ * Writes JSON Feed 1.1 (https://www.jsonfeed.org/version/1.1/) documents directly to a character stream with Gson's
+ * {@link JsonWriter}, from the same inputs as the RSS and ATOM builders: the queue definition, its render context, and
+ * the normalized posts.  No intermediate feed model is built; each item is written as a self-contained fragment, which
+ * is held in the {@link ItemFragmentCache} so that unchanged posts are not re-serialized.
+ */
+@Slf4j
+final class JsonFeedWriter {
+
+    static final String JSON_FEED_VERSION = "https://jsonfeed.org/version/1.1";
+
+    private static final String JSON_FEED_FORMAT = "JSON_FEED";
+
+    private static final String DEFAULT_ATTACHMENT_MIME_TYPE = "application/octet-stream";
+
+    private final ItemFragmentCache fragmentCache;
+
+    JsonFeedWriter(ItemFragmentCache fragmentCache) {
+        this.fragmentCache = fragmentCache;
+    }
+
+    /**
+     * Writes the feed of the given queue as a JSON Feed 1.1 document.
+     *
+     * @param queueDefinition the queue definition
+     * @param renderContext   the URLs and export config of the queue
+     * @param posts           the normalized posts to write as feed items, in feed order
+     * @param writer          the destination
+     */
+    final void writeFeed(QueueDefinition queueDefinition, QueueRenderContext renderContext, List<NormalizedPost> posts, Writer writer) throws IOException {
+        JsonWriter json = new JsonWriter(writer);
+        json.beginObject();
+        json.name("version").value(JSON_FEED_VERSION);
+        // queue title defaults to queue ident if not specified, and queue description to queue title (as with RSS)
+        String queueTitle = defaultString(queueDefinition.getTitle(), queueDefinition.getIdent());
+        json.name("title").value(queueTitle);
+        writeString(json, "home_page_url", renderContext.getChannelLinkUrl());
+        writeString(json, "feed_url", renderContext.getJsonFeedUrl());
+        writeString(json, "description", defaultString(queueDefinition.getDescription(), queueTitle));
+        writeString(json, "icon", renderContext.getChannelImageUrl());
+        writeString(json, "language", queueDefinition.getLanguage());
+        AtomConfig atomConfig = renderContext.getExportConfig().getAtomConfig();
+        if (atomConfig != null && isNotBlank(atomConfig.getAuthorName())) {
+            json.name("authors").beginArray();
+            writeAuthor(json, atomConfig.getAuthorName(), atomConfig.getAuthorUri());
+            json.endArray();
+        }
+        json.name("items").beginArray();
+        if (isNotEmpty(posts)) {
+            for (NormalizedPost post : posts) {
+                json.jsonValue(getItemFragment(post));
+            }
+        }
+        json.endArray();
+        json.endObject();
+        json.flush();
+    }
+
+    /**
+     * Gets the serialized form of the feed item of the given post, as it is written by {@link #writeFeed}.
+     */
+    final String getItemFragment(NormalizedPost post) throws IOException {
+        return fragmentCache.getFragment(JSON_FEED_FORMAT, post, () -> renderItem(post));
+    }
+
+    private static String renderItem(NormalizedPost post) throws IOException {
+        StringWriter fragment = new StringWriter(1024);
+        JsonWriter json = new JsonWriter(fragment);
+        json.beginObject();
+        // an item must have an id, and content; posts without content fall back to their description, and posts with
+        // neither have empty text content
+        ContentObject postDesc = post.getPostDesc();
+        List<ContentObject> postContents = post.getPostContents();
+        ContentObject content = isNotEmpty(postContents) ? postContents.get(0) : postDesc;
+        json.name("id").value(itemId(post, content));
+        writeString(json, "url", post.getPostUrl());
+        writeString(json, "title", valueOf(post.getPostTitle()));
+        if (content != null && isHtml(content)) {
+            json.name("content_html").value(defaultString(content.getValue()));
+        } else {
+            json.name("content_text").value(content == null ? EMPTY : defaultString(content.getValue()));
+        }
+        if (content != postDesc) {
+            writeString(json, "summary", valueOf(postDesc));
+        }
+        writeString(json, "date_published", formatW3CDate(post.getPublishTimestamp()));
+        writeString(json, "date_modified", formatW3CDate(post.getLastUpdatedTimestamp()));
+        List<PostPerson> authors = post.getAuthors();
+        if (isNotEmpty(authors)) {
+            json.name("authors").beginArray();
+            for (PostPerson author : authors) {
+                writeAuthor(json, author.getName(), author.getUri());
+            }
+            json.endArray();
+        }
+        List<String> categories = post.getPostCategories();
+        if (isNotEmpty(categories)) {
+            json.name("tags").beginArray();
+            for (String category : categories) {
+                json.value(category);
+            }
+            json.endArray();
+        }
+        List<PostEnclosure> enclosures = post.getEnclosures();
+        if (isNotEmpty(enclosures)) {
+            json.name("attachments").beginArray();
+            for (PostEnclosure enclosure : enclosures) {
+                json.beginObject();
+                json.name("url").value(enclosure.getUrl());
+                json.name("mime_type").value(defaultIfBlank(enclosure.getType(), DEFAULT_ATTACHMENT_MIME_TYPE));
+                if (enclosure.getLength() != null) {
+                    json.name("size_in_bytes").value(enclosure.getLength());
+                }
+                json.endObject();
+            }
+            json.endArray();
+        }
+        json.endObject();
+        json.flush();
+        return fragment.toString();
+    }
+
+    /**
+     * Gets the id of the item of the given post: its hash, or else its URL, or else a digest of its title and content.
+     */
+    private static String itemId(NormalizedPost post, ContentObject content) {
+        if (post.getPostHash() != null) {
+            return post.getPostHash();
+        }
+        if (post.getPostUrl() != null) {
+            return post.getPostUrl();
+        }
+        return FeedDigester.digestValues()
+                .add(valueOf(post.getPostTitle()))
+                .add(valueOf(content))
+                .digest();
+    }
+
+    private static void writeAuthor(JsonWriter json, String name, String url) throws IOException {
+        json.beginObject();
+        writeString(json, "name", name);
+        writeString(json, "url", url);
+        json.endObject();
+    }
+
+    //
+    //
+    //
+
+    private static void writeString(JsonWriter json, String name, String value) throws IOException {
+        if (value != null) {
+            json.name(name).value(value);
+        }
+    }
+
+    private static String valueOf(ContentObject contentObject) {
+        return contentObject == null ? null : contentObject.getValue();
+    }
+
+    private static boolean isHtml(ContentObject contentObject) {
+        return containsIgnoreCase(contentObject.getType(), "html");
+    }
+
+    private static String formatW3CDate(Date date) {
+        return date == null ? null : formatW3CDateTime(date, US);
+    }
+
+    @Override
+    public final String toString() {
+        return "JsonFeedWriter{" +
+                "fragmentCache=" + fragmentCache +
+                '}';
+    }
+}
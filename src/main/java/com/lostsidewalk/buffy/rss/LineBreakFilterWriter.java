@@ -0,0 +1,69 @@
+package com.lostsidewalk.buffy.rss;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.FilterWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writer that drops carriage returns and line feeds on their way to the underlying writer, so that feed previews are
+ * written as a single line without post-processing the rendered document.
+ */
+@Slf4j
+final class LineBreakFilterWriter extends FilterWriter {
+
+    LineBreakFilterWriter(Writer out) {
+        super(out);
+    }
+
+    @Override
+    public final void write(int c) throws IOException {
+        if (c != '\n' && c != '\r') {
+            out.write(c);
+        }
+    }
+
+    @Override
+    public final void write(char[] cbuf, int off, int len) throws IOException {
+        int end = off + len;
+        int runStart = off;
+        for (int i = off; i < end; i++) {
+            char c = cbuf[i];
+            if (c == '\n' || c == '\r') {
+                if (i > runStart) {
+                    out.write(cbuf, runStart, i - runStart);
+                }
+                runStart = i + 1;
+            }
+        }
+        if (end > runStart) {
+            out.write(cbuf, runStart, end - runStart);
+        }
+    }
+
+    @Override
+    public final void write(String str, int off, int len) throws IOException {
+        int end = off + len;
+        int runStart = off;
+        for (int i = off; i < end; i++) {
+            char c = str.charAt(i);
+            if (c == '\n' || c == '\r') {
+                if (i > runStart) {
+                    out.write(str, runStart, i - runStart);
+                }
+                runStart = i + 1;
+            }
+        }
+        if (end > runStart) {
+            out.write(str, runStart, end - runStart);
+        }
+    }
+
+    @Override
+    public final String toString() {
+        return "LineBreakFilterWriter{" +
+                "out=" + out +
+                '}';
+    }
+}
@@ -0,0 +1,171 @@
+package com.lostsidewalk.buffy.rss;
+
+import com.lostsidewalk.buffy.post.*;
+import com.rometools.rome.feed.module.Module;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import static java.util.Collections.singletonList;
+import static org.apache.commons.collections4.CollectionUtils.isNotEmpty;
+import static org.apache.commons.collections4.CollectionUtils.size;
+
+/**
+ * Format-neutral view of a staging post.  Each staging post is normalized once per publish (or preview), and the
+ * resulting record is read by both the RSS item builder and the ATOM entry builder, so that per-post work such as
+ * media and iTunes module conversion is not repeated for every output format.
+ */
+@Slf4j
+final class NormalizedPost {
+
+    private final String postHash;
+    private final ContentObject postTitle;
+    private final ContentObject postDesc;
+    private final List<ContentObject> postContents;
+    private final String postUrl;
+    private final List<PostUrl> postUrls;
+    private final List<PostPerson> authors;
+    private final List<PostPerson> contributors;
+    private final List<String> postCategories;
+    private final List<PostEnclosure> enclosures;
+    private final String postComment;
+    private final String postRights;
+    private final Date publishTimestamp;
+    private final Date expirationTimestamp;
+    private final Date lastUpdatedTimestamp;
+    private final List<Module> modules;
+
+    private NormalizedPost(StagingPost stagingPost, List<Module> modules) {
+        this.postHash = stagingPost.getPostHash();
+        this.postTitle = stagingPost.getPostTitle();
+        this.postDesc = stagingPost.getPostDesc();
+        this.postContents = stagingPost.getPostContents();
+        this.postUrl = stagingPost.getPostUrl();
+        this.postUrls = stagingPost.getPostUrls();
+        this.authors = stagingPost.getAuthors();
+        this.contributors = stagingPost.getContributors();
+        this.postCategories = stagingPost.getPostCategories();
+        this.enclosures = stagingPost.getEnclosures();
+        this.postComment = stagingPost.getPostComment();
+        this.postRights = stagingPost.getPostRights();
+        this.publishTimestamp = stagingPost.getPublishTimestamp();
+        this.expirationTimestamp = stagingPost.getExpirationTimestamp();
+        this.lastUpdatedTimestamp = stagingPost.getLastUpdatedTimestamp();
+        this.modules = modules;
+    }
+
+    static NormalizedPost from(StagingPost stagingPost) {
+        return new NormalizedPost(stagingPost, getModules(stagingPost));
+    }
+
+    static List<NormalizedPost> normalize(Collection<? extends StagingPost> stagingPosts) {
+        List<NormalizedPost> normalizedPosts = new ArrayList<>(size(stagingPosts));
+        if (isNotEmpty(stagingPosts)) {
+            for (StagingPost stagingPost : stagingPosts) {
+                normalizedPosts.add(from(stagingPost));
+            }
+        }
+        return normalizedPosts;
+    }
+
+    private static List<Module> getModules(StagingPost stagingPost) {
+        // post media
+        PostMedia postMedia = stagingPost.getPostMedia();
+        Module mediaModule = postMedia == null ? null : postMedia.toModule();
+        // post iTunes
+        PostITunes postITunes = stagingPost.getPostITunes();
+        Module iTunesModule = postITunes == null ? null : postITunes.toEntryModule();
+
+        if (mediaModule == null) {
+            return iTunesModule == null ? null : singletonList(iTunesModule);
+        }
+        return iTunesModule == null ? singletonList(mediaModule) : List.of(mediaModule, iTunesModule);
+    }
+
+    final String getPostHash() {
+        return postHash;
+    }
+
+    final ContentObject getPostTitle() {
+        return postTitle;
+    }
+
+    final ContentObject getPostDesc() {
+        return postDesc;
+    }
+
+    final List<ContentObject> getPostContents() {
+        return postContents;
+    }
+
+    final String getPostUrl() {
+        return postUrl;
+    }
+
+    final List<PostUrl> getPostUrls() {
+        return postUrls;
+    }
+
+    final List<PostPerson> getAuthors() {
+        return authors;
+    }
+
+    final List<PostPerson> getContributors() {
+        return contributors;
+    }
+
+    final List<String> getPostCategories() {
+        return postCategories;
+    }
+
+    final List<PostEnclosure> getEnclosures() {
+        return enclosures;
+    }
+
+    final String getPostComment() {
+        return postComment;
+    }
+
+    final String getPostRights() {
+        return postRights;
+    }
+
+    final Date getPublishTimestamp() {
+        return publishTimestamp;
+    }
+
+    final Date getExpirationTimestamp() {
+        return expirationTimestamp;
+    }
+
+    final Date getLastUpdatedTimestamp() {
+        return lastUpdatedTimestamp;
+    }
+
+    /**
+     * @return the media and iTunes modules of this post (shared, read-only), or null if the post has neither.
+     */
+    final List<Module> getModules() {
+        return modules;
+    }
+
+    /**
+     * @return a mutable list of the media and iTunes modules of this post, owned by the caller (for a single feed item
+     * or entry), or null if the post has neither.
+     */
+    final List<Module> copyModules() {
+        return modules == null ? null : new ArrayList<>(modules);
+    }
+
+    @Override
+    public String toString() {
+        return "NormalizedPost{" +
+                "postHash='" + postHash + '\'' +
+                ", postUrl='" + postUrl + '\'' +
+                ", lastUpdatedTimestamp=" + lastUpdatedTimestamp +
+                '}';
+    }
+}
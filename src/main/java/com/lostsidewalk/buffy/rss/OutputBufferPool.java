@@ -0,0 +1,57 @@
+package com.lostsidewalk.buffy.rss;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import static java.lang.Math.max;
+
+/**
+ * Bounded pool of reusable serialization buffers.  Buffers are leased for the duration of a single serialization and
+ * then released; a buffer that grew beyond the retained size limit (or that finds the pool full) is dropped on
+ * release, so the pool holds at most {@code poolSize * maxRetainedBytes} bytes.
+ */
+@Slf4j
+final class OutputBufferPool {
+
+    private static final int INITIAL_BUFFER_BYTES = 16_384;
+
+    private final BlockingQueue<PooledOutputBuffer> buffers;
+
+    private final int maxRetainedBytes;
+
+    private final boolean direct;
+
+    OutputBufferPool(int poolSize, int maxRetainedBytes, boolean direct) {
+        this.buffers = new ArrayBlockingQueue<>(max(1, poolSize));
+        this.maxRetainedBytes = maxRetainedBytes;
+        this.direct = direct;
+    }
+
+    final PooledOutputBuffer acquire() {
+        PooledOutputBuffer buffer = buffers.poll();
+        return buffer == null ? new PooledOutputBuffer(INITIAL_BUFFER_BYTES, direct) : buffer;
+    }
+
+    final void release(PooledOutputBuffer buffer) {
+        if (buffer.capacity() <= maxRetainedBytes) {
+            buffer.reset();
+            //noinspection ResultOfMethodCallIgnored
+            buffers.offer(buffer);
+        }
+    }
+
+    final int size() {
+        return buffers.size();
+    }
+
+    @Override
+    public final String toString() {
+        return "OutputBufferPool{" +
+                "pooledCt=" + buffers.size() +
+                ", maxRetainedBytes=" + maxRetainedBytes +
+                ", direct=" + direct +
+                '}';
+    }
+}
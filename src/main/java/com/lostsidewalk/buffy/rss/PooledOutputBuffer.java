@@ -0,0 +1,93 @@
+package com.lostsidewalk.buffy.rss;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+import static java.lang.Math.max;
+
+/**
+ * Growable output stream over a (heap or direct) byte buffer, leased from an {@link OutputBufferPool} and returned to
+ * it once the bytes written to it have been handed off.
+ */
+@Slf4j
+final class PooledOutputBuffer extends OutputStream {
+
+    private final boolean direct;
+
+    private ByteBuffer buffer;
+
+    PooledOutputBuffer(int capacity, boolean direct) {
+        this.direct = direct;
+        this.buffer = allocate(capacity);
+    }
+
+    private ByteBuffer allocate(int capacity) {
+        return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+    @Override
+    public final void write(int b) {
+        ensureRemaining(1);
+        buffer.put((byte) b);
+    }
+
+    @Override
+    public final void write(byte[] b, int off, int len) {
+        ensureRemaining(len);
+        buffer.put(b, off, len);
+    }
+
+    private void ensureRemaining(int len) {
+        if (buffer.remaining() < len) {
+            ByteBuffer grown = allocate(max(buffer.capacity() << 1, buffer.position() + len));
+            grown.put(buffer.flip());
+            buffer = grown;
+        }
+    }
+
+    /**
+     * Gets the number of bytes written since the buffer was leased.
+     */
+    final int size() {
+        return buffer.position();
+    }
+
+    final int capacity() {
+        return buffer.capacity();
+    }
+
+    /**
+     * Copies the bytes written since the buffer was leased into an exactly-sized array.
+     */
+    final byte[] toByteArray() {
+        byte[] bytes = new byte[buffer.position()];
+        buffer.get(0, bytes);
+        return bytes;
+    }
+
+    /**
+     * Decodes the bytes written since the buffer was leased.
+     */
+    final String toString(Charset charset) {
+        if (buffer.hasArray()) {
+            return new String(buffer.array(), buffer.arrayOffset(), buffer.position(), charset);
+        }
+        return charset.decode(buffer.duplicate().flip()).toString();
+    }
+
+    final void reset() {
+        buffer.clear();
+    }
+
+    @Override
+    public final String toString() {
+        return "PooledOutputBuffer{" +
+                "direct=" + direct +
+                ", size=" + buffer.position() +
+                ", capacity=" + buffer.capacity() +
+                '}';
+    }
+}
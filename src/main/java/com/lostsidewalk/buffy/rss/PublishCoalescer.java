@@ -0,0 +1,161 @@
+package com.lostsidewalk.buffy.rss;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import static java.lang.Thread.currentThread;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Serializes and coalesces the publishes of each transport identity.  Publishes of the same transport identity are
+ * run under one of a fixed number of striped locks, so that they never race on the rendered feed store.  A publish
+ * that arrives while an earlier publish of the same transport identity is waiting (for its debounce window to elapse,
+ * or for the lock) replaces the waiting publish rather than queueing behind it: only the newest publish is run, and all
+ * of the coalesced callers receive its result.
+ *
+ * @param <T> the result type of a publish
+ */
+@Slf4j
+final class PublishCoalescer<T> {
+
+    // enough stripes that publishes of distinct transport identities rarely serialize on a shared lock
+    static final int DEFAULT_LOCK_STRIPES = 64;
+
+    private final Lock[] locks;
+
+    private final long debounceMillis;
+
+    private final PublisherMetrics publisherMetrics;
+
+    private final Map<String, PendingPublish<T>> pendingPublishes = new ConcurrentHashMap<>(64);
+
+    /**
+     * @param lockStripes the number of striped locks; values less than one indicate the default
+     */
+    PublishCoalescer(int lockStripes, long debounceMillis, PublisherMetrics publisherMetrics) {
+        this.locks = new Lock[lockStripes > 0 ? lockStripes : DEFAULT_LOCK_STRIPES];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.debounceMillis = debounceMillis;
+        this.publisherMetrics = publisherMetrics;
+    }
+
+    /**
+     * Runs the given publish of the given transport identity, or hands it to a publish of the same transport identity
+     * that is already waiting to run.  The caller waits out the debounce window (if it is the first to arrive) and then
+     * the lock of the transport identity, and returns the result of the newest publish that arrived in the meantime.
+     *
+     * @param transportIdent the transport identity to publish
+     * @param publish        the publish to run
+     * @return the result of the newest coalesced publish
+     */
+    final T publish(String transportIdent, Supplier<T> publish) {
+        PendingPublish<T> joined = new PendingPublish<>(publish);
+        PendingPublish<T> pendingPublish = pendingPublishes.merge(transportIdent, joined, (waiting, arriving) -> {
+            waiting.latest = arriving.latest;
+            return waiting;
+        });
+        if (pendingPublish != joined) {
+            publisherMetrics.recordCoalesced();
+            log.debug("Coalesced publish of transportIdent={}", transportIdent);
+            return await(pendingPublish.result);
+        }
+        if (debounceMillis > 0L) {
+            try {
+                MILLISECONDS.sleep(debounceMillis);
+            } catch (InterruptedException e) {
+                currentThread().interrupt();
+            }
+        }
+        Lock lock = lockOf(transportIdent);
+        lock.lock();
+        try {
+            // once detached, no further publishes can be coalesced into this one
+            pendingPublishes.remove(transportIdent, pendingPublish);
+            T result = pendingPublish.latest.get();
+            pendingPublish.result.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            pendingPublish.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs the given publish of the given transport identity under its lock, without coalescing or debouncing.
+     *
+     * @param transportIdent the transport identity to publish
+     * @param publish        the publish to run
+     * @return the result of the publish
+     */
+    final T publishNow(String transportIdent, Supplier<T> publish) {
+        Lock lock = lockOf(transportIdent);
+        lock.lock();
+        try {
+            return publish.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Lock lockOf(String transportIdent) {
+        int h = transportIdent == null ? 0 : transportIdent.hashCode();
+        return locks[((h ^ (h >>> 16)) & Integer.MAX_VALUE) % locks.length];
+    }
+
+    private static <T> T await(CompletableFuture<T> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    //
+    //
+    //
+
+    private static final class PendingPublish<T> {
+
+        private volatile Supplier<T> latest;
+
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+
+        private PendingPublish(Supplier<T> latest) {
+            this.latest = latest;
+        }
+
+        @Override
+        public String toString() {
+            return "PendingPublish{" +
+                    "result=" + result +
+                    '}';
+        }
+    }
+
+    @Override
+    public final String toString() {
+        return "PublishCoalescer{" +
+                "lockStripes=" + locks.length +
+                ", debounceMillis=" + debounceMillis +
+                ", pendingPublishes=" + pendingPublishes.size() +
+                '}';
+    }
+}
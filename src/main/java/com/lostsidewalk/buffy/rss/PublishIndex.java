@@ -0,0 +1,189 @@
+package com.lostsidewalk.buffy.rss;
+
+import com.lostsidewalk.buffy.queue.QueueDefinition;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.ref.SoftReference;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+/**
+ * Per-transport identifier index of the previous publish of a single feed format.  The index retains the hash and
+ * last-updated timestamp of each published post, along with the hash of the feed header, and (softly) the feed items
+ * that were built for them.  A subsequent publish of the same transport identifier is diffed against the index, so
+ * that items for unchanged posts are reused rather than rebuilt.  A reused item is copied before it is handed to the new
+ * publish, so that the feed it is added to does not modify the item that the previous snapshot retains.
+ * <p>
+ * The index is bounded by the total number of posts across its snapshots; the least recently published transport
+ * identifiers are forgotten first, and their next publish rebuilds every item.
+ *
+ * @param <T> the feed item type (i.e., RSS item or ATOM entry)
+ */
+@Slf4j
+final class PublishIndex<T> {
+
+    private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    private final Predicate<? super NormalizedPost> reusable;
+
+    private final UnaryOperator<T> copier;
+
+    private final WeightedLruCache<String, Snapshot<T>> snapshots;
+
+    /**
+     * @param maxPosts the maximum number of posts, across all transport identifiers, retained by the index
+     * @param reusable determines whether a previously built item may be reused for an unchanged post (e.g., items that
+     *                 depend on the publish date may not)
+     * @param copier   copies a previously built item for reuse (items that are never modified once built may be
+     *                 returned as they are)
+     */
+    PublishIndex(long maxPosts, Predicate<? super NormalizedPost> reusable, UnaryOperator<T> copier) {
+        this.reusable = reusable;
+        this.copier = copier;
+        this.snapshots = new WeightedLruCache<>(maxPosts, snapshot -> snapshot.versions.size() + 1L);
+    }
+
+    /**
+     * Begins a publish pass for the given transport identifier, diffed against the previous (committed) pass.
+     */
+    final Pass begin(String transportIdent, int headerHash) {
+        return new Pass(transportIdent, headerHash, snapshots.get(transportIdent));
+    }
+
+    final void remove(String transportIdent) {
+        snapshots.remove(transportIdent);
+    }
+
+    final int size() {
+        return snapshots.size();
+    }
+
+    static int headerHash(QueueDefinition queueDefinition) {
+        return Objects.hash(
+                queueDefinition.getTransportIdent(),
+                queueDefinition.getIdent(),
+                queueDefinition.getTitle(),
+                queueDefinition.getDescription(),
+                queueDefinition.getGenerator(),
+                queueDefinition.getLanguage(),
+                queueDefinition.getCopyright(),
+                queueDefinition.getQueueImgTransportIdent(),
+                Objects.toString(queueDefinition.getExportConfig(), null)
+        );
+    }
+
+    private static final class Snapshot<T> {
+
+        private final int headerHash;
+
+        private final Map<String, Long> versions;
+
+        private final SoftReference<Map<String, T>> items;
+
+        private Snapshot(int headerHash, Map<String, Long> versions, Map<String, T> items) {
+            this.headerHash = headerHash;
+            this.versions = versions;
+            this.items = new SoftReference<>(items);
+        }
+    }
+
+    /**
+     * A single publish pass; not thread-safe.
+     */
+    final class Pass {
+
+        private final String transportIdent;
+
+        private final int headerHash;
+
+        private final Snapshot<T> previous;
+
+        private final Map<String, T> previousItems;
+
+        private final Map<String, Long> versions;
+
+        private final Map<String, T> items;
+
+        private int addedCt;
+
+        private int changedCt;
+
+        private int unchangedCt;
+
+        private int matchedCt;
+
+        private Pass(String transportIdent, int headerHash, Snapshot<T> previous) {
+            this.transportIdent = transportIdent;
+            this.headerHash = headerHash;
+            this.previous = previous;
+            this.previousItems = previous == null ? null : previous.items.get();
+            int expectedSize = previous == null ? 16 : previous.versions.size() + 16;
+            this.versions = new HashMap<>(expectedSize);
+            this.items = new HashMap<>(expectedSize);
+        }
+
+        /**
+         * Maps the given post to a feed item, reusing the item from the previous pass when the post is unchanged.
+         */
+        final T map(NormalizedPost post, Function<? super NormalizedPost, ? extends T> mapper) {
+            String postHash = post.getPostHash();
+            if (postHash == null) {
+                addedCt++;
+                return mapper.apply(post);
+            }
+            long version = post.getLastUpdatedTimestamp() == null ? NO_TIMESTAMP : post.getLastUpdatedTimestamp().getTime();
+            Long previousVersion = previous == null ? null : previous.versions.get(postHash);
+            T item = null;
+            if (previousVersion == null) {
+                addedCt++;
+            } else {
+                matchedCt++;
+                if (previousVersion == version) {
+                    unchangedCt++;
+                    if (previousItems != null && reusable.test(post)) {
+                        T previousItem = previousItems.get(postHash);
+                        item = previousItem == null ? null : copier.apply(previousItem);
+                    }
+                } else {
+                    changedCt++;
+                }
+            }
+            if (item == null) {
+                item = mapper.apply(post);
+            }
+            versions.put(postHash, version);
+            items.put(postHash, item);
+            return item;
+        }
+
+        /**
+         * Records the outcome of this pass in the given report.
+         */
+        final void report(PublishReport publishReport) {
+            publishReport.setAddedCt(addedCt);
+            publishReport.setChangedCt(changedCt);
+            publishReport.setUnchangedCt(unchangedCt);
+            publishReport.setRemovedCt(previous == null ? 0 : Math.max(0, previous.versions.size() - matchedCt));
+            publishReport.setHeaderChanged(previous == null || previous.headerHash != headerHash);
+        }
+
+        /**
+         * Makes this pass the baseline for the next publish of the same transport identifier; called once the feed
+         * has been stored.
+         */
+        final void commit() {
+            snapshots.put(transportIdent, new Snapshot<>(headerHash, versions, items));
+        }
+    }
+
+    @Override
+    public final String toString() {
+        return "PublishIndex{" +
+                "snapshots=" + snapshots +
+                '}';
+    }
+}
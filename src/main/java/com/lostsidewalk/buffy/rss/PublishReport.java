@@ -0,0 +1,229 @@
+package com.lostsidewalk.buffy.rss;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+
+import static java.util.Collections.emptyList;
+
+/**
+ * Details of the most recent publish of a single feed format, complementing the publication result returned by the
+ * publisher.  Reports how much of the feed was carried over from the previous publish of the same transport
+ * identifier.
+ */
+@Slf4j
+public final class PublishReport {
+
+    private int addedCt;
+
+    private int changedCt;
+
+    private int unchangedCt;
+
+    private int removedCt;
+
+    private boolean headerChanged;
+
+    private String digest;
+
+    private boolean storeSkipped;
+
+    private int archivedCt;
+
+    private int archivePageCt;
+
+    private int duplicateCt;
+
+    private List<String> excerptedPostHashes = emptyList();
+
+    private List<String> droppedPostHashes = emptyList();
+
+    PublishReport() {
+    }
+
+    /**
+     * Gets the number of items that were not present in the previous publish.
+     *
+     * @return The number of added items.
+     */
+    public final int getAddedCt() {
+        return addedCt;
+    }
+
+    final void setAddedCt(int addedCt) {
+        this.addedCt = addedCt;
+    }
+
+    /**
+     * Gets the number of items that were present in the previous publish, but have since been updated.
+     *
+     * @return The number of changed items.
+     */
+    public final int getChangedCt() {
+        return changedCt;
+    }
+
+    final void setChangedCt(int changedCt) {
+        this.changedCt = changedCt;
+    }
+
+    /**
+     * Gets the number of items that were carried over, unchanged, from the previous publish.
+     *
+     * @return The number of unchanged items.
+     */
+    public final int getUnchangedCt() {
+        return unchangedCt;
+    }
+
+    final void setUnchangedCt(int unchangedCt) {
+        this.unchangedCt = unchangedCt;
+    }
+
+    /**
+     * Gets the number of items from the previous publish that are no longer present.
+     *
+     * @return The number of removed items.
+     */
+    public final int getRemovedCt() {
+        return removedCt;
+    }
+
+    final void setRemovedCt(int removedCt) {
+        this.removedCt = removedCt;
+    }
+
+    /**
+     * Gets whether the feed header (title, description, links, etc.) differs from the previous publish.
+     *
+     * @return True if the header changed, or if there was no previous publish.
+     */
+    public final boolean isHeaderChanged() {
+        return headerChanged;
+    }
+
+    final void setHeaderChanged(boolean headerChanged) {
+        this.headerChanged = headerChanged;
+    }
+
+    /**
+     * Gets the SHA-256 digest (hex-encoded) of the rendered feed, excluding its publication date.
+     *
+     * @return The content digest, or null if it could not be computed.
+     */
+    public final String getDigest() {
+        return digest;
+    }
+
+    final void setDigest(String digest) {
+        this.digest = digest;
+    }
+
+    /**
+     * Gets the strong ETag of the rendered feed, derived from its content digest.
+     *
+     * @return The quoted ETag, or null if the digest could not be computed.
+     */
+    public final String getETag() {
+        return digest == null ? null : '"' + digest + '"';
+    }
+
+    /**
+     * Gets whether the store write was skipped because the feed was identical to the stored feed.
+     *
+     * @return True if the store write was skipped.
+     */
+    public final boolean isStoreSkipped() {
+        return storeSkipped;
+    }
+
+    final void setStoreSkipped(boolean storeSkipped) {
+        this.storeSkipped = storeSkipped;
+    }
+
+    /**
+     * Gets the number of posts that did not fit in the feed (per the maximum number of items per feed), and were rolled
+     * into archive pages, or dropped if archiving is disabled.
+     *
+     * @return The number of archived posts.
+     */
+    public final int getArchivedCt() {
+        return archivedCt;
+    }
+
+    final void setArchivedCt(int archivedCt) {
+        this.archivedCt = archivedCt;
+    }
+
+    /**
+     * Gets the number of RFC 5005 archive pages of the feed.
+     *
+     * @return The number of archive pages.
+     */
+    public final int getArchivePageCt() {
+        return archivePageCt;
+    }
+
+    final void setArchivePageCt(int archivePageCt) {
+        this.archivePageCt = archivePageCt;
+    }
+
+    /**
+     * Gets the number of duplicate posts (posts with the same hash as another post of the publish) that were removed
+     * before the feed was built.
+     *
+     * @return The number of duplicate posts.
+     */
+    public final int getDuplicateCt() {
+        return duplicateCt;
+    }
+
+    final void setDuplicateCt(int duplicateCt) {
+        this.duplicateCt = duplicateCt;
+    }
+
+    /**
+     * Gets the hashes of the posts whose items were cut down to a plain-text excerpt to keep the feed within its byte
+     * budget.
+     *
+     * @return The hashes of the excerpted posts, in feed order.
+     */
+    public final List<String> getExcerptedPostHashes() {
+        return excerptedPostHashes;
+    }
+
+    final void setExcerptedPostHashes(List<String> excerptedPostHashes) {
+        this.excerptedPostHashes = excerptedPostHashes;
+    }
+
+    /**
+     * Gets the hashes of the posts whose items were left out of the feed to keep it within its byte budget.
+     *
+     * @return The hashes of the dropped posts, in feed order.
+     */
+    public final List<String> getDroppedPostHashes() {
+        return droppedPostHashes;
+    }
+
+    final void setDroppedPostHashes(List<String> droppedPostHashes) {
+        this.droppedPostHashes = droppedPostHashes;
+    }
+
+    @Override
+    public final String toString() {
+        return "PublishReport{" +
+                "addedCt=" + addedCt +
+                ", changedCt=" + changedCt +
+                ", unchangedCt=" + unchangedCt +
+                ", removedCt=" + removedCt +
+                ", headerChanged=" + headerChanged +
+                ", digest='" + digest + '\'' +
+                ", storeSkipped=" + storeSkipped +
+                ", archivedCt=" + archivedCt +
+                ", archivePageCt=" + archivePageCt +
+                ", duplicateCt=" + duplicateCt +
+                ", excerptedPostHashes=" + excerptedPostHashes +
+                ", droppedPostHashes=" + droppedPostHashes +
+                '}';
+    }
+}
@@ -0,0 +1,194 @@
+package com.lostsidewalk.buffy.rss;
+
+import io.micrometer.core.instrument.*;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.apache.commons.collections4.CollectionUtils.isNotEmpty;
+
+/**
+ * Micrometer instrumentation for the RSS/ATOM publisher.  Records the duration of each phase of publishing and
+ * previewing (post normalization, queue lookup, config parse, build, serialization, store, and archive), tagged by
+ * operation and format; the item count and rendered size of each feed; and the errors reported in publication results.
+ */
+@Slf4j
+public class PublisherMetrics {
+
+    static final String PHASE_TIMER = "rss.publisher.phase";
+
+    static final String ITEM_COUNT_SUMMARY = "rss.publisher.items";
+
+    static final String RENDERED_BYTES_SUMMARY = "rss.publisher.rendered.bytes";
+
+    static final String ERROR_COUNTER = "rss.publisher.errors";
+
+    static final String ASYNC_IN_FLIGHT_GAUGE = "rss.publisher.async.inflight";
+
+    static final String ASYNC_REJECTED_COUNTER = "rss.publisher.async.rejected";
+
+    static final String COALESCED_COUNTER = "rss.publisher.coalesced";
+
+    static final String DUPLICATE_COUNTER = "rss.publisher.duplicates";
+
+    static final String OPERATION_PUBLISH = "publish";
+
+    static final String OPERATION_PREVIEW = "preview";
+
+    static final String PHASE_NORMALIZE = "normalize";
+
+    static final String PHASE_LOOKUP = "lookup";
+
+    static final String PHASE_CONFIG = "config";
+
+    static final String PHASE_BUILD = "build";
+
+    static final String PHASE_SERIALIZE = "serialize";
+
+    static final String PHASE_STORE = "store";
+
+    static final String PHASE_ARCHIVE = "archive";
+
+    /**
+     * Format tag value for phases that are shared by all formats (e.g., post normalization).
+     */
+    static final String ALL_FORMATS = "ALL";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Timer> phaseTimers = new ConcurrentHashMap<>(32);
+
+    private final Map<String, DistributionSummary> itemCountSummaries = new ConcurrentHashMap<>(8);
+
+    private final Map<String, DistributionSummary> renderedBytesSummaries = new ConcurrentHashMap<>(8);
+
+    private final Map<String, Counter> errorCounters = new ConcurrentHashMap<>(16);
+
+    private final Map<String, Counter> duplicateCounters = new ConcurrentHashMap<>(2);
+
+    PublisherMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Records the duration of a publish or preview phase.
+     *
+     * @param operation    the operation (publish or preview)
+     * @param phase        the phase (normalize, lookup, config, build, serialize, store, or archive)
+     * @param format       the publisher Id of the format (RSS_20 or ATOM_10), or ALL for shared phases
+     * @param elapsedNanos the duration of the phase, in nanoseconds
+     */
+    final void recordPhase(String operation, String phase, String format, long elapsedNanos) {
+        phaseTimers.computeIfAbsent(operation + '.' + phase + '.' + format, k -> Timer.builder(PHASE_TIMER)
+                        .description("Duration of each phase of feed publishing and previewing")
+                        .tags("operation", operation, "phase", phase, "format", format)
+                        .register(meterRegistry))
+                .record(elapsedNanos, NANOSECONDS);
+    }
+
+    /**
+     * Records the number of items in a built feed.
+     */
+    final void recordItemCount(String operation, String format, int itemCt) {
+        itemCountSummaries.computeIfAbsent(operation + '.' + format, k -> DistributionSummary.builder(ITEM_COUNT_SUMMARY)
+                        .description("Number of items per feed")
+                        .baseUnit("items")
+                        .tags("operation", operation, "format", format)
+                        .register(meterRegistry))
+                .record(itemCt);
+    }
+
+    /**
+     * Records the size of a rendered feed.
+     */
+    final void recordRenderedBytes(String operation, String format, long byteCt) {
+        renderedBytesSummaries.computeIfAbsent(operation + '.' + format, k -> DistributionSummary.builder(RENDERED_BYTES_SUMMARY)
+                        .description("Size of each rendered feed")
+                        .baseUnit(BaseUnits.BYTES)
+                        .tags("operation", operation, "format", format)
+                        .register(meterRegistry))
+                .record(byteCt);
+    }
+
+    /**
+     * Counts the errors reported in a publication result, by exception type.
+     */
+    final void recordErrors(String format, List<Throwable> errors) {
+        if (isNotEmpty(errors)) {
+            for (Throwable error : errors) {
+                String exception = error == null ? "none" : error.getClass().getSimpleName();
+                errorCounters.computeIfAbsent(format + '.' + exception, k -> Counter.builder(ERROR_COUNTER)
+                                .description("Errors reported in publication results")
+                                .tags("format", format, "exception", exception)
+                                .register(meterRegistry))
+                        .increment();
+            }
+        }
+    }
+
+    /**
+     * Registers a gauge of the number of asynchronous publishes that are queued or running.
+     *
+     * @param maxInFlight the maximum number of in-flight asynchronous publishes
+     * @param permits     the semaphore whose permits bound the in-flight asynchronous publishes
+     */
+    final void registerAsyncInFlight(int maxInFlight, Semaphore permits) {
+        Gauge.builder(ASYNC_IN_FLIGHT_GAUGE, permits, p -> maxInFlight - p.availablePermits())
+                .description("Asynchronous publishes that are queued or running")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Counts an asynchronous publish that was rejected because too many publishes were in flight.
+     */
+    final void recordAsyncRejected() {
+        Counter.builder(ASYNC_REJECTED_COUNTER)
+                .description("Asynchronous publishes rejected because too many publishes were in flight")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Counts the duplicate posts removed before a feed was built.
+     */
+    final void recordDuplicates(String operation, int duplicateCt) {
+        if (duplicateCt > 0) {
+            duplicateCounters.computeIfAbsent(operation, k -> Counter.builder(DUPLICATE_COUNTER)
+                            .description("Duplicate posts removed before feeds were built")
+                            .tags("operation", operation)
+                            .register(meterRegistry))
+                    .increment(duplicateCt);
+        }
+    }
+
+    /**
+     * Counts a publish that was coalesced into a newer publish of the same transport identity.
+     */
+    final void recordCoalesced() {
+        Counter.builder(COALESCED_COUNTER)
+                .description("Publishes coalesced into a newer publish of the same transport identity")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Gets the registry to which publisher metrics are published.
+     *
+     * @return the meter registry
+     */
+    public final MeterRegistry getMeterRegistry() {
+        return meterRegistry;
+    }
+
+    @Override
+    public final String toString() {
+        return "PublisherMetrics{" +
+                "meterRegistry=" + meterRegistry +
+                '}';
+    }
+}
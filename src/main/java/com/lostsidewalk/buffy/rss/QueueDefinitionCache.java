@@ -0,0 +1,147 @@
+package com.lostsidewalk.buffy.rss;
+
+import com.lostsidewalk.buffy.DataAccessException;
+import com.lostsidewalk.buffy.queue.QueueDefinition;
+import com.lostsidewalk.buffy.queue.QueueDefinitionDao;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.lang.Math.max;
+import static java.lang.System.nanoTime;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Per-user cache of queue definitions, used to resolve the queues of the posts being previewed.  A preview costs at
+ * most a single DAO call, however many queues it spans; queue definitions are then served from the cache until they
+ * expire, or until the user's queue definitions are invalidated.  The cache is bounded by the total
+ * number of queue definitions it holds.
+ */
+@Slf4j
+final class QueueDefinitionCache {
+
+    private final QueueDefinitionDao queueDefinitionDao;
+
+    private final long ttlNanos;
+
+    private final WeightedLruCache<String, UserQueueDefinitions> userQueueDefinitions;
+
+    QueueDefinitionCache(QueueDefinitionDao queueDefinitionDao, long ttlMillis, long maxEntries) {
+        this.queueDefinitionDao = queueDefinitionDao;
+        this.ttlNanos = MILLISECONDS.toNanos(ttlMillis);
+        this.userQueueDefinitions = new WeightedLruCache<>(maxEntries, UserQueueDefinitions::weight);
+    }
+
+    /**
+     * Finds the given queue definitions of the given user, keyed by queue Id.  Queues that do not exist (or that do not
+     * belong to the user) are absent from the result.  Queue definitions that are not cached are loaded with a single
+     * DAO call: by queue Id, if only one is missing, and otherwise all of the user's queue definitions at once (all of
+     * which are then cached).
+     */
+    final Map<Long, QueueDefinition> findByQueueIds(String username, Collection<Long> queueIds) throws DataAccessException {
+        UserQueueDefinitions cached = ttlNanos > 0L ? userQueueDefinitions.get(username) : null;
+        long now = nanoTime();
+        Map<Long, QueueDefinition> queueDefinitions = new HashMap<>(queueIds.size());
+        List<Long> missingQueueIds = new ArrayList<>(0);
+        for (Long queueId : queueIds) {
+            CachedQueueDefinition cachedQueueDefinition = cached == null ? null : cached.get(queueId);
+            if (cachedQueueDefinition == null || cachedQueueDefinition.isExpired(now, ttlNanos)) {
+                missingQueueIds.add(queueId);
+            } else {
+                queueDefinitions.put(queueId, cachedQueueDefinition.queueDefinition());
+            }
+        }
+        if (missingQueueIds.isEmpty()) {
+            return queueDefinitions;
+        }
+        Map<Long, CachedQueueDefinition> loaded = new HashMap<>(max(16, missingQueueIds.size() * 4 / 3 + 1));
+        for (QueueDefinition queueDefinition : load(username, missingQueueIds)) {
+            if (queueDefinition != null && queueDefinition.getId() != null) {
+                loaded.put(queueDefinition.getId(), new CachedQueueDefinition(queueDefinition, now));
+            }
+        }
+        for (Long queueId : missingQueueIds) {
+            CachedQueueDefinition loadedQueueDefinition = loaded.get(queueId);
+            if (loadedQueueDefinition != null) {
+                queueDefinitions.put(queueId, loadedQueueDefinition.queueDefinition());
+            }
+        }
+        if (!loaded.isEmpty() && ttlNanos > 0L) {
+            log.debug("Loaded {} queue definitions for username={}", loaded.size(), username);
+            userQueueDefinitions.put(username, cached == null ? new UserQueueDefinitions(loaded) : cached.with(loaded));
+        }
+        return queueDefinitions;
+    }
+
+    private List<QueueDefinition> load(String username, List<Long> queueIds) throws DataAccessException {
+        if (queueIds.size() == 1) {
+            QueueDefinition queueDefinition = queueDefinitionDao.findByQueueId(username, queueIds.get(0));
+            return queueDefinition == null ? emptyList() : singletonList(queueDefinition);
+        }
+        List<QueueDefinition> queueDefinitions = queueDefinitionDao.findByUser(username);
+        return queueDefinitions == null ? emptyList() : queueDefinitions;
+    }
+
+    /**
+     * Replaces the cached copy of the given queue definition, if its owner's queue definitions are cached.
+     */
+    final void update(QueueDefinition queueDefinition) {
+        String username = queueDefinition.getUsername();
+        Long queueId = queueDefinition.getId();
+        if (username != null && queueId != null) {
+            UserQueueDefinitions cached = userQueueDefinitions.get(username);
+            if (cached != null) {
+                userQueueDefinitions.put(username, cached.with(Map.of(queueId, new CachedQueueDefinition(queueDefinition, nanoTime()))));
+            }
+        }
+    }
+
+    /**
+     * Discards the cached queue definitions of the given user.
+     */
+    final void invalidate(String username) {
+        userQueueDefinitions.remove(username);
+    }
+
+    //
+    //
+    //
+
+    private record CachedQueueDefinition(QueueDefinition queueDefinition, long loadedAt) {
+
+        private boolean isExpired(long now, long ttlNanos) {
+            return now - loadedAt >= ttlNanos;
+        }
+    }
+
+    private record UserQueueDefinitions(Map<Long, CachedQueueDefinition> byQueueId) {
+
+        private CachedQueueDefinition get(Long queueId) {
+            return byQueueId.get(queueId);
+        }
+
+        private UserQueueDefinitions with(Map<Long, CachedQueueDefinition> queueDefinitions) {
+            Map<Long, CachedQueueDefinition> updated = new HashMap<>(byQueueId);
+            updated.putAll(queueDefinitions);
+            return new UserQueueDefinitions(updated);
+        }
+
+        private long weight() {
+            return max(1, byQueueId.size());
+        }
+    }
+
+    @Override
+    public final String toString() {
+        return "QueueDefinitionCache{" +
+                "ttlNanos=" + ttlNanos +
+                ", userQueueDefinitions=" + userQueueDefinitions +
+                '}';
+    }
+}
@@ -0,0 +1,354 @@
+package com.lostsidewalk.buffy.rss;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.lostsidewalk.buffy.queue.QueueDefinition;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+
+import static java.util.Arrays.stream;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.unmodifiableList;
+import static java.util.stream.Collectors.toList;
+import static org.apache.commons.lang3.StringUtils.isBlank;
+import static org.apache.commons.lang3.StringUtils.split;
+
+/**
+ * Typed, immutable view of the export configuration attached to a queue definition.  The JSON source is parsed once
+ * and cached by queue Id, so that repeated publishes and previews of an unchanged queue do not re-parse it.  A cached
+ * config is reused without serializing the source again as long as the queue definition carries the same export
+ * config object it was parsed from; otherwise, the serialized source is compared.  Publishes look the config up once,
+ * and pass it along with the queue URLs in the {@link QueueRenderContext}.
+ */
+@Slf4j
+final class QueueExportConfig {
+
+    private static final Gson GSON = new Gson();
+
+    private static final long MAX_CACHED_EXPORT_CONFIGS = 10_000L;
+
+    private static final WeightedLruCache<Long, CachedExportConfig> EXPORT_CONFIG_CACHE =
+            new WeightedLruCache<>(MAX_CACHED_EXPORT_CONFIGS, cached -> 1L);
+
+    private static final QueueExportConfig EMPTY = new QueueExportConfig(null, null, null);
+
+    private final RssConfig rssConfig;
+
+    private final AtomConfig atomConfig;
+
+    private final Long maxFeedBytes;
+
+    private QueueExportConfig(RssConfig rssConfig, AtomConfig atomConfig, Long maxFeedBytes) {
+        this.rssConfig = rssConfig;
+        this.atomConfig = atomConfig;
+        this.maxFeedBytes = maxFeedBytes;
+    }
+
+    static QueueExportConfig of(QueueDefinition queueDefinition) {
+        Object exportConfig = queueDefinition.getExportConfig();
+        if (exportConfig == null) {
+            return EMPTY;
+        }
+        Long queueId = queueDefinition.getId();
+        if (queueId == null) {
+            return parse(exportConfig.toString());
+        }
+        CachedExportConfig cached = EXPORT_CONFIG_CACHE.get(queueId);
+        if (cached != null && cached.sourceObject == exportConfig) {
+            return cached.exportConfig;
+        }
+        String source = exportConfig.toString();
+        QueueExportConfig parsed = cached != null && cached.source.equals(source) ? cached.exportConfig : parse(source);
+        EXPORT_CONFIG_CACHE.put(queueId, new CachedExportConfig(exportConfig, source, parsed));
+        return parsed;
+    }
+
+    private static QueueExportConfig parse(String source) {
+        JsonObject exportConfigObj = GSON.fromJson(source, JsonObject.class);
+        RssConfig rssConfig = null;
+        AtomConfig atomConfig = null;
+        Long maxFeedBytes = null;
+        if (exportConfigObj != null) {
+            if (exportConfigObj.has("rssConfig")) {
+                rssConfig = new RssConfig(exportConfigObj.get("rssConfig").getAsJsonObject());
+            }
+            if (exportConfigObj.has("atomConfig")) {
+                atomConfig = new AtomConfig(exportConfigObj.get("atomConfig").getAsJsonObject());
+            }
+            maxFeedBytes = getLongProperty(exportConfigObj, "maxFeedBytes");
+        }
+        return new QueueExportConfig(rssConfig, atomConfig, maxFeedBytes);
+    }
+
+    final RssConfig getRssConfig() {
+        return rssConfig;
+    }
+
+    final AtomConfig getAtomConfig() {
+        return atomConfig;
+    }
+
+    /**
+     * Gets the per-queue limit on the size of rendered feeds, in bytes, overriding the publisher-wide limit; null if
+     * the queue does not set one.
+     */
+    final Long getMaxFeedBytes() {
+        return maxFeedBytes;
+    }
+
+    //
+    //
+    //
+
+    private static String getStringProperty(JsonObject obj, String propertyName) {
+        if (obj != null) {
+            if (obj.has(propertyName)) return obj.get(propertyName).getAsString();
+        }
+        return null;
+    }
+
+    private static Integer getIntegerProperty(JsonObject obj, @SuppressWarnings("SameParameterValue") String propertyName) {
+        if (obj != null) {
+            if (obj.has(propertyName)) return obj.get(propertyName).getAsNumber().intValue();
+        }
+        return null;
+    }
+
+    @SuppressWarnings("SameParameterValue")
+    private static Long getLongProperty(JsonObject obj, String propertyName) {
+        if (obj != null) {
+            if (obj.has(propertyName)) return obj.get(propertyName).getAsNumber().longValue();
+        }
+        return null;
+    }
+
+    //
+    // RSS
+    //
+
+    static final class RssConfig {
+
+        private final String managingEditor;
+        private final String webMaster;
+        private final String docs;
+        private final String cloudDomain;
+        private final String cloudPath;
+        private final String cloudProtocol;
+        private final String cloudRegisterProcedure;
+        private final Integer cloudPort;
+        private final String rating;
+        private final String textInputDescription;
+        private final String textInputLink;
+        private final String textInputTitle;
+        private final String textInputName;
+        private final List<Integer> skipHours;
+        private final List<String> skipDays;
+        private final String categoryValue;
+        private final String categoryDomain;
+
+        private RssConfig(JsonObject rssConfigObj) {
+            managingEditor = getStringProperty(rssConfigObj, "managingEditor");
+            webMaster = getStringProperty(rssConfigObj, "webMaster");
+            docs = getStringProperty(rssConfigObj, "docs");
+            cloudDomain = getStringProperty(rssConfigObj, "cloudDomain");
+            cloudPath = getStringProperty(rssConfigObj, "cloudPath");
+            cloudProtocol = getStringProperty(rssConfigObj, "cloudProtocol");
+            cloudRegisterProcedure = getStringProperty(rssConfigObj, "cloudRegisterProcedure");
+            cloudPort = getIntegerProperty(rssConfigObj, "cloudPort");
+            rating = getStringProperty(rssConfigObj, "rating");
+            textInputDescription = getStringProperty(rssConfigObj, "textInputDescription");
+            textInputLink = getStringProperty(rssConfigObj, "textInputLink");
+            textInputTitle = getStringProperty(rssConfigObj, "textInputTitle");
+            textInputName = getStringProperty(rssConfigObj, "textInputName");
+            skipHours = parseSkipHours(getStringProperty(rssConfigObj, "skipHours"));
+            skipDays = parseSkipDays(getStringProperty(rssConfigObj, "skipDays"));
+            categoryValue = getStringProperty(rssConfigObj, "categoryValue");
+            categoryDomain = getStringProperty(rssConfigObj, "categoryDomain");
+        }
+
+        private static List<Integer> parseSkipHours(String skipHoursStr) {
+            // 0..23
+            return isBlank(skipHoursStr) ?
+                    emptyList() :
+                    unmodifiableList(stream(split(skipHoursStr, ','))
+                            .map(Integer::parseInt)
+                            .collect(toList()));
+        }
+
+        private static List<String> parseSkipDays(String skipDaysStr) {
+            // Monday, Tuesday, Wednesday, Thursday, Friday, Saturday or Sunday
+            return isBlank(skipDaysStr) ?
+                    emptyList() :
+                    unmodifiableList(stream(split(skipDaysStr, ',')).collect(toList()));
+        }
+
+        final String getManagingEditor() {
+            return managingEditor;
+        }
+
+        final String getWebMaster() {
+            return webMaster;
+        }
+
+        final String getDocs() {
+            return docs;
+        }
+
+        final String getCloudDomain() {
+            return cloudDomain;
+        }
+
+        final String getCloudPath() {
+            return cloudPath;
+        }
+
+        final String getCloudProtocol() {
+            return cloudProtocol;
+        }
+
+        final String getCloudRegisterProcedure() {
+            return cloudRegisterProcedure;
+        }
+
+        final Integer getCloudPort() {
+            return cloudPort;
+        }
+
+        final String getRating() {
+            return rating;
+        }
+
+        final String getTextInputDescription() {
+            return textInputDescription;
+        }
+
+        final String getTextInputLink() {
+            return textInputLink;
+        }
+
+        final String getTextInputTitle() {
+            return textInputTitle;
+        }
+
+        final String getTextInputName() {
+            return textInputName;
+        }
+
+        final List<Integer> getSkipHours() {
+            return skipHours;
+        }
+
+        final List<String> getSkipDays() {
+            return skipDays;
+        }
+
+        final String getCategoryValue() {
+            return categoryValue;
+        }
+
+        final String getCategoryDomain() {
+            return categoryDomain;
+        }
+    }
+
+    //
+    // ATOM
+    //
+
+    static final class AtomConfig {
+
+        private final String authorName;
+        private final String authorEmail;
+        private final String authorUri;
+        private final String contributorName;
+        private final String contributorEmail;
+        private final String contributorUri;
+        private final String categoryTerm;
+        private final String categoryLabel;
+        private final String categoryScheme;
+
+        private AtomConfig(JsonObject atomConfigObj) {
+            authorName = getStringProperty(atomConfigObj, "authorName");
+            authorEmail = getStringProperty(atomConfigObj, "authorEmail");
+            authorUri = getStringProperty(atomConfigObj, "authorUri");
+            contributorName = getStringProperty(atomConfigObj, "contributorName");
+            contributorEmail = getStringProperty(atomConfigObj, "contributorEmail");
+            contributorUri = getStringProperty(atomConfigObj, "contributorUri");
+            categoryTerm = getStringProperty(atomConfigObj, "categoryTerm");
+            categoryLabel = getStringProperty(atomConfigObj, "categoryLabel");
+            categoryScheme = getStringProperty(atomConfigObj, "categoryScheme");
+        }
+
+        final String getAuthorName() {
+            return authorName;
+        }
+
+        final String getAuthorEmail() {
+            return authorEmail;
+        }
+
+        final String getAuthorUri() {
+            return authorUri;
+        }
+
+        final String getContributorName() {
+            return contributorName;
+        }
+
+        final String getContributorEmail() {
+            return contributorEmail;
+        }
+
+        final String getContributorUri() {
+            return contributorUri;
+        }
+
+        final String getCategoryTerm() {
+            return categoryTerm;
+        }
+
+        final String getCategoryLabel() {
+            return categoryLabel;
+        }
+
+        final String getCategoryScheme() {
+            return categoryScheme;
+        }
+    }
+
+    //
+    // cache
+    //
+
+    private static final class CachedExportConfig {
+
+        private final Object sourceObject;
+
+        private final String source;
+
+        private final QueueExportConfig exportConfig;
+
+        private CachedExportConfig(Object sourceObject, String source, QueueExportConfig exportConfig) {
+            this.sourceObject = sourceObject;
+            this.source = source;
+            this.exportConfig = exportConfig;
+        }
+
+        @Override
+        public String toString() {
+            return "CachedExportConfig{" +
+                    "source='" + source + '\'' +
+                    '}';
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "QueueExportConfig{" +
+                "rssConfig=" + rssConfig +
+                ", atomConfig=" + atomConfig +
+                ", maxFeedBytes=" + maxFeedBytes +
+                '}';
+    }
+}
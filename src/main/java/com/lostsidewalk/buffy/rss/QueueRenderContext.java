@@ -0,0 +1,142 @@
+package com.lostsidewalk.buffy.rss;
+
+import com.lostsidewalk.buffy.queue.QueueDefinition;
+import lombok.extern.slf4j.Slf4j;
+
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
+
+/**
+ * What the feed builders need to know about a single queue besides its definition: the URLs derived from the
+ * configured (precompiled) URL templates, and the parsed export config of the queue.  This is computed once per
+ * publish, and shared by the RSS and ATOM builders, the JSON Feed writer, the byte budget, and the publication results.
+ */
+@Slf4j
+final class QueueRenderContext {
+
+    private final String channelLinkUrl;
+
+    private final String channelUserIdentLinkUrl;
+
+    private final String channelUri;
+
+    private final String channelUserIdentUri;
+
+    private final String channelImageUrl;
+
+    private final String jsonFeedUrl;
+
+    private final String jsonFeedUserIdentUrl;
+
+    private final QueueExportConfig exportConfig;
+
+    private QueueRenderContext(String channelLinkUrl, String channelUserIdentLinkUrl, String channelUri, String channelUserIdentUri, String channelImageUrl,
+                      String jsonFeedUrl, String jsonFeedUserIdentUrl, QueueExportConfig exportConfig) {
+        this.channelLinkUrl = channelLinkUrl;
+        this.channelUserIdentLinkUrl = channelUserIdentLinkUrl;
+        this.channelUri = channelUri;
+        this.channelUserIdentUri = channelUserIdentUri;
+        this.channelImageUrl = channelImageUrl;
+        this.jsonFeedUrl = jsonFeedUrl;
+        this.jsonFeedUserIdentUrl = jsonFeedUserIdentUrl;
+        this.exportConfig = exportConfig;
+    }
+
+    static QueueRenderContext of(QueueDefinition queueDefinition, RSSPublisherConfigProps configProps) {
+        return of(queueDefinition, configProps, queueDefinition.getTransportIdent(), queueDefinition.getUsername() + "/" + queueDefinition.getIdent());
+    }
+
+    /**
+     * Derives the URLs of an RFC 5005 archive page of the queue, which is published at its own transport identifier.
+     */
+    static QueueRenderContext ofArchivePage(QueueDefinition queueDefinition, RSSPublisherConfigProps configProps, int page) {
+        String suffix = FeedArchiver.ARCHIVE_TRANSPORT_IDENT_SUFFIX + page;
+        return of(queueDefinition, configProps, queueDefinition.getTransportIdent() + suffix, queueDefinition.getUsername() + "/" + queueDefinition.getIdent() + suffix);
+    }
+
+    private static QueueRenderContext of(QueueDefinition queueDefinition, RSSPublisherConfigProps configProps, String transportIdent, String userIdent) {
+        UrlTemplate channelLinkTemplate = configProps.getCompiledChannelLinkTemplate();
+        UrlTemplate channelUriTemplate = configProps.getCompiledChannelUriTemplate();
+        UrlTemplate jsonFeedUrlTemplate = configProps.getCompiledChannelJsonFeedUrlTemplate();
+        String queueImgTransportIdent = queueDefinition.getQueueImgTransportIdent();
+        return new QueueRenderContext(
+                channelLinkTemplate.expand(transportIdent),
+                channelLinkTemplate.expand(userIdent),
+                channelUriTemplate.expand(transportIdent),
+                channelUriTemplate.expand(userIdent),
+                isNotBlank(queueImgTransportIdent) ? configProps.getCompiledChannelImageUrlTemplate().expand(queueImgTransportIdent) : null,
+                jsonFeedUrlTemplate == null ? null : jsonFeedUrlTemplate.expand(transportIdent),
+                jsonFeedUrlTemplate == null ? null : jsonFeedUrlTemplate.expand(userIdent),
+                QueueExportConfig.of(queueDefinition)
+        );
+    }
+
+    /**
+     * The RSS channel link, by transport identifier.
+     */
+    final String getChannelLinkUrl() {
+        return channelLinkUrl;
+    }
+
+    /**
+     * The RSS channel link, by username and queue identifier.
+     */
+    final String getChannelUserIdentLinkUrl() {
+        return channelUserIdentLinkUrl;
+    }
+
+    /**
+     * The ATOM feed URI (also the RSS channel URI), by transport identifier.
+     */
+    final String getChannelUri() {
+        return channelUri;
+    }
+
+    /**
+     * The ATOM feed URI, by username and queue identifier.
+     */
+    final String getChannelUserIdentUri() {
+        return channelUserIdentUri;
+    }
+
+    /**
+     * The channel image URL, or null if the queue has no image.
+     */
+    final String getChannelImageUrl() {
+        return channelImageUrl;
+    }
+
+    /**
+     * The JSON Feed URL, by transport identifier, or null if no JSON Feed URL template is configured.
+     */
+    final String getJsonFeedUrl() {
+        return jsonFeedUrl;
+    }
+
+    /**
+     * The JSON Feed URL, by username and queue identifier, or null if no JSON Feed URL template is configured.
+     */
+    final String getJsonFeedUserIdentUrl() {
+        return jsonFeedUserIdentUrl;
+    }
+
+    /**
+     * The parsed export config of the queue.
+     */
+    final QueueExportConfig getExportConfig() {
+        return exportConfig;
+    }
+
+    @Override
+    public final String toString() {
+        return "QueueRenderContext{" +
+                "channelLinkUrl='" + channelLinkUrl + '\'' +
+                ", channelUserIdentLinkUrl='" + channelUserIdentLinkUrl + '\'' +
+                ", channelUri='" + channelUri + '\'' +
+                ", channelUserIdentUri='" + channelUserIdentUri + '\'' +
+                ", channelImageUrl='" + channelImageUrl + '\'' +
+                ", jsonFeedUrl='" + jsonFeedUrl + '\'' +
+                ", jsonFeedUserIdentUrl='" + jsonFeedUserIdentUrl + '\'' +
+                ", exportConfig=" + exportConfig +
+                '}';
+    }
+}
@@ -1,29 +1,24 @@
 package com.lostsidewalk.buffy.rss;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonObject;
-import com.lostsidewalk.buffy.post.StagingPost;
 import com.lostsidewalk.buffy.queue.QueueDefinition;
+import com.lostsidewalk.buffy.rss.QueueExportConfig.RssConfig;
 import com.rometools.rome.feed.rss.*;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.*;
+import java.util.function.Function;
 
-import static java.util.Arrays.stream;
-import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
-import static java.util.Comparator.comparing;
-import static java.util.stream.Collectors.toList;
+import static java.util.Comparator.naturalOrder;
 import static org.apache.commons.collections4.CollectionUtils.isNotEmpty;
 import static org.apache.commons.collections4.CollectionUtils.size;
-import static org.apache.commons.lang3.StringUtils.*;
+import static org.apache.commons.lang3.StringUtils.defaultString;
+import static org.apache.commons.lang3.StringUtils.isNotBlank;
 
 
 @Slf4j
 class RSSChannelBuilder {
 
-    private static final Gson GSON = new Gson();
-
     private final RSSPublisherConfigProps configProps;
 
     RSSChannelBuilder(RSSPublisherConfigProps configProps) {
@@ -34,43 +29,56 @@ class RSSChannelBuilder {
     // FEED DEFINITION
     //
 
-    final Channel buildChannel(QueueDefinition queueDefinition, Collection<? extends StagingPost> stagingPosts, Date pubDate) {
+    final Channel buildChannel(QueueDefinition queueDefinition, List<NormalizedPost> posts, Date pubDate) {
+        return buildChannel(queueDefinition, QueueRenderContext.of(queueDefinition, configProps), posts, pubDate, RSSChannelItemBuilder::toItem);
+    }
+
+    final Channel buildChannel(QueueDefinition queueDefinition, QueueRenderContext renderContext, List<NormalizedPost> posts, Date pubDate, Function<? super NormalizedPost, Item> itemMapper) {
+        Channel channel = buildChannelHeader(queueDefinition, renderContext, posts, pubDate);
+        // items
+        channel.setItems(getItems(posts, itemMapper));
+
+        return channel;
+    }
+
+    /**
+     * Builds the channel without its items, so that they can be added as they are fitted into a byte budget.  The last
+     * build date is still taken from the given posts.
+     */
+    final Channel buildChannelHeader(QueueDefinition queueDefinition, QueueRenderContext renderContext, List<NormalizedPost> posts, Date pubDate) {
         Channel channel = new Channel();
         // feed type
         channel.setFeedType(configProps.getRssFeedType());
         // URI
-        channel.setUri(String.format(configProps.getChannelUriTemplate(), queueDefinition.getTransportIdent()));
+        channel.setUri(renderContext.getChannelUri());
         // last build date
-        Date lastBuildDate = stagingPosts.stream()
-                .filter(stagingPost -> stagingPost.getLastUpdatedTimestamp() != null)
-                .max(comparing(StagingPost::getLastUpdatedTimestamp))
-                .map(StagingPost::getLastUpdatedTimestamp)
+        Date lastBuildDate = posts.stream()
+                .map(NormalizedPost::getLastUpdatedTimestamp)
+                .filter(Objects::nonNull)
+                .max(naturalOrder())
                 .orElse(null);
         channel.setLastBuildDate(lastBuildDate);
         // pub date
         channel.setPubDate(pubDate);
         // required
-        setChannelRequiredProperties(channel, queueDefinition);
+        setChannelRequiredProperties(channel, queueDefinition, renderContext);
         // optional
-        JsonObject rssConfigObj = getRssConfigObj(queueDefinition);
-        setChannelOptionalProperties(channel, rssConfigObj);
+        setChannelOptionalProperties(channel, renderContext.getExportConfig().getRssConfig());
         // channel image
-        Image channelImage = getChannelImage(queueDefinition);
+        Image channelImage = getChannelImage(queueDefinition, renderContext);
         if (channelImage != null) {
             channel.setImage(channelImage);
         }
-        // items
-        channel.setItems(getItems(stagingPosts));
 
         return channel;
     }
 
-    private void setChannelRequiredProperties(Channel channel, QueueDefinition queueDefinition) {
+    private void setChannelRequiredProperties(Channel channel, QueueDefinition queueDefinition, QueueRenderContext renderContext) {
         // queue title defaults to queue ident if not specified
         String queueTitle = defaultString(queueDefinition.getTitle(), queueDefinition.getIdent());
         channel.setTitle(queueTitle);
         // TODO: should be 'the URL of the HTML website corresponding to the channel'
-        channel.setLink(String.format(configProps.getChannelLinkTemplate(), queueDefinition.getTransportIdent()));
+        channel.setLink(renderContext.getChannelLinkUrl());
         // queue description defaults to queue title if not specified
         String queueDescription = defaultString(queueDefinition.getDescription(), queueTitle);
         channel.setDescription(queueDescription);
@@ -80,17 +88,17 @@ class RSSChannelBuilder {
         channel.setGenerator(defaultString(queueDefinition.getGenerator(), configProps.getDefaultGeneratorValue()));
     }
 
-    private static void setChannelOptionalProperties(Channel channel, JsonObject rssConfigObj) {
-        if (rssConfigObj != null) {
-            channel.setManagingEditor(getManagingEditor(rssConfigObj));
-            channel.setWebMaster(getWebMaster(rssConfigObj));
-            channel.setDocs(getDocs(rssConfigObj));
-            channel.setCloud(getCloud(rssConfigObj));
-            channel.setRating(getRating(rssConfigObj));
-            channel.setTextInput(getTextInput(rssConfigObj));
-            channel.setSkipHours(getSkipHours(rssConfigObj));
-            channel.setSkipDays(getSkipDays(rssConfigObj));
-            channel.setCategories(getCategories(rssConfigObj));
+    private static void setChannelOptionalProperties(Channel channel, RssConfig rssConfig) {
+        if (rssConfig != null) {
+            channel.setManagingEditor(rssConfig.getManagingEditor());
+            channel.setWebMaster(rssConfig.getWebMaster());
+            channel.setDocs(rssConfig.getDocs());
+            channel.setCloud(getCloud(rssConfig));
+            channel.setRating(rssConfig.getRating());
+            channel.setTextInput(getTextInput(rssConfig));
+            channel.setSkipHours(new ArrayList<>(rssConfig.getSkipHours()));
+            channel.setSkipDays(new ArrayList<>(rssConfig.getSkipDays()));
+            channel.setCategories(getCategories(rssConfig));
         }
     }
 
@@ -98,23 +106,13 @@ class RSSChannelBuilder {
     //
     //
 
-    private static JsonObject getRssConfigObj(QueueDefinition queueDefinition) {
-        JsonObject exportConfigObj = Optional.ofNullable(queueDefinition.getExportConfig())
-                .map(Object::toString)
-                .map(s -> GSON.fromJson(s, JsonObject.class))
-                .orElse(null);
-        return (exportConfigObj != null && exportConfigObj.has("rssConfig")) ?
-                exportConfigObj.get("rssConfig").getAsJsonObject() :
-                null;
-    }
-
-    private Image getChannelImage(QueueDefinition queueDefinition) {
+    private Image getChannelImage(QueueDefinition queueDefinition, QueueRenderContext renderContext) {
         Image image = null;
-        String queueImgTransport = queueDefinition.getQueueImgTransportIdent();
-        if (isNotBlank(queueImgTransport)) {
+        String channelImageUrl = renderContext.getChannelImageUrl();
+        if (channelImageUrl != null) {
             image = new Image();
-            image.setUrl(String.format(configProps.getChannelImageUrlTemplate(), queueDefinition.getQueueImgTransportIdent())); // URL of the image
-            image.setLink(String.format(configProps.getChannelLinkTemplate(), queueDefinition.getTransportIdent())); // URL of the channel
+            image.setUrl(channelImageUrl); // URL of the image
+            image.setLink(renderContext.getChannelLinkUrl()); // URL of the channel
             image.setTitle(defaultString(queueDefinition.getTitle(), queueDefinition.getIdent()));
             image.setDescription(queueDefinition.getDescription());
             image.setHeight(configProps.getChannelImageHeight()); // height of the thumbnail we serve
@@ -127,62 +125,29 @@ class RSSChannelBuilder {
     //
     //
 
-    private static String getStringProperty(JsonObject obj, String propertyName) {
-        if (obj != null) {
-            if (obj.has(propertyName)) return obj.get(propertyName).getAsString();
-        }
-        return null;
-    }
-
-    private static Integer getIntegerProperty(JsonObject obj, @SuppressWarnings("SameParameterValue") String propertyName) {
-        if (obj != null) {
-            if (obj.has(propertyName)) return obj.get(propertyName).getAsNumber().intValue();
-        }
-        return null;
-    }
-
-    private static String getManagingEditor(JsonObject rssConfigObj) {
-        return getStringProperty(rssConfigObj, "managingEditor");
-    }
-
-    private static String getWebMaster(JsonObject rssConfigObj) {
-        return getStringProperty(rssConfigObj, "webMaster");
-    }
-
-    private static String getDocs(JsonObject rssConfigObj) {
-        return getStringProperty(rssConfigObj, "docs");
-    }
-
-    private static Cloud getCloud(JsonObject rssConfigObj) {
-        String cloudPath = getStringProperty(rssConfigObj, "cloudPath");
+    private static Cloud getCloud(RssConfig rssConfig) {
+        String cloudPath = rssConfig.getCloudPath();
 
         if (isNotBlank(cloudPath)) {
-            String cloudDomain = getStringProperty(rssConfigObj, "cloudDomain");
-            String cloudProtocol = getStringProperty(rssConfigObj, "cloudProtocol");
-            String cloudRegisterProcedure = getStringProperty(rssConfigObj, "cloudRegisterProcedure");
-            Integer cloudPort = getIntegerProperty(rssConfigObj, "cloudPort");
+            Integer cloudPort = rssConfig.getCloudPort();
 
             Cloud cloud = new Cloud();
-            cloud.setDomain(cloudDomain); // rpc.sys.com
+            cloud.setDomain(rssConfig.getCloudDomain()); // rpc.sys.com
             cloud.setPath(cloudPath); // /RPC2
             cloud.setPort(cloudPort == null ? 80 : cloudPort); // 80
-            cloud.setProtocol(cloudProtocol); // xml-rpc
-            cloud.setRegisterProcedure(cloudRegisterProcedure); // myCloud.rssPleaseNotify
+            cloud.setProtocol(rssConfig.getCloudProtocol()); // xml-rpc
+            cloud.setRegisterProcedure(rssConfig.getCloudRegisterProcedure()); // myCloud.rssPleaseNotify
             return cloud;
         }
 
         return null;
     }
 
-    private static String getRating(JsonObject rssConfigObj) {
-        return getStringProperty(rssConfigObj, "rating");
-    }
-
-    private static TextInput getTextInput(JsonObject rssConfigObj) {
-        String textInputDescription = getStringProperty(rssConfigObj, "textInputDescription");
-        String textInputLink = getStringProperty(rssConfigObj, "textInputLink");
-        String textInputTitle = getStringProperty(rssConfigObj, "textInputTitle");
-        String textInputName = getStringProperty(rssConfigObj, "textInputName");
+    private static TextInput getTextInput(RssConfig rssConfig) {
+        String textInputDescription = rssConfig.getTextInputDescription();
+        String textInputLink = rssConfig.getTextInputLink();
+        String textInputTitle = rssConfig.getTextInputTitle();
+        String textInputName = rssConfig.getTextInputName();
         if (isNotBlank(textInputDescription) || isNotBlank(textInputLink) || isNotBlank(textInputTitle) || isNotBlank(textInputName)) {
             TextInput textInput = new TextInput();
             textInput.setDescription(textInputDescription);
@@ -195,29 +160,13 @@ class RSSChannelBuilder {
         return null;
     }
 
-    private static List<Integer> getSkipHours(JsonObject rssConfigObj) {
-        String skiprHoursStr = getStringProperty(rssConfigObj, "skipHours"); // 0..23
-        return isBlank(skiprHoursStr) ?
-                emptyList() :
-                stream(split(skiprHoursStr, ','))
-                        .map(Integer::parseInt)
-                        .collect(toList());
-    }
-
-    private static List<String> getSkipDays(JsonObject rssConfigObj) {
-        String skipDaysStr = getStringProperty(rssConfigObj, "skipDays"); // Monday, Tuesday, Wednesday, Thursday, Friday, Saturday or Sunday
-        return isBlank(skipDaysStr) ?
-                emptyList() :
-                stream(split(skipDaysStr, ',')).collect(toList());
-    }
-
-    private static List<Category> getCategories(JsonObject rssConfigObj) {
-        String categoryValue = getStringProperty(rssConfigObj, "categoryValue");
+    private static List<Category> getCategories(RssConfig rssConfig) {
+        String categoryValue = rssConfig.getCategoryValue();
 
         if (isNotBlank(categoryValue)) {
             Category category = new Category();
             category.setValue(categoryValue); // Grateful Dead
-            category.setDomain(getStringProperty(rssConfigObj, "categoryDomain")); // http://www.fool.com/cusips
+            category.setDomain(rssConfig.getCategoryDomain()); // http://www.fool.com/cusips
             return singletonList(category);
         }
 
@@ -228,12 +177,12 @@ class RSSChannelBuilder {
     //
     //
 
-    private static List<Item> getItems(Collection<? extends StagingPost> stagingPosts) {
+    private static List<Item> getItems(List<NormalizedPost> posts, Function<? super NormalizedPost, Item> itemMapper) {
         List<Item> items = null;
-        if (isNotEmpty(stagingPosts)) {
-            items = new ArrayList<>(size(stagingPosts));
-            for (StagingPost stagingPost : stagingPosts) {
-                Item item = RSSChannelItemBuilder.toItem(stagingPost);
+        if (isNotEmpty(posts)) {
+            items = new ArrayList<>(size(posts));
+            for (NormalizedPost post : posts) {
+                Item item = itemMapper.apply(post);
                 items.add(item);
             }
         }
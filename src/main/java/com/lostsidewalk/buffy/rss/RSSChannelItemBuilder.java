@@ -1,9 +1,8 @@
 package com.lostsidewalk.buffy.rss;
 
-import com.lostsidewalk.buffy.post.*;
-import com.rometools.modules.itunes.ITunes;
-import com.rometools.modules.mediarss.MediaEntryModule;
-import com.rometools.rome.feed.module.Module;
+import com.lostsidewalk.buffy.post.ContentObject;
+import com.lostsidewalk.buffy.post.PostEnclosure;
+import com.lostsidewalk.buffy.post.PostPerson;
 import com.rometools.rome.feed.rss.*;
 import lombok.extern.slf4j.Slf4j;
 
@@ -17,22 +16,22 @@ import static org.apache.commons.collections4.CollectionUtils.size;
 @Slf4j
 class RSSChannelItemBuilder {
 
-    static Item toItem(StagingPost stagingPost) {
+    static Item toItem(NormalizedPost post) {
         Item item = new Item();
-        setItemRequiredProperties(item, stagingPost);
-        setItemOptionalProperties(item, stagingPost);
+        setItemRequiredProperties(item, post);
+        setItemOptionalProperties(item, post);
         return item;
     }
 
-    private static void setItemRequiredProperties(Item item, StagingPost stagingPost) {
-        item.setTitle(getTitle(stagingPost));
-        item.setLink(stagingPost.getPostUrl());
-        item.setUri(stagingPost.getPostUrl());
-        item.setDescription(getDescription(stagingPost));
+    private static void setItemRequiredProperties(Item item, NormalizedPost post) {
+        item.setTitle(getTitle(post));
+        item.setLink(post.getPostUrl());
+        item.setUri(post.getPostUrl());
+        item.setDescription(getDescription(post));
     }
 
-    private static String getTitle(StagingPost stagingPost) {
-        ContentObject postTitle = stagingPost.getPostTitle();
+    private static String getTitle(NormalizedPost post) {
+        ContentObject postTitle = post.getPostTitle();
         if (postTitle != null) {
             return postTitle.getValue();
         }
@@ -40,8 +39,8 @@ class RSSChannelItemBuilder {
         return null;
     }
 
-    private static Description getDescription(StagingPost stagingPost) {
-        ContentObject postDesc = stagingPost.getPostDesc();
+    private static Description getDescription(NormalizedPost post) {
+        ContentObject postDesc = post.getPostDesc();
         if (postDesc != null) {
             Description descr = new Description();
             descr.setValue(postDesc.getValue());
@@ -53,20 +52,20 @@ class RSSChannelItemBuilder {
         return null;
     }
 
-    private static void setItemOptionalProperties(Item item, StagingPost stagingPost) {
-        item.setAuthor(getAuthor(stagingPost));
-        item.setCategories(getCategories(stagingPost));
-        item.setComments(stagingPost.getPostComment());
-        item.setEnclosures(getEnclosures(stagingPost));
-        item.setGuid(getGuid(stagingPost));
-        item.setPubDate(stagingPost.getPublishTimestamp());
-        item.setExpirationDate(stagingPost.getExpirationTimestamp());
-        item.setContent(getContent(stagingPost));
-        item.setModules(getModules(stagingPost));
+    private static void setItemOptionalProperties(Item item, NormalizedPost post) {
+        item.setAuthor(getAuthor(post));
+        item.setCategories(getCategories(post));
+        item.setComments(post.getPostComment());
+        item.setEnclosures(getEnclosures(post));
+        item.setGuid(getGuid(post));
+        item.setPubDate(post.getPublishTimestamp());
+        item.setExpirationDate(post.getExpirationTimestamp());
+        item.setContent(getContent(post));
+        item.setModules(post.copyModules());
     }
 
-    private static String getAuthor(StagingPost stagingPost) {
-        List<PostPerson> authors = stagingPost.getAuthors();
+    private static String getAuthor(NormalizedPost post) {
+        List<PostPerson> authors = post.getAuthors();
         if (isNotEmpty(authors)) {
             PostPerson author = authors.get(0);
             return author.getName();
@@ -75,23 +74,27 @@ class RSSChannelItemBuilder {
         return null;
     }
 
-    private static List<Category> getCategories(StagingPost stagingPost) {
-        List<String> postCategories = stagingPost.getPostCategories();
+    private static List<Category> getCategories(NormalizedPost post) {
+        List<String> postCategories = post.getPostCategories();
         List<Category> categories = null;
         if (isNotEmpty(postCategories)) {
             categories = new ArrayList<>(size(postCategories));
             for (String postCategory : postCategories) {
-                Category category = new Category();
-                category.setValue(postCategory);
-                categories.add(category);
+                categories.add(newCategory(postCategory));
             }
         }
 
         return categories;
     }
 
-    private static List<Enclosure> getEnclosures(StagingPost stagingPost) {
-        List<PostEnclosure> postEnclosures = stagingPost.getEnclosures();
+    private static Category newCategory(String postCategory) {
+        Category category = new Category();
+        category.setValue(postCategory);
+        return category;
+    }
+
+    private static List<Enclosure> getEnclosures(NormalizedPost post) {
+        List<PostEnclosure> postEnclosures = post.getEnclosures();
         List<Enclosure> enclosures = null;
         if (isNotEmpty(postEnclosures)) {
             enclosures = new ArrayList<>(size(postEnclosures));
@@ -110,16 +113,16 @@ class RSSChannelItemBuilder {
         return enclosures;
     }
 
-    private static Guid getGuid(StagingPost stagingPost) {
+    private static Guid getGuid(NormalizedPost post) {
         Guid guid = new Guid();
-        guid.setValue(stagingPost.getPostHash());
+        guid.setValue(post.getPostHash());
         guid.setPermaLink(false);
         return guid;
     }
 
-    private static Content getContent(StagingPost stagingPost) {
+    private static Content getContent(NormalizedPost post) {
         Content content = null;
-        List<ContentObject> postContents = stagingPost.getPostContents();
+        List<ContentObject> postContents = post.getPostContents();
         if (isNotEmpty(postContents)) {
             ContentObject contentObject = postContents.get(0);
             content = new Content();
@@ -129,22 +132,4 @@ class RSSChannelItemBuilder {
 
         return content;
     }
-
-    private static List<Module> getModules(StagingPost stagingPost) {
-        List<Module> modules = new ArrayList<>(2);
-        // post media
-        PostMedia postMedia = stagingPost.getPostMedia();
-        if (postMedia != null) {
-            MediaEntryModule mm = postMedia.toModule();
-            modules.add(mm);
-        }
-        PostITunes postITunes = stagingPost.getPostITunes();
-        // post iTunes
-        if (postITunes != null) {
-            ITunes im = postITunes.toEntryModule();
-            modules.add(im);
-        }
-
-        return modules.isEmpty() ? null : modules;
-    }
 }
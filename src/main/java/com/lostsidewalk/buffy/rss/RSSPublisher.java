@@ -10,22 +10,46 @@ import com.lostsidewalk.buffy.model.RenderedRSSFeed;
 import com.lostsidewalk.buffy.post.StagingPost;
 import com.lostsidewalk.buffy.queue.QueueDefinition;
 import com.lostsidewalk.buffy.queue.QueueDefinitionDao;
+import com.lostsidewalk.buffy.rss.FeedDigester.FeedDigest;
+import com.rometools.rome.feed.atom.Entry;
 import com.rometools.rome.feed.atom.Feed;
 import com.rometools.rome.feed.rss.Channel;
+import com.rometools.rome.feed.rss.Item;
 import com.rometools.rome.io.FeedException;
-import com.rometools.rome.io.WireFeedOutput;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import javax.xml.stream.XMLStreamException;
 import java.io.IOException;
-import java.io.StringWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Serial;
+import java.io.Writer;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
 
 import static com.lostsidewalk.buffy.publisher.Publisher.PubFormat.ATOM;
 import static com.lostsidewalk.buffy.publisher.Publisher.PubFormat.RSS;
+import static com.lostsidewalk.buffy.rss.PublisherMetrics.*;
+import static java.lang.Math.max;
+import static java.lang.Runtime.getRuntime;
+import static java.lang.System.nanoTime;
+import static java.lang.Thread.currentThread;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.time.Instant.now;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
 import static org.apache.commons.collections4.CollectionUtils.size;
 import static org.apache.commons.lang3.StringUtils.EMPTY;
 
@@ -33,6 +57,8 @@ import static org.apache.commons.lang3.StringUtils.EMPTY;
  * The RSSPublisher class is responsible for publishing RSS and ATOM feeds based on staging posts.
  * It utilizes configured builders to generate feeds and stores them in Redis.
  * Additionally, it supports feed preview functionality and is capable of handling both RSS and ATOM formats.
+ * Feeds may also be published, and previewed, in JSON Feed 1.1 format; JSON feeds are stored in the feed variant
+ * store.
  */
 @Slf4j
 @Component
@@ -50,71 +76,1030 @@ public class RSSPublisher implements Publisher {
     @Autowired
     QueueDefinitionDao queueDefinitionDao;
 
+    // feeds are written straight through: the DAO has no multi-put or pipelined write to batch into, and the writes of
+    // concurrent publishes already overlap on the publish pool
     @Autowired
     RenderedFeedDao renderedFeedDao;
 
+    @Autowired
+    PublisherMetrics publisherMetrics;
+
+    @Autowired(required = false)
+    List<FeedCompressor> feedCompressors;
+
+    @Autowired(required = false)
+    FeedVariantStore feedVariantStore;
+
     /**
      * Default constructor; initializes the object.
      */
     RSSPublisher() {
     }
 
+    private ExecutorService publishExecutor;
+
+    private ForkJoinPool batchPublishPool;
+
+    private ExecutorService previewExecutor;
+
+    private ExecutorService asyncPublishExecutor;
+
+    private Semaphore asyncPublishPermits;
+
+    private PublishCoalescer<Map<String, PubResult>> publishCoalescer;
+
+    private CachingFeedRenderer cachingFeedRenderer;
+
+    private StreamingFeedWriter streamingFeedWriter;
+
+    private FeedDigester feedDigester;
+
+    private QueueDefinitionCache queueDefinitionCache;
+
+    private OutputBufferPool outputBufferPool;
+
+    private FeedByteBudget feedByteBudget;
+
+    private JsonFeedWriter jsonFeedWriter;
+
+    private PublishIndex<Item> rssPublishIndex;
+
+    private PublishIndex<Entry> atomPublishIndex;
+
+    private WeightedLruCache<String, Map<String, PublishReport>> publishReports;
+
+    private FeedArchiver feedArchiver;
+
     /**
-     * Initializes the RSSPublisher component after construction and logs the construction timestamp.
+     * Initializes the RSSPublisher component after construction, starts the publish, asynchronous publish, and preview
+     * thread pools, warms up the rendering path (if configured), and logs the construction timestamp.
      */
     @PostConstruct
-    protected static void postConstruct() {
+    protected final void postConstruct() {
+        int publishThreadPoolSize = configProps.getPublishThreadPoolSize();
+        publishExecutor = newFixedThreadPool(
+                publishThreadPoolSize > 0 ? publishThreadPoolSize : DEFAULT_PUBLISH_THREAD_POOL_SIZE,
+                newThreadFactory("rss-publisher-"));
+        int batchPublishParallelism = configProps.getBatchPublishParallelism();
+        batchPublishPool = new ForkJoinPool(batchPublishParallelism > 0 ? batchPublishParallelism : getRuntime().availableProcessors());
+        int previewParallelism = configProps.getPreviewParallelism();
+        previewExecutor = newFixedThreadPool(
+                previewParallelism > 0 ? previewParallelism : getRuntime().availableProcessors(),
+                newThreadFactory("rss-preview-"));
+        int asyncPublishThreadPoolSize = configProps.getAsyncPublishThreadPoolSize();
+        asyncPublishExecutor = newFixedThreadPool(
+                asyncPublishThreadPoolSize > 0 ? asyncPublishThreadPoolSize : getRuntime().availableProcessors(),
+                newThreadFactory("rss-publish-async-"));
+        int asyncPublishMaxInFlight = max(1, configProps.getAsyncPublishMaxInFlight());
+        asyncPublishPermits = new Semaphore(asyncPublishMaxInFlight);
+        publisherMetrics.registerAsyncInFlight(asyncPublishMaxInFlight, asyncPublishPermits);
+        publishCoalescer = new PublishCoalescer<>(configProps.getPublishLockStripes(), configProps.getPublishDebounceMillis(), publisherMetrics);
+        ItemFragmentCache itemFragmentCache = new ItemFragmentCache(configProps.getItemFragmentCacheMaxBytes());
+        cachingFeedRenderer = new CachingFeedRenderer(itemFragmentCache);
+        streamingFeedWriter = new StreamingFeedWriter(itemFragmentCache);
+        // one digest for each format of a feed
+        feedDigester = new FeedDigester(streamingFeedWriter, cachingFeedRenderer, configProps.getPublishStateMaxFeeds() * 3L);
+        jsonFeedWriter = new JsonFeedWriter(itemFragmentCache);
+        feedByteBudget = new FeedByteBudget(cachingFeedRenderer, jsonFeedWriter);
+        outputBufferPool = new OutputBufferPool(configProps.getOutputBufferPoolSize(),
+                configProps.getOutputBufferMaxRetainedBytes(), configProps.isOutputBufferDirect());
+        long publishIndexMaxPosts = configProps.getPublishIndexMaxPosts();
+        // RSS items do not depend on the publish date, and may always be reused; nothing modifies them once built
+        rssPublishIndex = new PublishIndex<>(publishIndexMaxPosts, post -> true, UnaryOperator.identity());
+        // ATOM entries fall back to the publish date when a post has no publish timestamp, and are given their feed as
+        // their source as the feed is built
+        atomPublishIndex = new PublishIndex<>(publishIndexMaxPosts, post -> post.getPublishTimestamp() != null, ATOMFeedEntryBuilder::copyOf);
+        // the reports of the formats of a feed are kept and forgotten together
+        publishReports = new WeightedLruCache<>(configProps.getPublishStateMaxFeeds(), feedPublishReports -> 1L);
+        feedArchiver = new FeedArchiver(configProps.getPublishStateMaxFeeds());
+        queueDefinitionCache = new QueueDefinitionCache(queueDefinitionDao,
+                configProps.getQueueDefinitionCacheTtlMillis(), configProps.getQueueDefinitionCacheMaxEntries());
+        if (configProps.getWarmUpIterations() > 0) {
+            new FeedWarmer(configProps, rssChannelBuilder, atomFeedBuilder).warmUp(configProps.getWarmUpIterations());
+        }
         log.info("RSS publisher constructed at {}", now());
     }
 
     /**
-     * Publishes RSS and ATOM feeds for a specified queue definition and staging posts.
+     * Shuts down the publish, asynchronous publish, and preview thread pools before the RSSPublisher component is destroyed.
+     */
+    @PreDestroy
+    protected final void preDestroy() {
+        publishExecutor.shutdown();
+        batchPublishPool.shutdown();
+        previewExecutor.shutdown();
+        asyncPublishExecutor.shutdown();
+    }
+
+    private static ThreadFactory newThreadFactory(String namePrefix) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, namePrefix + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Publishes RSS and ATOM feeds for a specified queue definition and staging posts.  Both formats are built and
+     * stored concurrently, and each must complete within the configured publish timeout.
+     * <p>
+     * Publishes of the same transport identity are serialized.  A publish that arrives while an earlier publish of the
+     * same transport identity is waiting to run (within the configured debounce window, or behind a running publish)
+     * replaces it, so that only the newest staging posts are rendered and stored; both callers receive its results.
      *
      * @param queueDefinition The queue definition for which feeds are generated.
      * @param stagingPosts    The staging posts to include in the feeds.
      * @param pubDate         The publication date for the feeds.
-     * @return A map containing publication results for RSS and ATOM formats.
+     * @return A map containing publication results for RSS and ATOM formats (and for JSON Feed, if enabled).
      */
     @Override
     public final Map<String, PubResult> publishFeed(QueueDefinition queueDefinition, List<StagingPost> stagingPosts, Date pubDate) {
-        Map<String, PubResult> pubResults = new HashMap<>(2);
+        return new HashMap<>(publishCoalescer.publish(queueDefinition.getTransportIdent(), () -> doPublishFeed(queueDefinition,
+                () -> partitionPosts(OPERATION_PUBLISH, normalizePosts(OPERATION_PUBLISH, stagingPosts)), pubDate)));
+    }
+
+    /**
+     * Publishes RSS and ATOM feeds for a specified queue definition from a lazily produced sequence of staging posts.
+     * The staging posts are consumed in a single pass, each being normalized as it arrives.  Memory is bounded by the
+     * maximum number of items per feed only if that maximum is set and archive pages are not published; otherwise every
+     * post is held, since every post is either in the feed or on an archive page (see
+     * {@link FeedPartition#of(Iterator, int, boolean)}).  The sequence is consumed on the calling thread, and is not
+     * consumed at all if the publish is coalesced into a newer publish of the same transport identity.
+     *
+     * @param queueDefinition The queue definition for which feeds are generated.
+     * @param stagingPosts    An iterator over the staging posts to include in the feeds.
+     * @param pubDate         The publication date for the feeds.
+     * @return A map containing publication results for RSS and ATOM formats (and for JSON Feed, if enabled).
+     */
+    public final Map<String, PubResult> publishFeed(QueueDefinition queueDefinition, Iterator<? extends StagingPost> stagingPosts, Date pubDate) {
+        return new HashMap<>(publishCoalescer.publish(queueDefinition.getTransportIdent(),
+                () -> doPublishFeed(queueDefinition, () -> partitionPosts(stagingPosts), pubDate)));
+    }
+
+    /**
+     * Publishes RSS and ATOM feeds for a specified queue definition from a lazily produced stream of staging posts.  The
+     * stream is consumed as with {@link #publishFeed(QueueDefinition, Iterator, Date)}; it is not closed.
+     *
+     * @param queueDefinition The queue definition for which feeds are generated.
+     * @param stagingPosts    A stream of the staging posts to include in the feeds.
+     * @param pubDate         The publication date for the feeds.
+     * @return A map containing publication results for RSS and ATOM formats (and for JSON Feed, if enabled).
+     */
+    public final Map<String, PubResult> publishFeed(QueueDefinition queueDefinition, Stream<? extends StagingPost> stagingPosts, Date pubDate) {
+        return publishFeed(queueDefinition, stagingPosts.iterator(), pubDate);
+    }
+
+    private Map<String, PubResult> doPublishFeed(QueueDefinition queueDefinition, Supplier<FeedPartition> partitioner, Date pubDate) {
+        Map<String, PubResult> pubResults = new HashMap<>(3);
         String queueIdent = queueDefinition.getIdent();
-        String transportIdent = queueDefinition.getTransportIdent();
 
         log.info("Deploying RSS/ATOM queueIdent={}", queueIdent);
+        queueDefinitionCache.update(queueDefinition);
+
+        long deadline = nanoTime() + MILLISECONDS.toNanos(configProps.getPublishTimeoutMillis());
+        FeedPartition partition;
+        QueueRenderContext renderContext;
+        try {
+            // normalize the posts, select the newest posts for the feed, and derive the render context once for both formats
+            partition = partitioner.get();
+            renderContext = parseQueueConfig(OPERATION_PUBLISH, queueDefinition);
+        } catch (RuntimeException e) {
+            pubResults.put(RSS_PUBLISHER_ID, newPubResult(RSS_PUBLISHER_ID, null, null, singletonList(e), pubDate));
+            pubResults.put(ATOM_PUBLISHER_ID, newPubResult(ATOM_PUBLISHER_ID, null, null, singletonList(e), pubDate));
+            if (isJsonFeedPublished()) {
+                pubResults.put(JSON_FEED_PUBLISHER_ID, newPubResult(JSON_FEED_PUBLISHER_ID, null, null, singletonList(e), pubDate));
+            }
+            return pubResults;
+        }
+        PublishAttempt attempt = new PublishAttempt();
+        Future<PubResult> rssResult = publishExecutor.submit(() -> publishRSSFeed(queueDefinition, renderContext, partition, pubDate, attempt));
+        Future<PubResult> atomResult = publishExecutor.submit(() -> publishATOMFeed(queueDefinition, renderContext, partition, pubDate, attempt));
+        Future<PubResult> jsonFeedResult = isJsonFeedPublished() ?
+                publishExecutor.submit(() -> publishJSONFeed(queueDefinition, renderContext, partition, pubDate, attempt)) : null;
+        pubResults.put(RSS_PUBLISHER_ID, awaitPubResult(RSS_PUBLISHER_ID, rssResult, attempt, deadline, pubDate));
+        pubResults.put(ATOM_PUBLISHER_ID, awaitPubResult(ATOM_PUBLISHER_ID, atomResult, attempt, deadline, pubDate));
+        if (jsonFeedResult != null) {
+            pubResults.put(JSON_FEED_PUBLISHER_ID, awaitPubResult(JSON_FEED_PUBLISHER_ID, jsonFeedResult, attempt, deadline, pubDate));
+        }
+
+        return pubResults;
+    }
+
+    /**
+     * Publishes RSS and ATOM feeds for a specified queue definition and staging posts without blocking the caller.  The
+     * feeds are built and stored on the asynchronous publish thread pool.
+     *
+     * @param queueDefinition The queue definition for which feeds are generated.
+     * @param stagingPosts    The staging posts to include in the feeds.
+     * @param pubDate         The publication date for the feeds.
+     * @return A future that completes with a map containing publication results for RSS and ATOM formats (and for JSON
+     * Feed, if enabled), or that fails with a RejectedExecutionException if too many publishes are in flight.
+     * @see #publishFeedAsync(QueueDefinition, List, Date, Executor)
+     */
+    public final CompletableFuture<Map<String, PubResult>> publishFeedAsync(QueueDefinition queueDefinition, List<StagingPost> stagingPosts, Date pubDate) {
+        return publishFeedAsync(queueDefinition, stagingPosts, pubDate, asyncPublishExecutor);
+    }
+
+    /**
+     * Publishes RSS and ATOM feeds for a specified queue definition and staging posts on the given executor.  All
+     * formats of the queue are built and stored on a single worker; callers that need a deadline should apply it to
+     * the returned future.
+     * <p>
+     * The number of asynchronous publishes that are queued or running is bounded by configuration.  When the bound is
+     * reached, this method waits up to the configured acquire timeout for a publish to finish (or does not wait, if no
+     * timeout is configured), after which the returned future fails with a RejectedExecutionException.  A publish that
+     * the executor itself rejects (or fails to accept) fails with the exception thrown by the executor.
+     *
+     * @param queueDefinition The queue definition for which feeds are generated.
+     * @param stagingPosts    The staging posts to include in the feeds.
+     * @param pubDate         The publication date for the feeds.
+     * @param executor        The executor on which to publish.
+     * @return A future that completes with a map containing publication results for RSS and ATOM formats (and for JSON
+     * Feed, if enabled), or that fails with a RejectedExecutionException if too many publishes are in flight.
+     */
+    public final CompletableFuture<Map<String, PubResult>> publishFeedAsync(QueueDefinition queueDefinition, List<StagingPost> stagingPosts, Date pubDate, Executor executor) {
+        String queueIdent = queueDefinition.getIdent();
+        if (!acquireAsyncPublishPermit()) {
+            publisherMetrics.recordAsyncRejected();
+            log.warn("Rejected asynchronous publish of queueIdent={}, {} publishes in flight", queueIdent, configProps.getAsyncPublishMaxInFlight());
+            return CompletableFuture.failedFuture(new RejectedExecutionException(
+                    "Too many asynchronous publishes in flight, rejected queueIdent=" + queueIdent));
+        }
+        CompletableFuture<Map<String, PubResult>> pubResults = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                Map<String, PubResult> result = null;
+                Throwable error = null;
+                try {
+                    if (!pubResults.isDone()) {
+                        result = new HashMap<>(publishCoalescer.publish(queueDefinition.getTransportIdent(),
+                                () -> publishQueue(queueDefinition, stagingPosts, pubDate)));
+                    }
+                } catch (Throwable t) {
+                    error = t;
+                } finally {
+                    // release the slot before completing, so that callers chained on the result can take it
+                    asyncPublishPermits.release();
+                }
+                if (error != null) {
+                    pubResults.completeExceptionally(error);
+                } else if (result != null) {
+                    pubResults.complete(result);
+                }
+            });
+        } catch (RuntimeException e) {
+            // the task never ran, so its slot is released here
+            asyncPublishPermits.release();
+            if (e instanceof RejectedExecutionException) {
+                publisherMetrics.recordAsyncRejected();
+                log.warn("Rejected asynchronous publish of queueIdent={}, executor rejected the task", queueIdent);
+            } else {
+                log.error("Failed to submit asynchronous publish of queueIdent={} due to: {}", queueIdent, e.getMessage());
+            }
+            pubResults.completeExceptionally(e);
+        }
+        return pubResults;
+    }
+
+    private boolean acquireAsyncPublishPermit() {
+        long acquireTimeoutMillis = configProps.getAsyncPublishAcquireTimeoutMillis();
+        if (acquireTimeoutMillis < 1L) {
+            return asyncPublishPermits.tryAcquire();
+        }
+        try {
+            return asyncPublishPermits.tryAcquire(acquireTimeoutMillis, MILLISECONDS);
+        } catch (InterruptedException e) {
+            currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Publishes RSS and ATOM feeds for many queues at once.  Queues are fanned out across a fork/join pool whose
+     * parallelism is bounded by configuration; the formats for any single queue are rendered on the same worker.  Each
+     * queue is published under the lock of its transport identity, but is not debounced.
+     *
+     * @param stagingPostsByQueue The staging posts to include in the feeds, keyed by the queue definition to publish.
+     * @param pubDate             The publication date for the feeds.
+     * @return A map containing publication results for RSS and ATOM formats, keyed by queue transport identifier.
+     */
+    public final Map<String, Map<String, PubResult>> publishFeeds(Map<QueueDefinition, List<StagingPost>> stagingPostsByQueue, Date pubDate) {
+        log.info("Deploying RSS/ATOM for {} queues", size(stagingPostsByQueue));
+        List<Map.Entry<QueueDefinition, List<StagingPost>>> queues = new ArrayList<>(stagingPostsByQueue.entrySet());
+        Map<String, Map<String, PubResult>> pubResults = new ConcurrentHashMap<>(queues.size());
+        batchPublishPool.invoke(new BatchPublishTask(queues, pubDate, pubResults));
+        log.info("Deployed RSS/ATOM for {} queues", pubResults.size());
+        return pubResults;
+    }
+
+    private final class BatchPublishTask extends RecursiveAction {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<Map.Entry<QueueDefinition, List<StagingPost>>> queues;
+
+        private final transient Date pubDate;
+
+        private final transient Map<String, Map<String, PubResult>> pubResults;
+
+        private BatchPublishTask(List<Map.Entry<QueueDefinition, List<StagingPost>>> queues, Date pubDate, Map<String, Map<String, PubResult>> pubResults) {
+            this.queues = queues;
+            this.pubDate = pubDate;
+            this.pubResults = pubResults;
+        }
+
+        @Override
+        protected void compute() {
+            int queueCt = queues.size();
+            if (queueCt == 1) {
+                Map.Entry<QueueDefinition, List<StagingPost>> queue = queues.get(0);
+                QueueDefinition queueDefinition = queue.getKey();
+                // the publish waits on the transport identity lock and on the store, so the pool is told that this
+                // worker is blocked, and may compensate for it
+                QueuePublishBlocker queuePublishBlocker = new QueuePublishBlocker(queueDefinition, queue.getValue(), pubDate);
+                try {
+                    ForkJoinPool.managedBlock(queuePublishBlocker);
+                } catch (InterruptedException e) {
+                    currentThread().interrupt();
+                }
+                if (queuePublishBlocker.pubResults != null) {
+                    pubResults.put(queueDefinition.getTransportIdent(), queuePublishBlocker.pubResults);
+                }
+            } else if (queueCt > 1) {
+                int mid = queueCt / 2;
+                invokeAll(new BatchPublishTask(queues.subList(0, mid), pubDate, pubResults),
+                        new BatchPublishTask(queues.subList(mid, queueCt), pubDate, pubResults));
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "BatchPublishTask{" +
+                    "queueCt=" + queues.size() +
+                    ", pubDate=" + pubDate +
+                    '}';
+        }
+    }
+
+    /**
+     * A publish of the formats of one queue.  The publish is abandoned once its caller stops waiting for it (i.e., when
+     * it times out); each format task checks for this before each of its store and commit steps, and stops (with a
+     * CancellationException) rather than storing anything further.
+     */
+    private static final class PublishAttempt {
+
+        private volatile boolean abandoned;
+
+        private void abandon() {
+            abandoned = true;
+        }
+
+        private void checkpoint(String publisherId) {
+            if (abandoned) {
+                throw new CancellationException(publisherId + " publish was abandoned");
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "PublishAttempt{" +
+                    "abandoned=" + abandoned +
+                    '}';
+        }
+    }
+
+    private final class QueuePublishBlocker implements ForkJoinPool.ManagedBlocker {
+
+        private final QueueDefinition queueDefinition;
+
+        private final List<StagingPost> stagingPosts;
+
+        private final Date pubDate;
+
+        private Map<String, PubResult> pubResults;
+
+        private QueuePublishBlocker(QueueDefinition queueDefinition, List<StagingPost> stagingPosts, Date pubDate) {
+            this.queueDefinition = queueDefinition;
+            this.stagingPosts = stagingPosts;
+            this.pubDate = pubDate;
+        }
 
+        @Override
+        public boolean block() {
+            pubResults = publishCoalescer.publishNow(queueDefinition.getTransportIdent(),
+                    () -> publishQueue(queueDefinition, stagingPosts, pubDate));
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return pubResults != null;
+        }
+
+        @Override
+        public String toString() {
+            return "QueuePublishBlocker{" +
+                    "queueIdent=" + queueDefinition.getIdent() +
+                    ", pubDate=" + pubDate +
+                    '}';
+        }
+    }
+
+    private Map<String, PubResult> publishQueue(QueueDefinition queueDefinition, Collection<? extends StagingPost> stagingPosts, Date pubDate) {
+        Map<String, PubResult> pubResults = new HashMap<>(3);
+        queueDefinitionCache.update(queueDefinition);
+        try {
+            FeedPartition partition = partitionPosts(OPERATION_PUBLISH, normalizePosts(OPERATION_PUBLISH, stagingPosts));
+            QueueRenderContext renderContext = parseQueueConfig(OPERATION_PUBLISH, queueDefinition);
+            // batch publishes have no deadline, so they are never abandoned
+            PublishAttempt attempt = new PublishAttempt();
+            pubResults.put(RSS_PUBLISHER_ID, publishRSSFeed(queueDefinition, renderContext, partition, pubDate, attempt));
+            pubResults.put(ATOM_PUBLISHER_ID, publishATOMFeed(queueDefinition, renderContext, partition, pubDate, attempt));
+            if (isJsonFeedPublished()) {
+                pubResults.put(JSON_FEED_PUBLISHER_ID, publishJSONFeed(queueDefinition, renderContext, partition, pubDate, attempt));
+            }
+        } catch (RuntimeException e) {
+            pubResults.put(RSS_PUBLISHER_ID, newPubResult(RSS_PUBLISHER_ID, null, null, singletonList(e), pubDate));
+            pubResults.put(ATOM_PUBLISHER_ID, newPubResult(ATOM_PUBLISHER_ID, null, null, singletonList(e), pubDate));
+            if (isJsonFeedPublished()) {
+                pubResults.put(JSON_FEED_PUBLISHER_ID, newPubResult(JSON_FEED_PUBLISHER_ID, null, null, singletonList(e), pubDate));
+            }
+        }
+        return pubResults;
+    }
+
+    private List<NormalizedPost> normalizePosts(String operation, Collection<? extends StagingPost> stagingPosts) {
+        long start = nanoTime();
+        List<NormalizedPost> posts = NormalizedPost.normalize(stagingPosts);
+        publisherMetrics.recordPhase(operation, PHASE_NORMALIZE, ALL_FORMATS, nanoTime() - start);
+        return posts;
+    }
+
+    private FeedPartition partitionPosts(String operation, List<NormalizedPost> posts) {
+        FeedPartition partition = FeedPartition.of(posts, configProps.getMaxItemsPerFeed());
+        publisherMetrics.recordDuplicates(operation, partition.getDuplicateCt());
+        return partition;
+    }
+
+    private FeedPartition partitionPosts(Iterator<? extends StagingPost> stagingPosts) {
+        long start = nanoTime();
+        FeedPartition partition = FeedPartition.of(stagingPosts, configProps.getMaxItemsPerFeed(), configProps.getArchivePageSize() > 0);
+        publisherMetrics.recordPhase(OPERATION_PUBLISH, PHASE_NORMALIZE, ALL_FORMATS, nanoTime() - start);
+        publisherMetrics.recordDuplicates(OPERATION_PUBLISH, partition.getDuplicateCt());
+        return partition;
+    }
+
+    private QueueRenderContext parseQueueConfig(String operation, QueueDefinition queueDefinition) {
+        long start = nanoTime();
+        // derive the URLs and look up the export config once, for every format
+        QueueRenderContext renderContext = QueueRenderContext.of(queueDefinition, configProps);
+        publisherMetrics.recordPhase(operation, PHASE_CONFIG, ALL_FORMATS, nanoTime() - start);
+        return renderContext;
+    }
+
+    private PubResult newPubResult(String publisherId, String transportUrl, String userIdentUrl, List<Throwable> errors, Date pubDate) {
+        publisherMetrics.recordErrors(publisherId, errors);
+        return PubResult.from(transportUrl, userIdentUrl, errors, pubDate);
+    }
+
+    private PubResult publishRSSFeed(QueueDefinition queueDefinition, QueueRenderContext renderContext, FeedPartition partition, Date pubDate, PublishAttempt attempt) {
+        String queueIdent = queueDefinition.getIdent();
+        String transportIdent = queueDefinition.getTransportIdent();
         String rssTransportLinkUrl = null;
         String rssUserIdentLinkUrl = null;
         List<Throwable> rssErrors = new ArrayList<>(1);
         try {
-            // build/publish the RSS feed
-            Channel channel = rssChannelBuilder.buildChannel(queueDefinition, stagingPosts, pubDate);
-            renderedFeedDao.putRSSFeedAtTransportIdent(transportIdent, RenderedRSSFeed.from(transportIdent, channel));
-            rssTransportLinkUrl = String.format(configProps.getChannelLinkTemplate(), queueDefinition.getTransportIdent());
-            rssUserIdentLinkUrl = String.format(configProps.getChannelLinkTemplate(), queueDefinition.getUsername() + "/" + queueIdent);
-            log.info("Published RSS feed for queueIdent={}, transportIdent={}", queueIdent, transportIdent);
+            // publish the archive pages first, so that the feed never links to a page that has not been stored
+            attempt.checkpoint(RSS_PUBLISHER_ID);
+            int archivePageCt = publishRSSArchives(queueDefinition, renderContext, partition, pubDate, attempt);
+            // build/publish the RSS feed, reusing the items of unchanged posts from the previous publish
+            List<NormalizedPost> posts = partition.getHead();
+            long start = nanoTime();
+            PublishIndex<Item>.Pass publishPass = rssPublishIndex.begin(transportIdent, PublishIndex.headerHash(queueDefinition));
+            Channel channel = rssChannelBuilder.buildChannelHeader(queueDefinition, renderContext, posts, pubDate);
+            if (archivePageCt > 0) {
+                FeedArchiver.addArchiveMarkup(channel, null,
+                        QueueRenderContext.ofArchivePage(queueDefinition, configProps, archivePageCt).getChannelLinkUrl(), null, false);
+            }
+            FeedByteBudget.Outcome budgetOutcome = fitChannel(renderContext, channel, posts,
+                    post -> publishPass.map(post, RSSChannelItemBuilder::toItem));
+            posts = budgetOutcome.getPosts();
+            publisherMetrics.recordPhase(OPERATION_PUBLISH, PHASE_BUILD, RSS_PUBLISHER_ID, nanoTime() - start);
+            publisherMetrics.recordItemCount(OPERATION_PUBLISH, RSS_PUBLISHER_ID, size(channel.getItems()));
+            PublishReport publishReport = new PublishReport();
+            publishPass.report(publishReport);
+            publishReport.setArchivedCt(partition.getArchivedCt());
+            publishReport.setDuplicateCt(partition.getDuplicateCt());
+            publishReport.setArchivePageCt(archivePageCt);
+            publishReport.setExcerptedPostHashes(budgetOutcome.getExcerptedPostHashes());
+            publishReport.setDroppedPostHashes(budgetOutcome.getDroppedPostHashes());
+            // skip the store write if the feed is identical to the stored feed
+            FeedDigest feedDigest = digestChannel(channel, posts);
+            publishReport.setDigest(feedDigest == null ? null : feedDigest.digest());
+            if (configProps.isSkipUnchangedWrites() && isStored(transportIdent, RSS_PUBLISHER_ID, feedDigest)) {
+                publishReport.setStoreSkipped(true);
+            } else {
+                start = nanoTime();
+                attempt.checkpoint(RSS_PUBLISHER_ID);
+                feedDigester.setStored(transportIdent, RSS_PUBLISHER_ID, null);
+                renderedFeedDao.putRSSFeedAtTransportIdent(transportIdent, RenderedRSSFeed.from(transportIdent, channel));
+                attempt.checkpoint(RSS_PUBLISHER_ID);
+                feedDigester.setStored(transportIdent, RSS_PUBLISHER_ID, feedDigest);
+                publisherMetrics.recordPhase(OPERATION_PUBLISH, PHASE_STORE, RSS_PUBLISHER_ID, nanoTime() - start);
+            }
+            if (!publishReport.isStoreSkipped()) {
+                attempt.checkpoint(RSS_PUBLISHER_ID);
+                storeChannelVariants(transportIdent, channel, posts, feedDigest);
+            }
+            attempt.checkpoint(RSS_PUBLISHER_ID);
+            publishPass.commit();
+            putPublishReport(transportIdent, RSS_PUBLISHER_ID, publishReport);
+            rssTransportLinkUrl = renderContext.getChannelLinkUrl();
+            rssUserIdentLinkUrl = renderContext.getChannelUserIdentLinkUrl();
+            log.info("Published RSS feed for queueIdent={}, transportIdent={}, publishReport={}", queueIdent, transportIdent, publishReport);
         } catch (DataAccessException | RuntimeException e) {
             rssErrors.add(e);
         }
-        pubResults.put(RSS_PUBLISHER_ID, PubResult.from(rssTransportLinkUrl, rssUserIdentLinkUrl, rssErrors, pubDate));
+        return newPubResult(RSS_PUBLISHER_ID, rssTransportLinkUrl, rssUserIdentLinkUrl, rssErrors, pubDate);
+    }
 
+    private PubResult publishATOMFeed(QueueDefinition queueDefinition, QueueRenderContext renderContext, FeedPartition partition, Date pubDate, PublishAttempt attempt) {
+        String queueIdent = queueDefinition.getIdent();
+        String transportIdent = queueDefinition.getTransportIdent();
         String atomTransportLinkUrl = null;
         String atomUserIdentLinkUrl = null;
         List<Throwable> atomErrors = new ArrayList<>(1);
         try {
-            // build/publish the ATOM feed
-            Feed feed = atomFeedBuilder.buildFeed(queueDefinition, stagingPosts, pubDate);
-            RenderedATOMFeed renderedATOMFeed = RenderedATOMFeed.from(transportIdent, feed);
-            renderedFeedDao.putATOMFeedAtTransportIdent(transportIdent, renderedATOMFeed);
-            atomTransportLinkUrl = String.format(configProps.getChannelUriTemplate(), queueDefinition.getTransportIdent());
-            atomUserIdentLinkUrl = String.format(configProps.getChannelUriTemplate(), queueDefinition.getUsername() + "/" + queueIdent);
-            log.info("Published ATOM feed for queueIdent={}, transportIdent={}", queueIdent, transportIdent);
+            // publish the archive pages first, so that the feed never links to a page that has not been stored
+            attempt.checkpoint(ATOM_PUBLISHER_ID);
+            int archivePageCt = publishATOMArchives(queueDefinition, renderContext, partition, pubDate, attempt);
+            // build/publish the ATOM feed, reusing the entries of unchanged posts from the previous publish
+            List<NormalizedPost> posts = partition.getHead();
+            long start = nanoTime();
+            PublishIndex<Entry>.Pass publishPass = atomPublishIndex.begin(transportIdent, PublishIndex.headerHash(queueDefinition));
+            Feed feed = atomFeedBuilder.buildFeedHeader(queueDefinition, renderContext, posts);
+            if (archivePageCt > 0) {
+                FeedArchiver.addArchiveMarkup(feed, null,
+                        QueueRenderContext.ofArchivePage(queueDefinition, configProps, archivePageCt).getChannelUri(), null, false);
+            }
+            FeedByteBudget.Outcome budgetOutcome = fitFeed(renderContext, feed, posts, pubDate,
+                    post -> publishPass.map(post, p -> ATOMFeedEntryBuilder.toEntry(p, pubDate)));
+            posts = budgetOutcome.getPosts();
+            publisherMetrics.recordPhase(OPERATION_PUBLISH, PHASE_BUILD, ATOM_PUBLISHER_ID, nanoTime() - start);
+            publisherMetrics.recordItemCount(OPERATION_PUBLISH, ATOM_PUBLISHER_ID, size(feed.getEntries()));
+            PublishReport publishReport = new PublishReport();
+            publishPass.report(publishReport);
+            publishReport.setArchivedCt(partition.getArchivedCt());
+            publishReport.setDuplicateCt(partition.getDuplicateCt());
+            publishReport.setArchivePageCt(archivePageCt);
+            publishReport.setExcerptedPostHashes(budgetOutcome.getExcerptedPostHashes());
+            publishReport.setDroppedPostHashes(budgetOutcome.getDroppedPostHashes());
+            // skip the store write if the feed is identical to the stored feed
+            FeedDigest feedDigest = digestFeed(feed, posts);
+            publishReport.setDigest(feedDigest == null ? null : feedDigest.digest());
+            if (configProps.isSkipUnchangedWrites() && isStored(transportIdent, ATOM_PUBLISHER_ID, feedDigest)) {
+                publishReport.setStoreSkipped(true);
+            } else {
+                start = nanoTime();
+                attempt.checkpoint(ATOM_PUBLISHER_ID);
+                feedDigester.setStored(transportIdent, ATOM_PUBLISHER_ID, null);
+                RenderedATOMFeed renderedATOMFeed = RenderedATOMFeed.from(transportIdent, feed);
+                renderedFeedDao.putATOMFeedAtTransportIdent(transportIdent, renderedATOMFeed);
+                attempt.checkpoint(ATOM_PUBLISHER_ID);
+                feedDigester.setStored(transportIdent, ATOM_PUBLISHER_ID, feedDigest);
+                publisherMetrics.recordPhase(OPERATION_PUBLISH, PHASE_STORE, ATOM_PUBLISHER_ID, nanoTime() - start);
+            }
+            if (!publishReport.isStoreSkipped()) {
+                attempt.checkpoint(ATOM_PUBLISHER_ID);
+                storeFeedVariants(transportIdent, feed, posts, feedDigest);
+            }
+            attempt.checkpoint(ATOM_PUBLISHER_ID);
+            publishPass.commit();
+            putPublishReport(transportIdent, ATOM_PUBLISHER_ID, publishReport);
+            atomTransportLinkUrl = renderContext.getChannelUri();
+            atomUserIdentLinkUrl = renderContext.getChannelUserIdentUri();
+            log.info("Published ATOM feed for queueIdent={}, transportIdent={}, publishReport={}", queueIdent, transportIdent, publishReport);
         } catch (DataAccessException | RuntimeException e) {
             atomErrors.add(e);
         }
-        pubResults.put(ATOM_PUBLISHER_ID, PubResult.from(atomTransportLinkUrl, atomUserIdentLinkUrl, atomErrors, pubDate));
+        return newPubResult(ATOM_PUBLISHER_ID, atomTransportLinkUrl, atomUserIdentLinkUrl, atomErrors, pubDate);
+    }
 
-        return pubResults;
+    /**
+     * JSON feeds are stored (only) in the application's feed variant store, as the rendered feed DAO has no place for
+     * them.
+     */
+    private boolean isJsonFeedPublished() {
+        return configProps.isJsonFeedEnabled() && feedVariantStore != null;
+    }
+
+    private PubResult publishJSONFeed(QueueDefinition queueDefinition, QueueRenderContext renderContext, FeedPartition partition, Date pubDate, PublishAttempt attempt) {
+        String queueIdent = queueDefinition.getIdent();
+        String transportIdent = queueDefinition.getTransportIdent();
+        String jsonFeedTransportUrl = null;
+        String jsonFeedUserIdentUrl = null;
+        List<Throwable> jsonFeedErrors = new ArrayList<>(1);
+        try {
+            attempt.checkpoint(JSON_FEED_PUBLISHER_ID);
+            // write the JSON feed straight from the posts; there is no feed model to build
+            FeedByteBudget.Outcome budgetOutcome = fitJsonFeed(queueDefinition, renderContext, partition.getHead());
+            List<NormalizedPost> posts = budgetOutcome.getPosts();
+            publisherMetrics.recordItemCount(OPERATION_PUBLISH, JSON_FEED_PUBLISHER_ID, posts.size());
+            long start = nanoTime();
+            byte[] content;
+            PooledOutputBuffer buffer = outputBufferPool.acquire();
+            try {
+                writeJsonFeed(queueDefinition, renderContext, posts, buffer, false);
+                content = buffer.toByteArray();
+            } finally {
+                outputBufferPool.release(buffer);
+            }
+            publisherMetrics.recordPhase(OPERATION_PUBLISH, PHASE_SERIALIZE, JSON_FEED_PUBLISHER_ID, nanoTime() - start);
+            publisherMetrics.recordRenderedBytes(OPERATION_PUBLISH, JSON_FEED_PUBLISHER_ID, content.length);
+            PublishReport publishReport = new PublishReport();
+            publishReport.setArchivedCt(partition.getArchivedCt());
+            publishReport.setDuplicateCt(partition.getDuplicateCt());
+            publishReport.setExcerptedPostHashes(budgetOutcome.getExcerptedPostHashes());
+            publishReport.setDroppedPostHashes(budgetOutcome.getDroppedPostHashes());
+            publishReport.setDigest(FeedDigester.digestContent(content).digest());
+            // skip the store write if the feed is identical to the stored feed
+            if (configProps.isSkipUnchangedWrites()
+                    && publishReport.getDigest().equals(feedVariantStore.getDigest(transportIdent, JSON_FEED_PUBLISHER_ID))) {
+                publishReport.setStoreSkipped(true);
+            } else {
+                start = nanoTime();
+                Map<String, byte[]> encodedContent = configProps.isPrecompressEnabled() ? compress(content) : emptyMap();
+                attempt.checkpoint(JSON_FEED_PUBLISHER_ID);
+                feedVariantStore.putVariants(RenderedFeedVariants.from(transportIdent, JSON_FEED_PUBLISHER_ID, JSON_FEED_CONTENT_TYPE, publishReport.getDigest(), content, encodedContent));
+                publisherMetrics.recordPhase(OPERATION_PUBLISH, PHASE_STORE, JSON_FEED_PUBLISHER_ID, nanoTime() - start);
+            }
+            attempt.checkpoint(JSON_FEED_PUBLISHER_ID);
+            putPublishReport(transportIdent, JSON_FEED_PUBLISHER_ID, publishReport);
+            jsonFeedTransportUrl = renderContext.getJsonFeedUrl();
+            jsonFeedUserIdentUrl = renderContext.getJsonFeedUserIdentUrl();
+            log.info("Published JSON feed for queueIdent={}, transportIdent={}, publishReport={}", queueIdent, transportIdent, publishReport);
+        } catch (IOException | RuntimeException e) {
+            jsonFeedErrors.add(e);
+        }
+        return newPubResult(JSON_FEED_PUBLISHER_ID, jsonFeedTransportUrl, jsonFeedUserIdentUrl, jsonFeedErrors, pubDate);
+    }
+
+    /**
+     * Publishes the RFC 5005 archive pages of the RSS feed, skipping pages that are unchanged since they were last
+     * published.
+     *
+     * @return the number of archive pages
+     */
+    private int publishRSSArchives(QueueDefinition queueDefinition, QueueRenderContext renderContext, FeedPartition partition, Date pubDate, PublishAttempt attempt) throws DataAccessException {
+        int pageSize = configProps.getArchivePageSize();
+        int pageCt = partition.getArchivePageCt(pageSize);
+        if (pageCt > 0) {
+            long start = nanoTime();
+            String transportIdent = queueDefinition.getTransportIdent();
+            for (int page = 1; page <= pageCt; page++) {
+                List<NormalizedPost> pagePosts = partition.getArchivePage(page, pageSize);
+                String signature = FeedArchiver.pageSignature(queueDefinition, pagePosts, page < pageCt);
+                if (!feedArchiver.isPublished(transportIdent, RSS_PUBLISHER_ID, page, signature)) {
+                    String archiveTransportIdent = FeedArchiver.archiveTransportIdent(transportIdent, page);
+                    Channel channel = rssChannelBuilder.buildChannel(queueDefinition, QueueRenderContext.ofArchivePage(queueDefinition, configProps, page),
+                            pagePosts, pubDate, RSSChannelItemBuilder::toItem);
+                    FeedArchiver.addArchiveMarkup(channel, renderContext.getChannelLinkUrl(),
+                            page > 1 ? QueueRenderContext.ofArchivePage(queueDefinition, configProps, page - 1).getChannelLinkUrl() : null,
+                            page < pageCt ? QueueRenderContext.ofArchivePage(queueDefinition, configProps, page + 1).getChannelLinkUrl() : null,
+                            true);
+                    attempt.checkpoint(RSS_PUBLISHER_ID);
+                    renderedFeedDao.putRSSFeedAtTransportIdent(archiveTransportIdent, RenderedRSSFeed.from(archiveTransportIdent, channel));
+                    attempt.checkpoint(RSS_PUBLISHER_ID);
+                    feedArchiver.setPublished(transportIdent, RSS_PUBLISHER_ID, page, signature);
+                    log.debug("Published RSS archive page {} of {} for transportIdent={}", page, pageCt, transportIdent);
+                }
+            }
+            publisherMetrics.recordPhase(OPERATION_PUBLISH, PHASE_ARCHIVE, RSS_PUBLISHER_ID, nanoTime() - start);
+        }
+        return pageCt;
+    }
+
+    /**
+     * Publishes the RFC 5005 archive pages of the ATOM feed, skipping pages that are unchanged since they were last
+     * published.
+     *
+     * @return the number of archive pages
+     */
+    private int publishATOMArchives(QueueDefinition queueDefinition, QueueRenderContext renderContext, FeedPartition partition, Date pubDate, PublishAttempt attempt) throws DataAccessException {
+        int pageSize = configProps.getArchivePageSize();
+        int pageCt = partition.getArchivePageCt(pageSize);
+        if (pageCt > 0) {
+            long start = nanoTime();
+            String transportIdent = queueDefinition.getTransportIdent();
+            for (int page = 1; page <= pageCt; page++) {
+                List<NormalizedPost> pagePosts = partition.getArchivePage(page, pageSize);
+                String signature = FeedArchiver.pageSignature(queueDefinition, pagePosts, page < pageCt);
+                if (!feedArchiver.isPublished(transportIdent, ATOM_PUBLISHER_ID, page, signature)) {
+                    String archiveTransportIdent = FeedArchiver.archiveTransportIdent(transportIdent, page);
+                    Feed feed = atomFeedBuilder.buildFeed(queueDefinition, QueueRenderContext.ofArchivePage(queueDefinition, configProps, page),
+                            pagePosts, post -> ATOMFeedEntryBuilder.toEntry(post, pubDate));
+                    FeedArchiver.addArchiveMarkup(feed, renderContext.getChannelUri(),
+                            page > 1 ? QueueRenderContext.ofArchivePage(queueDefinition, configProps, page - 1).getChannelUri() : null,
+                            page < pageCt ? QueueRenderContext.ofArchivePage(queueDefinition, configProps, page + 1).getChannelUri() : null,
+                            true);
+                    attempt.checkpoint(ATOM_PUBLISHER_ID);
+                    renderedFeedDao.putATOMFeedAtTransportIdent(archiveTransportIdent, RenderedATOMFeed.from(archiveTransportIdent, feed));
+                    attempt.checkpoint(ATOM_PUBLISHER_ID);
+                    feedArchiver.setPublished(transportIdent, ATOM_PUBLISHER_ID, page, signature);
+                    log.debug("Published ATOM archive page {} of {} for transportIdent={}", page, pageCt, transportIdent);
+                }
+            }
+            publisherMetrics.recordPhase(OPERATION_PUBLISH, PHASE_ARCHIVE, ATOM_PUBLISHER_ID, nanoTime() - start);
+        }
+        return pageCt;
+    }
+
+    /**
+     * Builds the items of the channel from the given posts, fitting them into the byte budget of the queue if it has
+     * one.
+     */
+    private FeedByteBudget.Outcome fitChannel(QueueRenderContext renderContext, Channel channel, List<NormalizedPost> posts, Function<? super NormalizedPost, Item> itemMapper) {
+        long maxFeedBytes = FeedByteBudget.maxFeedBytes(renderContext.getExportConfig(), configProps);
+        Function<? super NormalizedPost, Item> mapper = itemMapper;
+        if (maxFeedBytes > 0L) {
+            // the budget may ask for an item more than once; each post is mapped (and counted by the publish index) once
+            Map<NormalizedPost, Item> items = new IdentityHashMap<>(posts.size());
+            mapper = post -> items.computeIfAbsent(post, itemMapper);
+            try {
+                return feedByteBudget.applyToChannel(channel, posts, mapper, maxFeedBytes);
+            } catch (FeedException | RuntimeException e) {
+                log.warn("Unable to apply RSS feed byte budget due to: {}", e.getMessage());
+            }
+        }
+        List<Item> items = new ArrayList<>(posts.size());
+        for (NormalizedPost post : posts) {
+            items.add(mapper.apply(post));
+        }
+        channel.setItems(items);
+        return FeedByteBudget.Outcome.unbounded(posts);
+    }
+
+    /**
+     * Builds the entries of the feed from the given posts, fitting them into the byte budget of the queue if it has
+     * one.
+     */
+    private FeedByteBudget.Outcome fitFeed(QueueRenderContext renderContext, Feed feed, List<NormalizedPost> posts, Date pubDate, Function<? super NormalizedPost, Entry> entryMapper) {
+        long maxFeedBytes = FeedByteBudget.maxFeedBytes(renderContext.getExportConfig(), configProps);
+        Function<? super NormalizedPost, Entry> mapper = entryMapper;
+        if (maxFeedBytes > 0L) {
+            // the budget may ask for an entry more than once; each post is mapped (and counted by the publish index) once
+            Map<NormalizedPost, Entry> entries = new IdentityHashMap<>(posts.size());
+            mapper = post -> entries.computeIfAbsent(post, entryMapper);
+            try {
+                return feedByteBudget.applyToFeed(feed, posts, pubDate, mapper, maxFeedBytes);
+            } catch (FeedException | RuntimeException e) {
+                log.warn("Unable to apply ATOM feed byte budget due to: {}", e.getMessage());
+            }
+        }
+        List<Entry> entries = new ArrayList<>(posts.size());
+        for (NormalizedPost post : posts) {
+            Entry entry = mapper.apply(post);
+            entry.setSource(feed);
+            entries.add(entry);
+        }
+        feed.setEntries(entries);
+        return FeedByteBudget.Outcome.unbounded(posts);
+    }
+
+    /**
+     * Fits the items of the JSON feed into the byte budget of the queue, if it has one.
+     */
+    private FeedByteBudget.Outcome fitJsonFeed(QueueDefinition queueDefinition, QueueRenderContext renderContext, List<NormalizedPost> posts) {
+        long maxFeedBytes = FeedByteBudget.maxFeedBytes(renderContext.getExportConfig(), configProps);
+        if (maxFeedBytes > 0L) {
+            try {
+                return feedByteBudget.applyToJsonFeed(queueDefinition, renderContext, posts, maxFeedBytes);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Unable to apply JSON feed byte budget due to: {}", e.getMessage());
+            }
+        }
+        return FeedByteBudget.Outcome.unbounded(posts);
+    }
+
+    private FeedDigest digestChannel(Channel channel, List<NormalizedPost> posts) {
+        long start = nanoTime();
+        try {
+            FeedDigest feedDigest = feedDigester.digestChannel(channel, posts, isVariantContentRetained());
+            publisherMetrics.recordPhase(OPERATION_PUBLISH, PHASE_SERIALIZE, RSS_PUBLISHER_ID, nanoTime() - start);
+            publisherMetrics.recordRenderedBytes(OPERATION_PUBLISH, RSS_PUBLISHER_ID, feedDigest.byteCt());
+            return feedDigest;
+        } catch (FeedException | XMLStreamException | IOException | RuntimeException e) {
+            // the feed is still stored, just never skipped
+            log.warn("Unable to compute RSS feed digest due to: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private FeedDigest digestFeed(Feed feed, List<NormalizedPost> posts) {
+        long start = nanoTime();
+        try {
+            FeedDigest feedDigest = feedDigester.digestFeed(feed, posts, isVariantContentRetained());
+            publisherMetrics.recordPhase(OPERATION_PUBLISH, PHASE_SERIALIZE, ATOM_PUBLISHER_ID, nanoTime() - start);
+            publisherMetrics.recordRenderedBytes(OPERATION_PUBLISH, ATOM_PUBLISHER_ID, feedDigest.byteCt());
+            return feedDigest;
+        } catch (FeedException | XMLStreamException | IOException | RuntimeException e) {
+            // the feed is still stored, just never skipped
+            log.warn("Unable to compute ATOM feed digest due to: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * The feed is retained as it is digested when it is about to be stored as variants, and the digest pass renders it
+     * exactly as the variants would be rendered (i.e., through the streaming writer, where it supports the feed type).
+     */
+    private boolean isVariantContentRetained() {
+        return feedVariantStore != null && configProps.isStreamingWriterEnabled();
+    }
+
+    /**
+     * Determines whether the feed is identical to the stored feed.  If the application has a variant store, the digest
+     * kept with the stored variants decides, as it is shared by every instance that publishes to the store; otherwise,
+     * the digest remembered by this instance decides.
+     */
+    private boolean isStored(String transportIdent, String publisherId, FeedDigest feedDigest) {
+        if (feedDigest == null) {
+            return false;
+        }
+        if (feedVariantStore != null) {
+            try {
+                return feedDigest.digest().equals(feedVariantStore.getDigest(transportIdent, publisherId));
+            } catch (RuntimeException e) {
+                // the feed is stored, just not skipped
+                log.warn("Unable to read stored feed digest for transportIdent={} due to: {}", transportIdent, e.getMessage());
+                return false;
+            }
+        }
+        return feedDigester.isStored(transportIdent, publisherId, feedDigest);
+    }
+
+    private void storeChannelVariants(String transportIdent, Channel channel, List<NormalizedPost> posts, FeedDigest feedDigest) {
+        if (feedVariantStore != null) {
+            try {
+                // reuse the document rendered by the digest pass, if it was retained
+                byte[] content = feedDigest == null ? null : feedDigest.content();
+                if (content == null) {
+                    PooledOutputBuffer buffer = outputBufferPool.acquire();
+                    try {
+                        writeChannel(channel, posts, buffer, false);
+                        content = buffer.toByteArray();
+                    } finally {
+                        outputBufferPool.release(buffer);
+                    }
+                }
+                String digest = feedDigest == null ? null : feedDigest.digest();
+                Map<String, byte[]> encodedContent = configProps.isPrecompressEnabled() ? compress(content) : emptyMap();
+                feedVariantStore.putVariants(RenderedFeedVariants.from(transportIdent, RSS_PUBLISHER_ID, RSS_CONTENT_TYPE, digest, content, encodedContent));
+            } catch (FeedException | XMLStreamException | IOException | RuntimeException e) {
+                // the feed itself has been stored; the serving tier falls back to compressing on read
+                log.warn("Unable to store RSS feed variants for transportIdent={} due to: {}", transportIdent, e.getMessage());
+            }
+        }
+    }
+
+    private void storeFeedVariants(String transportIdent, Feed feed, List<NormalizedPost> posts, FeedDigest feedDigest) {
+        if (feedVariantStore != null) {
+            try {
+                // reuse the document rendered by the digest pass, if it was retained
+                byte[] content = feedDigest == null ? null : feedDigest.content();
+                if (content == null) {
+                    PooledOutputBuffer buffer = outputBufferPool.acquire();
+                    try {
+                        writeFeed(feed, posts, buffer, false);
+                        content = buffer.toByteArray();
+                    } finally {
+                        outputBufferPool.release(buffer);
+                    }
+                }
+                String digest = feedDigest == null ? null : feedDigest.digest();
+                Map<String, byte[]> encodedContent = configProps.isPrecompressEnabled() ? compress(content) : emptyMap();
+                feedVariantStore.putVariants(RenderedFeedVariants.from(transportIdent, ATOM_PUBLISHER_ID, ATOM_CONTENT_TYPE, digest, content, encodedContent));
+            } catch (FeedException | XMLStreamException | IOException | RuntimeException e) {
+                // the feed itself has been stored; the serving tier falls back to compressing on read
+                log.warn("Unable to store ATOM feed variants for transportIdent={} due to: {}", transportIdent, e.getMessage());
+            }
+        }
+    }
+
+    private Map<String, byte[]> compress(byte[] content) throws IOException {
+        Map<String, byte[]> encodedContent = new LinkedHashMap<>(2);
+        if (feedCompressors != null) {
+            for (FeedCompressor feedCompressor : feedCompressors) {
+                encodedContent.put(feedCompressor.getEncoding(), feedCompressor.compress(content));
+            }
+        }
+        return encodedContent;
+    }
+
+    /**
+     * Retrieves the serialized, precompressed variants of the most recently published version of the given feed.
+     *
+     * @param transportIdent The transport identifier of the feed.
+     * @param publisherId    The publisher identifier of the feed format (i.e., RSS_20, ATOM_10 or JSON_FEED_11).
+     * @return The feed variants, or null if none are stored.
+     */
+    public final RenderedFeedVariants getFeedVariants(String transportIdent, String publisherId) {
+        return feedVariantStore == null ? null : feedVariantStore.getVariants(transportIdent, publisherId);
+    }
+
+    private void putPublishReport(String transportIdent, String publisherId, PublishReport publishReport) {
+        publishReports.computeIfAbsent(transportIdent, k -> new ConcurrentHashMap<>(2)).put(publisherId, publishReport);
+    }
+
+    /**
+     * Retrieves the report of the most recent successful publish of the given feed, including how many items were
+     * added, changed, unchanged, or removed relative to the publish before it.  Reports are retained for a bounded
+     * number of feeds; the reports of the least recently published feeds are forgotten first.
+     *
+     * @param transportIdent The transport identifier of the feed.
+     * @param publisherId    The publisher identifier of the feed format (i.e., RSS_20, ATOM_10 or JSON_FEED_11).
+     * @return The publish report, or null if the feed has not been published (or its report has been forgotten).
+     */
+    public final PublishReport getPublishReport(String transportIdent, String publisherId) {
+        Map<String, PublishReport> feedPublishReports = publishReports.get(transportIdent);
+        return feedPublishReports == null ? null : feedPublishReports.get(publisherId);
+    }
+
+    /**
+     * Discards everything retained about previous publishes of the given feed (the index used to diff against the
+     * previous publish, the digests of the stored feeds, the publish reports, the signatures of the published archive
+     * pages, and the stored feed variants), so that the next publish rebuilds and stores the feed unconditionally.  Call
+     * this if the stored feed may have been lost, or modified elsewhere.
+     *
+     * @param transportIdent The transport identifier of the feed.
+     */
+    public final void forgetFeed(String transportIdent) {
+        rssPublishIndex.remove(transportIdent);
+        atomPublishIndex.remove(transportIdent);
+        feedDigester.setStored(transportIdent, RSS_PUBLISHER_ID, null);
+        feedDigester.setStored(transportIdent, ATOM_PUBLISHER_ID, null);
+        publishReports.remove(transportIdent);
+        feedArchiver.forget(transportIdent);
+        if (feedVariantStore != null) {
+            feedVariantStore.removeVariants(transportIdent, RSS_PUBLISHER_ID);
+            feedVariantStore.removeVariants(transportIdent, ATOM_PUBLISHER_ID);
+            feedVariantStore.removeVariants(transportIdent, JSON_FEED_PUBLISHER_ID);
+        }
+    }
+
+    /**
+     * Discards the cached queue definitions of the given user, so that the next preview reloads them.  Call this when
+     * any of the user's queue definitions is created, modified, or deleted.
+     *
+     * @param username The user whose queue definitions changed.
+     */
+    public final void evictQueueDefinitions(String username) {
+        queueDefinitionCache.invalidate(username);
+    }
+
+    private PubResult awaitPubResult(String publisherId, Future<PubResult> pubResult, PublishAttempt attempt, long deadline, Date pubDate) {
+        List<Throwable> errors = new ArrayList<>(1);
+        try {
+            // a publish timeout of less than one means that publishes have no deadline
+            return configProps.getPublishTimeoutMillis() > 0L ?
+                    pubResult.get(max(0L, deadline - nanoTime()), NANOSECONDS) : pubResult.get();
+        } catch (ExecutionException e) {
+            errors.add(e.getCause());
+        } catch (TimeoutException e) {
+            awaitAbandoned(pubResult, attempt);
+            errors.add(new TimeoutException(publisherId + " publish did not complete within " + configProps.getPublishTimeoutMillis() + "ms"));
+        } catch (InterruptedException e) {
+            awaitAbandoned(pubResult, attempt);
+            currentThread().interrupt();
+            errors.add(e);
+        }
+        return newPubResult(publisherId, null, null, errors, pubDate);
+    }
+
+    /**
+     * Abandons the given publish, and waits for its format task to stop.  The task is not interrupted (a store write
+     * may not stop when interrupted); it stops at its next store or commit step instead.  Waiting for it keeps the
+     * transport identity locked until the task is done, so that it can never write to the store concurrently with (or
+     * after) the next publish of the same feed.
+     */
+    private static void awaitAbandoned(Future<PubResult> pubResult, PublishAttempt attempt) {
+        attempt.abandon();
+        boolean interrupted = false;
+        while (true) {
+            try {
+                pubResult.get();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            } catch (ExecutionException | CancellationException e) {
+                break;
+            }
+        }
+        if (interrupted) {
+            currentThread().interrupt();
+        }
     }
 
     /**
@@ -128,7 +1113,8 @@ public class RSSPublisher implements Publisher {
     }
 
     /**
-     * Checks if the publisher supports a given publication format (RSS or ATOM).
+     * Checks if the publisher supports a given publication format (RSS or ATOM).  JSON feeds have no publication format;
+     * they are previewed with {@link #doJsonFeedPreview}.
      *
      * @param pubFormat The publication format to check.
      * @return True if the publisher supports the format, false otherwise.
@@ -140,7 +1126,8 @@ public class RSSPublisher implements Publisher {
 
 
     /**
-     * Generates feed previews for a list of staging posts in the specified format.
+     * Generates feed previews for a list of staging posts in the specified format.  Previews of multiple feeds are
+     * rendered concurrently, and are returned in the order in which their feeds first appear in the incoming posts.
      *
      * @param username       The username of the user.
      * @param incomingPosts  The list of staging posts to generate previews for.
@@ -150,66 +1137,203 @@ public class RSSPublisher implements Publisher {
      */
     @Override
     public final List<FeedPreview> doPreview(String username, List<StagingPost> incomingPosts, PubFormat format) throws DataAccessException {
+        return preview(username, incomingPosts, format == RSS ? RSS_PUBLISHER_ID : format == ATOM ? ATOM_PUBLISHER_ID : null);
+    }
+
+    /**
+     * Generates JSON Feed 1.1 previews for a list of staging posts, in the same way as {@link #doPreview}.
+     *
+     * @param username      The username of the user.
+     * @param incomingPosts The list of staging posts to generate previews for.
+     * @return A list of feed preview artifacts.
+     * @throws DataAccessException If an error occurs accessing data.
+     */
+    public final List<FeedPreview> doJsonFeedPreview(String username, List<StagingPost> incomingPosts) throws DataAccessException {
+        return preview(username, incomingPosts, JSON_FEED_PUBLISHER_ID);
+    }
+
+    private List<FeedPreview> preview(String username, List<StagingPost> incomingPosts, String publisherId) throws DataAccessException {
         log.info("RSS publisher has to {} posts to preview at {}", size(incomingPosts), now());
-        // group posts by output file for tag
-        Map<Long, List<StagingPost>> postsByFeedId = new HashMap<>(16);
+        // group posts by output file for tag, in order of first appearance; buckets grow with their own contents
+        Map<Long, List<StagingPost>> postsByFeedId = new LinkedHashMap<>(16);
         for (StagingPost incomingPost : incomingPosts) {
-            postsByFeedId.computeIfAbsent(incomingPost.getQueueId(), t -> new ArrayList<>(size(incomingPosts))).add(incomingPost);
+            postsByFeedId.computeIfAbsent(incomingPost.getQueueId(), t -> new ArrayList<>()).add(incomingPost);
         }
-        List<FeedPreview> feedPreviews = new ArrayList<>(postsByFeedId.keySet().size());
-        for (Map.Entry<Long, List<StagingPost>> e : postsByFeedId.entrySet()) {
-            FeedPreview feedPreview = previewFeed(username, e.getKey(), e.getValue(), format);
+        // resolve the queue definitions of all feeds, from the cache where possible
+        long start = nanoTime();
+        Map<Long, QueueDefinition> queueDefinitions = queueDefinitionCache.findByQueueIds(username, postsByFeedId.keySet());
+        publisherMetrics.recordPhase(OPERATION_PREVIEW, PHASE_LOOKUP, ALL_FORMATS, nanoTime() - start);
+        List<FeedPreview> feedPreviews = new ArrayList<>(postsByFeedId.size());
+        if (postsByFeedId.size() == 1) {
+            Map.Entry<Long, List<StagingPost>> e = postsByFeedId.entrySet().iterator().next();
+            FeedPreview feedPreview = previewFeed(queueDefinitions.get(e.getKey()), e.getKey(), e.getValue(), publisherId);
             if (feedPreview != null) {
                 feedPreviews.add(feedPreview);
             }
+        } else {
+            // render the feeds concurrently, and collect the previews in grouping order
+            List<Future<FeedPreview>> pendingPreviews = new ArrayList<>(postsByFeedId.size());
+            for (Map.Entry<Long, List<StagingPost>> e : postsByFeedId.entrySet()) {
+                QueueDefinition queueDefinition = queueDefinitions.get(e.getKey());
+                pendingPreviews.add(previewExecutor.submit(() -> previewFeed(queueDefinition, e.getKey(), e.getValue(), publisherId)));
+            }
+            awaitFeedPreviews(pendingPreviews, feedPreviews);
         }
         log.info("RSS publisher preview finished at {}", now());
         return feedPreviews;
     }
 
-    private FeedPreview previewFeed(String username, Long feedId, Collection<? extends StagingPost> stagingPosts, PubFormat format) throws DataAccessException {
-        log.info("Previewing feed with id={}, format={}", (feedId == null ? "(all)" : feedId), format);
+    private static void awaitFeedPreviews(List<Future<FeedPreview>> pendingPreviews, Collection<? super FeedPreview> feedPreviews) {
+        for (Future<FeedPreview> pendingPreview : pendingPreviews) {
+            try {
+                FeedPreview feedPreview = pendingPreview.get();
+                if (feedPreview != null) {
+                    feedPreviews.add(feedPreview);
+                }
+            } catch (ExecutionException e) {
+                log.error("Unable to preview feed due to: {}", e.getCause() == null ? e.getMessage() : e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                currentThread().interrupt();
+                for (Future<FeedPreview> remainingPreview : pendingPreviews) {
+                    remainingPreview.cancel(true);
+                }
+                log.error("Interrupted while awaiting feed previews");
+                break;
+            }
+        }
+    }
+
+    private FeedPreview previewFeed(QueueDefinition queueDefinition, Long feedId, Collection<? extends StagingPost> stagingPosts, String publisherId) {
+        log.info("Previewing feed with id={}, publisherId={}", (feedId == null ? "(all)" : feedId), publisherId);
         String previewArtifact = EMPTY;
-        QueueDefinition queueDefinition = queueDefinitionDao.findByQueueId(username, feedId);
         if (queueDefinition != null) {
             String transportIdent = queueDefinition.getTransportIdent();
             try {
-                if (format == RSS) {
+                if (RSS_PUBLISHER_ID.equals(publisherId)) {
                     // preview the RSS feed
-                    Channel channel = rssChannelBuilder.buildChannel(queueDefinition, stagingPosts, new Date());
+                    List<NormalizedPost> posts = partitionPosts(OPERATION_PREVIEW, normalizePosts(OPERATION_PREVIEW, stagingPosts)).getHead();
+                    QueueRenderContext renderContext = parseQueueConfig(OPERATION_PREVIEW, queueDefinition);
+                    long start = nanoTime();
+                    Channel channel = rssChannelBuilder.buildChannelHeader(queueDefinition, renderContext, posts, new Date());
+                    posts = fitChannel(renderContext, channel, posts, RSSChannelItemBuilder::toItem).getPosts();
+                    publisherMetrics.recordPhase(OPERATION_PREVIEW, PHASE_BUILD, RSS_PUBLISHER_ID, nanoTime() - start);
+                    publisherMetrics.recordItemCount(OPERATION_PREVIEW, RSS_PUBLISHER_ID, size(channel.getItems()));
                     log.info("Rendered RSS feed for feedId={}, transportIdent={}", feedId, transportIdent);
-                    WireFeedOutput wireFeedOutput = new WireFeedOutput();
-                    StringWriter channelWriter = new StringWriter();
-                    wireFeedOutput.output(channel, channelWriter);
-                    previewArtifact = channelWriter.toString();
-                } else if (format == ATOM) {
+                    start = nanoTime();
+                    PooledOutputBuffer buffer = outputBufferPool.acquire();
+                    try {
+                        writeChannel(channel, posts, buffer, true);
+                        previewArtifact = buffer.toString(UTF_8);
+                        publisherMetrics.recordPhase(OPERATION_PREVIEW, PHASE_SERIALIZE, RSS_PUBLISHER_ID, nanoTime() - start);
+                        publisherMetrics.recordRenderedBytes(OPERATION_PREVIEW, RSS_PUBLISHER_ID, buffer.size());
+                    } finally {
+                        outputBufferPool.release(buffer);
+                    }
+                } else if (ATOM_PUBLISHER_ID.equals(publisherId)) {
                     // preview the ATOM feed
-                    Feed feed = atomFeedBuilder.buildFeed(queueDefinition, stagingPosts, new Date());
+                    List<NormalizedPost> posts = partitionPosts(OPERATION_PREVIEW, normalizePosts(OPERATION_PREVIEW, stagingPosts)).getHead();
+                    QueueRenderContext renderContext = parseQueueConfig(OPERATION_PREVIEW, queueDefinition);
+                    Date pubDate = new Date();
+                    long start = nanoTime();
+                    Feed feed = atomFeedBuilder.buildFeedHeader(queueDefinition, renderContext, posts);
+                    posts = fitFeed(renderContext, feed, posts, pubDate, post -> ATOMFeedEntryBuilder.toEntry(post, pubDate)).getPosts();
+                    publisherMetrics.recordPhase(OPERATION_PREVIEW, PHASE_BUILD, ATOM_PUBLISHER_ID, nanoTime() - start);
+                    publisherMetrics.recordItemCount(OPERATION_PREVIEW, ATOM_PUBLISHER_ID, size(feed.getEntries()));
                     log.info("Published ATOM feed for feedId={}, transportIdent={}", feedId, transportIdent);
-                    WireFeedOutput wireFeedOutput = new WireFeedOutput();
-                    StringWriter feedWriter = new StringWriter();
-                    wireFeedOutput.output(feed, feedWriter);
-                    previewArtifact = feedWriter.toString();
+                    start = nanoTime();
+                    PooledOutputBuffer buffer = outputBufferPool.acquire();
+                    try {
+                        writeFeed(feed, posts, buffer, true);
+                        previewArtifact = buffer.toString(UTF_8);
+                        publisherMetrics.recordPhase(OPERATION_PREVIEW, PHASE_SERIALIZE, ATOM_PUBLISHER_ID, nanoTime() - start);
+                        publisherMetrics.recordRenderedBytes(OPERATION_PREVIEW, ATOM_PUBLISHER_ID, buffer.size());
+                    } finally {
+                        outputBufferPool.release(buffer);
+                    }
+                } else if (JSON_FEED_PUBLISHER_ID.equals(publisherId)) {
+                    // preview the JSON feed
+                    List<NormalizedPost> posts = partitionPosts(OPERATION_PREVIEW, normalizePosts(OPERATION_PREVIEW, stagingPosts)).getHead();
+                    QueueRenderContext renderContext = parseQueueConfig(OPERATION_PREVIEW, queueDefinition);
+                    posts = fitJsonFeed(queueDefinition, renderContext, posts).getPosts();
+                    publisherMetrics.recordItemCount(OPERATION_PREVIEW, JSON_FEED_PUBLISHER_ID, posts.size());
+                    long start = nanoTime();
+                    PooledOutputBuffer buffer = outputBufferPool.acquire();
+                    try {
+                        writeJsonFeed(queueDefinition, renderContext, posts, buffer, true);
+                        previewArtifact = buffer.toString(UTF_8);
+                        publisherMetrics.recordPhase(OPERATION_PREVIEW, PHASE_SERIALIZE, JSON_FEED_PUBLISHER_ID, nanoTime() - start);
+                        publisherMetrics.recordRenderedBytes(OPERATION_PREVIEW, JSON_FEED_PUBLISHER_ID, buffer.size());
+                    } finally {
+                        outputBufferPool.release(buffer);
+                    }
+                    log.info("Rendered JSON feed for feedId={}, transportIdent={}", feedId, transportIdent);
                 }
-            } catch (FeedException | IOException | IllegalArgumentException e) {
+            } catch (FeedException | XMLStreamException | IOException | IllegalArgumentException e) {
                 log.error("Unable to rendered feed due to: {}", e.getMessage());
             }
         } else {
             log.warn("Unable to locate feed definition with Id={}", feedId);
         }
 
-        //noinspection HardcodedLineSeparator
-        previewArtifact = previewArtifact
-                .replace("\n", EMPTY)
-                .replace("\r", EMPTY);
-
+        // line breaks were dropped as the preview was written
         return FeedPreview.from(feedId, previewArtifact);
     }
 
+    /**
+     * Writes the channel to the given stream as UTF-8, optionally dropping line breaks as it is written.
+     */
+    private void writeChannel(Channel channel, List<NormalizedPost> posts, OutputStream out, boolean stripLineBreaks) throws FeedException, XMLStreamException, IOException {
+        Writer writer = newUtf8Writer(out, stripLineBreaks);
+        if (configProps.isStreamingWriterEnabled() && StreamingFeedWriter.supportsFeedType(channel.getFeedType())) {
+            streamingFeedWriter.writeChannel(channel, posts, writer);
+        } else {
+            writer.write(cachingFeedRenderer.renderChannel(channel, posts));
+        }
+        writer.flush();
+    }
+
+    /**
+     * Writes the feed to the given stream as UTF-8, optionally dropping line breaks as it is written.
+     */
+    private void writeFeed(Feed feed, List<NormalizedPost> posts, OutputStream out, boolean stripLineBreaks) throws FeedException, XMLStreamException, IOException {
+        Writer writer = newUtf8Writer(out, stripLineBreaks);
+        if (configProps.isStreamingWriterEnabled() && StreamingFeedWriter.supportsFeedType(feed.getFeedType())) {
+            streamingFeedWriter.writeFeed(feed, posts, writer);
+        } else {
+            writer.write(cachingFeedRenderer.renderFeed(feed, posts));
+        }
+        writer.flush();
+    }
+
+    /**
+     * Writes the JSON feed of the queue to the given stream as UTF-8, optionally dropping line breaks as it is written.
+     */
+    private void writeJsonFeed(QueueDefinition queueDefinition, QueueRenderContext renderContext, List<NormalizedPost> posts, OutputStream out, boolean stripLineBreaks) throws IOException {
+        Writer writer = newUtf8Writer(out, stripLineBreaks);
+        jsonFeedWriter.writeFeed(queueDefinition, renderContext, posts, writer);
+        writer.flush();
+    }
+
+    private static Writer newUtf8Writer(OutputStream out, boolean stripLineBreaks) {
+        Writer writer = new OutputStreamWriter(out, UTF_8);
+        return stripLineBreaks ? new LineBreakFilterWriter(writer) : writer;
+    }
+
+    // every format of every publish runs on the publish thread pool, and spends most of its time on store I/O
+    private static final int DEFAULT_PUBLISH_THREAD_POOL_SIZE = 16;
+
     static final String RSS_PUBLISHER_ID = "RSS_20";
 
     static final String ATOM_PUBLISHER_ID = "ATOM_10";
 
+    static final String JSON_FEED_PUBLISHER_ID = "JSON_FEED_11";
+
+    private static final String RSS_CONTENT_TYPE = "application/rss+xml; charset=UTF-8";
+
+    private static final String ATOM_CONTENT_TYPE = "application/atom+xml; charset=UTF-8";
+
+    private static final String JSON_FEED_CONTENT_TYPE = "application/feed+json; charset=UTF-8";
+
     @Override
     public final String toString() {
         return "RSSPublisher{" +
@@ -218,6 +1342,9 @@ public class RSSPublisher implements Publisher {
                 ", atomFeedBuilder=" + atomFeedBuilder +
                 ", queueDefinitionDao=" + queueDefinitionDao +
                 ", renderedFeedDao=" + renderedFeedDao +
+                ", publisherMetrics=" + publisherMetrics +
+                ", feedCompressors=" + feedCompressors +
+                ", feedVariantStore=" + feedVariantStore +
                 '}';
     }
 }
@@ -1,7 +1,11 @@
 package com.lostsidewalk.buffy.rss;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -44,6 +48,32 @@ public class RSSPublisherConfig {
         return new ATOMFeedBuilder(configProps);
     }
 
+    /**
+     * Creates a bean for the PublisherMetrics, which records publish and preview timings, sizes, and errors.  Metrics
+     * are registered with the application's MeterRegistry if there is one, or with a local SimpleMeterRegistry if not.
+     *
+     * @param meterRegistry A provider of the application's {@link MeterRegistry}, if any.
+     * @return An instance of {@link PublisherMetrics}.
+     */
+    @SuppressWarnings("DesignForExtension")
+    @Bean
+    PublisherMetrics publisherMetrics(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new PublisherMetrics(meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    /**
+     * Creates a bean for the gzip FeedCompressor, which produces the gzip variant of each published feed.  It is only
+     * registered if precompression is enabled.
+     *
+     * @return An instance of {@link FeedCompressor} configured with the gzip level from {@link RSSPublisherConfigProps}.
+     */
+    @SuppressWarnings("DesignForExtension")
+    @Bean
+    @ConditionalOnProperty(prefix = "rss.publisher", name = "precompress-enabled", havingValue = "true")
+    FeedCompressor gzipFeedCompressor() {
+        return new GzipFeedCompressor(configProps.getGzipLevel());
+    }
+
     @Override
     public final String toString() {
         return "RSSPublisherConfig{" +
@@ -18,12 +18,43 @@ public class RSSPublisherConfigProps {
     String channelLinkTemplate;
     String channelUriTemplate;
     String channelImageUrlTemplate;
+    String channelJsonFeedUrlTemplate;
+    UrlTemplate compiledChannelLinkTemplate;
+    UrlTemplate compiledChannelUriTemplate;
+    UrlTemplate compiledChannelImageUrlTemplate;
+    UrlTemplate compiledChannelJsonFeedUrlTemplate;
     String rssFeedType;
     String atomFeedType;
     int channelTtl;
     String defaultGeneratorValue;
     String defaultGeneratorUrl;
     String defaultGeneratorVersion;
+    int publishThreadPoolSize;
+    long publishTimeoutMillis = 30_000L;
+    int batchPublishParallelism;
+    long itemFragmentCacheMaxBytes = 33_554_432L;
+    boolean streamingWriterEnabled = true;
+    boolean skipUnchangedWrites = true;
+    boolean precompressEnabled;
+    int gzipLevel = 6;
+    long queueDefinitionCacheTtlMillis = 60_000L;
+    long queueDefinitionCacheMaxEntries = 10_000L;
+    int previewParallelism;
+    int outputBufferPoolSize = 16;
+    int outputBufferMaxRetainedBytes = 1_048_576;
+    boolean outputBufferDirect;
+    int maxItemsPerFeed;
+    int archivePageSize = 100;
+    long maxFeedBytes;
+    boolean jsonFeedEnabled;
+    int asyncPublishThreadPoolSize;
+    int asyncPublishMaxInFlight = 64;
+    long asyncPublishAcquireTimeoutMillis;
+    int publishLockStripes = PublishCoalescer.DEFAULT_LOCK_STRIPES;
+    long publishDebounceMillis;
+    long publishIndexMaxPosts = 1_000_000L;
+    long publishStateMaxFeeds = 100_000L;
+    int warmUpIterations = 20;
 
     /**
      * Default constructor; initializes the object.
@@ -86,6 +117,11 @@ public class RSSPublisherConfigProps {
     @SuppressWarnings("unused")
     public final void setChannelLinkTemplate(String channelLinkTemplate) {
         this.channelLinkTemplate = channelLinkTemplate;
+        this.compiledChannelLinkTemplate = UrlTemplate.compile(channelLinkTemplate);
+    }
+
+    final UrlTemplate getCompiledChannelLinkTemplate() {
+        return compiledChannelLinkTemplate;
     }
 
     /**
@@ -105,6 +141,11 @@ public class RSSPublisherConfigProps {
     @SuppressWarnings("unused")
     public final void setChannelUriTemplate(String channelUriTemplate) {
         this.channelUriTemplate = channelUriTemplate;
+        this.compiledChannelUriTemplate = UrlTemplate.compile(channelUriTemplate);
+    }
+
+    final UrlTemplate getCompiledChannelUriTemplate() {
+        return compiledChannelUriTemplate;
     }
 
     /**
@@ -124,6 +165,35 @@ public class RSSPublisherConfigProps {
     @SuppressWarnings("unused")
     public final void setChannelImageUrlTemplate(String channelImageUrlTemplate) {
         this.channelImageUrlTemplate = channelImageUrlTemplate;
+        this.compiledChannelImageUrlTemplate = UrlTemplate.compile(channelImageUrlTemplate);
+    }
+
+    final UrlTemplate getCompiledChannelImageUrlTemplate() {
+        return compiledChannelImageUrlTemplate;
+    }
+
+    /**
+     * Gets the configured JSON Feed URL template.
+     *
+     * @return The JSON Feed URL template, or null if JSON feeds have no URL of their own.
+     */
+    public final String getChannelJsonFeedUrlTemplate() {
+        return channelJsonFeedUrlTemplate;
+    }
+
+    /**
+     * Sets the JSON Feed URL template.
+     *
+     * @param channelJsonFeedUrlTemplate The JSON Feed URL template to set.
+     */
+    @SuppressWarnings("unused")
+    public final void setChannelJsonFeedUrlTemplate(String channelJsonFeedUrlTemplate) {
+        this.channelJsonFeedUrlTemplate = channelJsonFeedUrlTemplate;
+        this.compiledChannelJsonFeedUrlTemplate = UrlTemplate.compile(channelJsonFeedUrlTemplate);
+    }
+
+    final UrlTemplate getCompiledChannelJsonFeedUrlTemplate() {
+        return compiledChannelJsonFeedUrlTemplate;
     }
 
     /**
@@ -240,6 +310,531 @@ public class RSSPublisherConfigProps {
         this.defaultGeneratorVersion = defaultGeneratorVersion;
     }
 
+    /**
+     * Gets the configured size of the thread pool used to render and store feed formats concurrently; values less than
+     * one indicate the default size (16).
+     *
+     * @return The publish thread pool size.
+     */
+    public final int getPublishThreadPoolSize() {
+        return publishThreadPoolSize;
+    }
+
+    /**
+     * Sets the size of the thread pool used to render and store feed formats concurrently.
+     *
+     * @param publishThreadPoolSize The publish thread pool size to set.
+     */
+    @SuppressWarnings("unused")
+    public final void setPublishThreadPoolSize(int publishThreadPoolSize) {
+        this.publishThreadPoolSize = publishThreadPoolSize;
+    }
+
+    /**
+     * Gets the configured deadline, in milliseconds, within which each feed format must be published; values less than
+     * one indicate that publishes have no deadline.
+     *
+     * @return The publish timeout in milliseconds.
+     */
+    public final long getPublishTimeoutMillis() {
+        return publishTimeoutMillis;
+    }
+
+    /**
+     * Sets the deadline, in milliseconds, within which each feed format must be published.
+     *
+     * @param publishTimeoutMillis The publish timeout in milliseconds to set.
+     */
+    @SuppressWarnings("unused")
+    public final void setPublishTimeoutMillis(long publishTimeoutMillis) {
+        this.publishTimeoutMillis = publishTimeoutMillis;
+    }
+
+    /**
+     * Gets the configured parallelism of the fork/join pool used for batch publishing; values less than one
+     * indicate that the number of available processors should be used.
+     *
+     * @return The batch publish parallelism.
+     */
+    public final int getBatchPublishParallelism() {
+        return batchPublishParallelism;
+    }
+
+    /**
+     * Sets the parallelism of the fork/join pool used for batch publishing.
+     *
+     * @param batchPublishParallelism The batch publish parallelism to set.
+     */
+    @SuppressWarnings("unused")
+    public final void setBatchPublishParallelism(int batchPublishParallelism) {
+        this.batchPublishParallelism = batchPublishParallelism;
+    }
+
+    /**
+     * Gets the configured maximum size, in bytes, of the cache of rendered item/entry XML fragments.
+     *
+     * @return The maximum item fragment cache size in bytes.
+     */
+    public final long getItemFragmentCacheMaxBytes() {
+        return itemFragmentCacheMaxBytes;
+    }
+
+    /**
+     * Sets the maximum size, in bytes, of the cache of rendered item/entry XML fragments.
+     *
+     * @param itemFragmentCacheMaxBytes The maximum item fragment cache size in bytes to set.
+     */
+    @SuppressWarnings("unused")
+    public final void setItemFragmentCacheMaxBytes(long itemFragmentCacheMaxBytes) {
+        this.itemFragmentCacheMaxBytes = itemFragmentCacheMaxBytes;
+    }
+
+    /**
+     * Gets whether feeds are rendered with the streaming (StAX) writer rather than by building a ROME/JDOM document.
+     *
+     * @return True if the streaming writer is enabled.
+     */
+    public final boolean isStreamingWriterEnabled() {
+        return streamingWriterEnabled;
+    }
+
+    /**
+     * Sets whether feeds are rendered with the streaming (StAX) writer rather than by building a ROME/JDOM document.
+     *
+     * @param streamingWriterEnabled True to enable the streaming writer.
+     */
+    @SuppressWarnings("unused")
+    public final void setStreamingWriterEnabled(boolean streamingWriterEnabled) {
+        this.streamingWriterEnabled = streamingWriterEnabled;
+    }
+
+    /**
+     * Gets whether publishing skips the store write for feeds whose content digest matches the last stored feed.  The
+     * digest of a stored feed is kept with its variants in the application's feed variant store, if it has one;
+     * otherwise, it is remembered by this publisher instance only, and this should be turned off if other instances
+     * publish the same feeds, or if the store evicts or expires feeds.
+     *
+     * @return True if unchanged writes are skipped.
+     */
+    public final boolean isSkipUnchangedWrites() {
+        return skipUnchangedWrites;
+    }
+
+    /**
+     * Sets whether publishing skips the store write for feeds whose content digest matches the last stored feed.
+     *
+     * @param skipUnchangedWrites True to skip unchanged writes.
+     */
+    @SuppressWarnings("unused")
+    public final void setSkipUnchangedWrites(boolean skipUnchangedWrites) {
+        this.skipUnchangedWrites = skipUnchangedWrites;
+    }
+
+    /**
+     * Gets whether published feeds are serialized and precompressed into the feed variant store.  This is off by
+     * default, as no store is provided: it has no effect unless the application registers a {@link FeedVariantStore}
+     * bean.  When it is on, the gzip compressor is registered.
+     *
+     * @return True if precompression is enabled.
+     */
+    public final boolean isPrecompressEnabled() {
+        return precompressEnabled;
+    }
+
+    /**
+     * Sets whether published feeds are serialized and precompressed into the feed variant store.
+     *
+     * @param precompressEnabled True to enable precompression.
+     */
+    @SuppressWarnings("unused")
+    public final void setPrecompressEnabled(boolean precompressEnabled) {
+        this.precompressEnabled = precompressEnabled;
+    }
+
+    /**
+     * Gets the configured gzip compression level (0-9) for precompressed feeds.
+     *
+     * @return The gzip compression level.
+     */
+    public final int getGzipLevel() {
+        return gzipLevel;
+    }
+
+    /**
+     * Sets the gzip compression level (0-9) for precompressed feeds.
+     *
+     * @param gzipLevel The gzip compression level to set.
+     */
+    @SuppressWarnings("unused")
+    public final void setGzipLevel(int gzipLevel) {
+        this.gzipLevel = gzipLevel;
+    }
+
+    /**
+     * Gets the time (in milliseconds) for which queue definitions looked up for previews are cached.
+     *
+     * @return The queue definition cache TTL in milliseconds.
+     */
+    public final long getQueueDefinitionCacheTtlMillis() {
+        return queueDefinitionCacheTtlMillis;
+    }
+
+    /**
+     * Sets the time (in milliseconds) for which queue definitions looked up for previews are cached, or 0 to disable
+     * caching.
+     *
+     * @param queueDefinitionCacheTtlMillis The queue definition cache TTL in milliseconds to set.
+     */
+    @SuppressWarnings("unused")
+    public final void setQueueDefinitionCacheTtlMillis(long queueDefinitionCacheTtlMillis) {
+        this.queueDefinitionCacheTtlMillis = queueDefinitionCacheTtlMillis;
+    }
+
+    /**
+     * Gets the maximum number of queue definitions held in the preview queue definition cache.
+     *
+     * @return The maximum number of cached queue definitions.
+     */
+    public final long getQueueDefinitionCacheMaxEntries() {
+        return queueDefinitionCacheMaxEntries;
+    }
+
+    /**
+     * Sets the maximum number of queue definitions held in the preview queue definition cache.
+     *
+     * @param queueDefinitionCacheMaxEntries The maximum number of cached queue definitions to set.
+     */
+    @SuppressWarnings("unused")
+    public final void setQueueDefinitionCacheMaxEntries(long queueDefinitionCacheMaxEntries) {
+        this.queueDefinitionCacheMaxEntries = queueDefinitionCacheMaxEntries;
+    }
+
+    /**
+     * Gets the configured number of threads used to render feed previews concurrently; values less than one
+     * indicate that the number of available processors should be used.
+     *
+     * @return The preview parallelism.
+     */
+    public final int getPreviewParallelism() {
+        return previewParallelism;
+    }
+
+    /**
+     * Sets the number of threads used to render feed previews concurrently.
+     *
+     * @param previewParallelism The preview parallelism to set.
+     */
+    @SuppressWarnings("unused")
+    public final void setPreviewParallelism(int previewParallelism) {
+        this.previewParallelism = previewParallelism;
+    }
+
+    /**
+     * Gets the maximum number of serialization buffers retained for reuse.
+     *
+     * @return The output buffer pool size.
+     */
+    public final int getOutputBufferPoolSize() {
+        return outputBufferPoolSize;
+    }
+
+    /**
+     * Sets the maximum number of serialization buffers retained for reuse.
+     *
+     * @param outputBufferPoolSize The output buffer pool size to set.
+     */
+    @SuppressWarnings("unused")
+    public final void setOutputBufferPoolSize(int outputBufferPoolSize) {
+        this.outputBufferPoolSize = outputBufferPoolSize;
+    }
+
+    /**
+     * Gets the maximum capacity (in bytes) of a serialization buffer that is retained for reuse; larger buffers are
+     * discarded after use.
+     *
+     * @return The maximum retained output buffer size in bytes.
+     */
+    public final int getOutputBufferMaxRetainedBytes() {
+        return outputBufferMaxRetainedBytes;
+    }
+
+    /**
+     * Sets the maximum capacity (in bytes) of a serialization buffer that is retained for reuse.
+     *
+     * @param outputBufferMaxRetainedBytes The maximum retained output buffer size in bytes to set.
+     */
+    @SuppressWarnings("unused")
+    public final void setOutputBufferMaxRetainedBytes(int outputBufferMaxRetainedBytes) {
+        this.outputBufferMaxRetainedBytes = outputBufferMaxRetainedBytes;
+    }
+
+    /**
+     * Gets whether serialization buffers are allocated outside of the Java heap (direct buffers).
+     *
+     * @return True if direct buffers are used.
+     */
+    public final boolean isOutputBufferDirect() {
+        return outputBufferDirect;
+    }
+
+    /**
+     * Sets whether serialization buffers are allocated outside of the Java heap (direct buffers).
+     *
+     * @param outputBufferDirect True to use direct buffers.
+     */
+    @SuppressWarnings("unused")
+    public final void setOutputBufferDirect(boolean outputBufferDirect) {
+        this.outputBufferDirect = outputBufferDirect;
+    }
+
+    /**
+     * Gets the maximum number of items in a published feed; the newest posts are kept, and older posts roll into
+     * archive pages.  Values less than one indicate that feeds are unbounded.
+     *
+     * @return The maximum number of items per feed.
+     */
+    public final int getMaxItemsPerFeed() {
+        return maxItemsPerFeed;
+    }
+
+    /**
+     * Sets the maximum number of items in a published feed.
+     *
+     * @param maxItemsPerFeed The maximum number of items per feed to set.
+     */
+    @SuppressWarnings("unused")
+    public final void setMaxItemsPerFeed(int maxItemsPerFeed) {
+        this.maxItemsPerFeed = maxItemsPerFeed;
+    }
+
+    /**
+     * Gets the number of items in each RFC 5005 archive page of a bounded feed.  Values less than one indicate that
+     * posts beyond the maximum number of items per feed are dropped rather than archived.
+     *
+     * @return The archive page size.
+     */
+    public final int getArchivePageSize() {
+        return archivePageSize;
+    }
+
+    /**
+     * Sets the number of items in each RFC 5005 archive page of a bounded feed.
+     *
+     * @param archivePageSize The archive page size to set.
+     */
+    @SuppressWarnings("unused")
+    public final void setArchivePageSize(int archivePageSize) {
+        this.archivePageSize = archivePageSize;
+    }
+
+    /**
+     * Gets the maximum size of a rendered feed, in bytes, beyond which item content is excerpted or items are dropped;
+     * zero (the default) for no limit.  RSS and ATOM feeds are measured as ROME renders the stored feed when it is
+     * served.  Queues may override this with a top-level maxFeedBytes property in their export config.
+     *
+     * @return The maximum size of a rendered feed, in bytes.
+     */
+    public final long getMaxFeedBytes() {
+        return maxFeedBytes;
+    }
+
+    /**
+     * Sets the maximum size of a rendered feed, in bytes.
+     *
+     * @param maxFeedBytes The maximum size of a rendered feed, in bytes, or zero for no limit.
+     */
+    @SuppressWarnings("unused")
+    public final void setMaxFeedBytes(long maxFeedBytes) {
+        this.maxFeedBytes = maxFeedBytes;
+    }
+
+    /**
+     * Gets whether feeds are also published in JSON Feed 1.1 format.  The rendered feed DAO only stores RSS and ATOM
+     * feeds, so JSON feeds are stored in the feed variant store, alongside the precompressed RSS and ATOM feeds; they
+     * are only published if the application registers a {@link FeedVariantStore} bean.  Off by default.
+     *
+     * @return True if JSON feeds are published.
+     */
+    public final boolean isJsonFeedEnabled() {
+        return jsonFeedEnabled;
+    }
+
+    /**
+     * Sets whether feeds are also published in JSON Feed 1.1 format.
+     *
+     * @param jsonFeedEnabled True to publish JSON feeds.
+     */
+    @SuppressWarnings("unused")
+    public final void setJsonFeedEnabled(boolean jsonFeedEnabled) {
+        this.jsonFeedEnabled = jsonFeedEnabled;
+    }
+
+    /**
+     * Gets the number of threads that run asynchronous publishes.  Values less than one indicate the number of
+     * available processors.
+     *
+     * @return The asynchronous publish thread pool size.
+     */
+    public final int getAsyncPublishThreadPoolSize() {
+        return asyncPublishThreadPoolSize;
+    }
+
+    /**
+     * Sets the number of threads that run asynchronous publishes.
+     *
+     * @param asyncPublishThreadPoolSize The asynchronous publish thread pool size to set.
+     */
+    @SuppressWarnings("unused")
+    public final void setAsyncPublishThreadPoolSize(int asyncPublishThreadPoolSize) {
+        this.asyncPublishThreadPoolSize = asyncPublishThreadPoolSize;
+    }
+
+    /**
+     * Gets the maximum number of asynchronous publishes that may be queued or running at once.  Further publishes wait
+     * for a slot (see the asynchronous publish acquire timeout), or are rejected.
+     *
+     * @return The maximum number of in-flight asynchronous publishes.
+     */
+    public final int getAsyncPublishMaxInFlight() {
+        return asyncPublishMaxInFlight;
+    }
+
+    /**
+     * Sets the maximum number of asynchronous publishes that may be queued or running at once.
+     *
+     * @param asyncPublishMaxInFlight The maximum number of in-flight asynchronous publishes to set.
+     */
+    @SuppressWarnings("unused")
+    public final void setAsyncPublishMaxInFlight(int asyncPublishMaxInFlight) {
+        this.asyncPublishMaxInFlight = asyncPublishMaxInFlight;
+    }
+
+    /**
+     * Gets how long, in milliseconds, an asynchronous publish waits for an in-flight slot before it is rejected.
+     * Values less than one indicate that publishes are rejected immediately when all slots are taken.
+     *
+     * @return The asynchronous publish acquire timeout, in milliseconds.
+     */
+    public final long getAsyncPublishAcquireTimeoutMillis() {
+        return asyncPublishAcquireTimeoutMillis;
+    }
+
+    /**
+     * Sets how long, in milliseconds, an asynchronous publish waits for an in-flight slot before it is rejected.
+     *
+     * @param asyncPublishAcquireTimeoutMillis The asynchronous publish acquire timeout to set, in milliseconds.
+     */
+    @SuppressWarnings("unused")
+    public final void setAsyncPublishAcquireTimeoutMillis(long asyncPublishAcquireTimeoutMillis) {
+        this.asyncPublishAcquireTimeoutMillis = asyncPublishAcquireTimeoutMillis;
+    }
+
+    /**
+     * Gets the number of striped locks that serialize the publishes of each transport identity; values less than one
+     * indicate the default (64).
+     *
+     * @return The number of publish lock stripes.
+     */
+    public final int getPublishLockStripes() {
+        return publishLockStripes;
+    }
+
+    /**
+     * Sets the number of striped locks that serialize the publishes of each transport identity.
+     *
+     * @param publishLockStripes The number of publish lock stripes to set.
+     */
+    @SuppressWarnings("unused")
+    public final void setPublishLockStripes(int publishLockStripes) {
+        this.publishLockStripes = publishLockStripes;
+    }
+
+    /**
+     * Gets the time (in milliseconds) for which a publish waits for further publishes of the same transport identity,
+     * which replace it, before it runs.  A value of 0 disables the debounce window; publishes that arrive while another
+     * publish of the same transport identity is running are still coalesced.
+     *
+     * @return The publish debounce window, in milliseconds.
+     */
+    public final long getPublishDebounceMillis() {
+        return publishDebounceMillis;
+    }
+
+    /**
+     * Sets the time (in milliseconds) for which a publish waits for further publishes of the same transport identity
+     * before it runs.
+     *
+     * @param publishDebounceMillis The publish debounce window to set, in milliseconds.
+     */
+    @SuppressWarnings("unused")
+    public final void setPublishDebounceMillis(long publishDebounceMillis) {
+        this.publishDebounceMillis = publishDebounceMillis;
+    }
+
+    /**
+     * Gets the number of times a synthetic feed is rendered, in every format, when the publisher starts, so that the
+     * first publish or preview does not pay for class loading and ROME plugin registry initialization.  A value of 0
+     * disables the warm-up.
+     *
+     * @return The number of warm-up iterations.
+     */
+    public final int getWarmUpIterations() {
+        return warmUpIterations;
+    }
+
+    /**
+     * Sets the number of times a synthetic feed is rendered when the publisher starts.
+     *
+     * @param warmUpIterations The number of warm-up iterations to set.
+     */
+    @SuppressWarnings("unused")
+    public final void setWarmUpIterations(int warmUpIterations) {
+        this.warmUpIterations = warmUpIterations;
+    }
+
+    /**
+     * Gets the maximum number of posts, across all feeds, retained by the index of each feed format that is used to
+     * diff a publish against the previous publish of the same feed.  The least recently published feeds are forgotten
+     * first; their next publish rebuilds every item.
+     *
+     * @return The maximum number of indexed posts per feed format.
+     */
+    public final long getPublishIndexMaxPosts() {
+        return publishIndexMaxPosts;
+    }
+
+    /**
+     * Sets the maximum number of posts retained by the index of each feed format that is used to diff publishes.
+     *
+     * @param publishIndexMaxPosts The maximum number of indexed posts per feed format to set.
+     */
+    @SuppressWarnings("unused")
+    public final void setPublishIndexMaxPosts(long publishIndexMaxPosts) {
+        this.publishIndexMaxPosts = publishIndexMaxPosts;
+    }
+
+    /**
+     * Gets the maximum number of feeds whose publish reports, stored feed digests, and archive page signatures are
+     * retained.  The least recently published feeds are forgotten first; they (and their archive pages) are stored
+     * again on their next publish, whether or not they changed.
+     *
+     * @return The maximum number of feeds with retained publish state.
+     */
+    public final long getPublishStateMaxFeeds() {
+        return publishStateMaxFeeds;
+    }
+
+    /**
+     * Sets the maximum number of feeds whose publish reports, stored feed digests, and archive page signatures are
+     * retained.
+     *
+     * @param publishStateMaxFeeds The maximum number of feeds with retained publish state to set.
+     */
+    @SuppressWarnings("unused")
+    public final void setPublishStateMaxFeeds(long publishStateMaxFeeds) {
+        this.publishStateMaxFeeds = publishStateMaxFeeds;
+    }
+
     @Override
     public final String toString() {
         return "RSSPublisherConfigProps{" +
@@ -248,12 +843,39 @@ public class RSSPublisherConfigProps {
                 ", channelLinkTemplate='" + channelLinkTemplate + '\'' +
                 ", channelUriTemplate='" + channelUriTemplate + '\'' +
                 ", channelImageUrlTemplate='" + channelImageUrlTemplate + '\'' +
+                ", channelJsonFeedUrlTemplate='" + channelJsonFeedUrlTemplate + '\'' +
                 ", rssFeedType='" + rssFeedType + '\'' +
                 ", atomFeedType='" + atomFeedType + '\'' +
                 ", channelTtl=" + channelTtl +
                 ", defaultGeneratorValue='" + defaultGeneratorValue + '\'' +
                 ", defaultGeneratorUrl='" + defaultGeneratorUrl + '\'' +
                 ", defaultGeneratorVersion='" + defaultGeneratorVersion + '\'' +
+                ", publishThreadPoolSize=" + publishThreadPoolSize +
+                ", publishTimeoutMillis=" + publishTimeoutMillis +
+                ", batchPublishParallelism=" + batchPublishParallelism +
+                ", itemFragmentCacheMaxBytes=" + itemFragmentCacheMaxBytes +
+                ", streamingWriterEnabled=" + streamingWriterEnabled +
+                ", skipUnchangedWrites=" + skipUnchangedWrites +
+                ", precompressEnabled=" + precompressEnabled +
+                ", gzipLevel=" + gzipLevel +
+                ", queueDefinitionCacheTtlMillis=" + queueDefinitionCacheTtlMillis +
+                ", queueDefinitionCacheMaxEntries=" + queueDefinitionCacheMaxEntries +
+                ", previewParallelism=" + previewParallelism +
+                ", outputBufferPoolSize=" + outputBufferPoolSize +
+                ", outputBufferMaxRetainedBytes=" + outputBufferMaxRetainedBytes +
+                ", outputBufferDirect=" + outputBufferDirect +
+                ", maxItemsPerFeed=" + maxItemsPerFeed +
+                ", archivePageSize=" + archivePageSize +
+                ", maxFeedBytes=" + maxFeedBytes +
+                ", jsonFeedEnabled=" + jsonFeedEnabled +
+                ", asyncPublishThreadPoolSize=" + asyncPublishThreadPoolSize +
+                ", asyncPublishMaxInFlight=" + asyncPublishMaxInFlight +
+                ", asyncPublishAcquireTimeoutMillis=" + asyncPublishAcquireTimeoutMillis +
+                ", publishLockStripes=" + publishLockStripes +
+                ", publishDebounceMillis=" + publishDebounceMillis +
+                ", warmUpIterations=" + warmUpIterations +
+                ", publishIndexMaxPosts=" + publishIndexMaxPosts +
+                ", publishStateMaxFeeds=" + publishStateMaxFeeds +
                 '}';
     }
 }
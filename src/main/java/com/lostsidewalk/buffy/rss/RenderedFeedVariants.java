@@ -0,0 +1,139 @@
+package com.lostsidewalk.buffy.rss;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The serialized form of a published feed, as served: the uncompressed (identity) document, and any precompressed
+ * variants of it, keyed by HTTP content-coding.
+ */
+@Slf4j
+public final class RenderedFeedVariants {
+
+    /**
+     * The content-coding of the uncompressed document.
+     */
+    public static final String IDENTITY_ENCODING = "identity";
+
+    private final String transportIdent;
+
+    private final String publisherId;
+
+    private final String contentType;
+
+    private final String digest;
+
+    private final byte[] content;
+
+    private final Map<String, byte[]> encodedContent;
+
+    private RenderedFeedVariants(String transportIdent, String publisherId, String contentType, String digest, byte[] content, Map<String, byte[]> encodedContent) {
+        this.transportIdent = transportIdent;
+        this.publisherId = publisherId;
+        this.contentType = contentType;
+        this.digest = digest;
+        this.content = content;
+        this.encodedContent = encodedContent;
+    }
+
+    static RenderedFeedVariants from(String transportIdent, String publisherId, String contentType, String digest, byte[] content, Map<String, byte[]> encodedContent) {
+        return new RenderedFeedVariants(transportIdent, publisherId, contentType, digest, content, Collections.unmodifiableMap(encodedContent));
+    }
+
+    /**
+     * Gets the transport identifier of the feed.
+     *
+     * @return The transport identifier.
+     */
+    public String getTransportIdent() {
+        return transportIdent;
+    }
+
+    /**
+     * Gets the publisher identifier of the feed format (i.e., RSS_20 or ATOM_10).
+     *
+     * @return The publisher identifier.
+     */
+    public String getPublisherId() {
+        return publisherId;
+    }
+
+    /**
+     * Gets the media type of the feed, including its charset.
+     *
+     * @return The content type.
+     */
+    public String getContentType() {
+        return contentType;
+    }
+
+    /**
+     * Gets the content-codings for which a variant is available, not including identity.
+     *
+     * @return The available content-codings.
+     */
+    public Set<String> getEncodings() {
+        return encodedContent.keySet();
+    }
+
+    /**
+     * Gets the variant of the feed for the given content-coding.  The returned array must not be modified.
+     *
+     * @param encoding The content-coding (e.g., identity, or gzip).
+     * @return The feed, encoded accordingly, or null if there is no such variant.
+     */
+    public byte[] getContent(String encoding) {
+        return encoding == null || IDENTITY_ENCODING.equals(encoding) ? content : encodedContent.get(encoding);
+    }
+
+    /**
+     * Gets the content digest of the feed, with which the publisher tells whether a feed is unchanged since it was
+     * stored.
+     *
+     * @return The digest, or null if the digest of the feed is unknown.
+     */
+    public String getDigest() {
+        return digest;
+    }
+
+    /**
+     * Gets the strong ETag of the variant of the feed for the given content-coding.  Each variant has its own ETag,
+     * derived from the content digest of the feed.
+     *
+     * @param encoding The content-coding (e.g., identity, or gzip).
+     * @return The quoted ETag, or null if the digest of the feed is unknown.
+     */
+    public String getETag(String encoding) {
+        if (digest == null) {
+            return null;
+        }
+        return encoding == null || IDENTITY_ENCODING.equals(encoding) ? '"' + digest + '"' : '"' + digest + '-' + encoding + '"';
+    }
+
+    /**
+     * Gets the total size of all variants of the feed.
+     *
+     * @return The size in bytes.
+     */
+    public long getByteCt() {
+        long byteCt = content.length;
+        for (byte[] variant : encodedContent.values()) {
+            byteCt += variant.length;
+        }
+        return byteCt;
+    }
+
+    @Override
+    public String toString() {
+        return "RenderedFeedVariants{" +
+                "transportIdent='" + transportIdent + '\'' +
+                ", publisherId='" + publisherId + '\'' +
+                ", contentType='" + contentType + '\'' +
+                ", digest='" + digest + '\'' +
+                ", encodings=" + encodedContent.keySet() +
+                '}';
+    }
+}
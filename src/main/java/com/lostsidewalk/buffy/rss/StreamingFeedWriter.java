@@ -0,0 +1,566 @@
+package com.lostsidewalk.buffy.rss;
+
+import com.rometools.rome.feed.atom.Category;
+import com.rometools.rome.feed.atom.Content;
+import com.rometools.rome.feed.atom.Entry;
+import com.rometools.rome.feed.atom.Feed;
+import com.rometools.rome.feed.atom.Generator;
+import com.rometools.rome.feed.atom.Link;
+import com.rometools.rome.feed.module.Module;
+import com.rometools.rome.feed.rss.*;
+import com.rometools.rome.feed.synd.SyndPerson;
+import com.rometools.rome.io.impl.ModuleGenerators;
+import lombok.extern.slf4j.Slf4j;
+import org.jdom2.*;
+import org.jdom2.filter.Filters;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.rometools.rome.io.impl.DateParser.formatRFC822;
+import static com.rometools.rome.io.impl.DateParser.formatW3CDateTime;
+import static java.util.Locale.US;
+import static org.apache.commons.collections4.CollectionUtils.isNotEmpty;
+import static org.apache.commons.lang3.StringUtils.trim;
+
+/**
+ * Writes RSS 2.0 channels and ATOM 1.0 feeds directly to a character stream with StAX, without building a JDOM
+ * document for the whole feed.  The element layout follows ROME's RSS 2.0 and ATOM 1.0 generators; each
+ * {@code <item>}/{@code <entry>} is written as a self-contained fragment (declaring the namespaces it uses), which is
+ * held in the {@link ItemFragmentCache} so that unchanged posts are not re-serialized.  Module markup (media, iTunes,
+ * etc.) is produced by the module generators registered with ROME, one item at a time.
+ */
+@Slf4j
+class StreamingFeedWriter {
+
+    static final String RSS_20_FEED_TYPE = "rss_2.0";
+
+    static final String ATOM_10_FEED_TYPE = "atom_1.0";
+
+    private static final String RSS_FORMAT = "RSS_STREAM";
+
+    private static final String ATOM_FORMAT = "ATOM_STREAM";
+
+    private static final String ATOM_NAMESPACE = "http://www.w3.org/2005/Atom";
+
+    private static final String CONTENT_PREFIX = "content";
+
+    private static final String CONTENT_NAMESPACE = "http://purl.org/rss/1.0/modules/content/";
+
+    private static final XMLOutputFactory XML_OUTPUT_FACTORY = XMLOutputFactory.newFactory();
+
+    private final ItemFragmentCache fragmentCache;
+
+    private final ModuleGenerators rssItemModuleGenerators = new ModuleGenerators(RSS_20_FEED_TYPE + ".item.ModuleGenerator.classes", null);
+
+    private final ModuleGenerators atomEntryModuleGenerators = new ModuleGenerators(ATOM_10_FEED_TYPE + ".item.ModuleGenerator.classes", null);
+
+    StreamingFeedWriter(ItemFragmentCache fragmentCache) {
+        this.fragmentCache = fragmentCache;
+    }
+
+    static boolean supportsFeedType(String feedType) {
+        return RSS_20_FEED_TYPE.equals(feedType) || ATOM_10_FEED_TYPE.equals(feedType);
+    }
+
+    //
+    // RSS
+    //
+
+    /**
+     * Writes the given channel as an RSS 2.0 document.
+     *
+     * @param channel the channel to write
+     * @param posts   the normalized posts that the channel items were built from (in the same order), used to key the
+     *                item fragment cache; may be null, in which case items are not cached
+     * @param writer  the destination
+     */
+    final void writeChannel(Channel channel, List<NormalizedPost> posts, Writer writer) throws XMLStreamException, IOException {
+        XMLStreamWriter xml = XML_OUTPUT_FACTORY.createXMLStreamWriter(writer);
+        xml.writeStartDocument("UTF-8", "1.0");
+        xml.writeStartElement("rss");
+        xml.writeAttribute("version", "2.0");
+        xml.writeStartElement("channel");
+        writeChannelHeader(xml, channel);
+        List<Item> items = channel.getItems();
+        if (isNotEmpty(items)) {
+            xml.writeCharacters("");
+            xml.flush();
+            for (int i = 0; i < items.size(); i++) {
+                writer.write(getItemFragment(items.get(i), postAt(posts, i)));
+            }
+        }
+        xml.writeEndElement(); // channel
+        xml.writeEndElement(); // rss
+        xml.writeEndDocument();
+        xml.flush();
+        xml.close();
+    }
+
+    /**
+     * Gets the serialized form of a single channel item, as it is written by {@link #writeChannel}.
+     *
+     * @param item the item
+     * @param post the normalized post that the item was built from, used to key the item fragment cache; may be null,
+     *             in which case the item is not cached
+     */
+    final String getItemFragment(Item item, NormalizedPost post) throws XMLStreamException {
+        return fragmentCache.getFragment(RSS_FORMAT, post, () -> renderItem(item));
+    }
+
+    private static void writeChannelHeader(XMLStreamWriter xml, Channel channel) throws XMLStreamException {
+        writeSimpleElement(xml, "title", channel.getTitle());
+        writeSimpleElement(xml, "link", channel.getLink());
+        writeSimpleElement(xml, "description", channel.getDescription());
+        writeSimpleElement(xml, "language", channel.getLanguage());
+        writeSimpleElement(xml, "rating", channel.getRating());
+        writeSimpleElement(xml, "copyright", channel.getCopyright());
+        writeSimpleElement(xml, "pubDate", formatRFC822Date(channel.getPubDate()));
+        writeSimpleElement(xml, "lastBuildDate", formatRFC822Date(channel.getLastBuildDate()));
+        writeSimpleElement(xml, "docs", channel.getDocs());
+        writeSimpleElement(xml, "managingEditor", channel.getManagingEditor());
+        writeSimpleElement(xml, "webMaster", channel.getWebMaster());
+        List<Integer> skipHours = channel.getSkipHours();
+        if (isNotEmpty(skipHours)) {
+            xml.writeStartElement("skipHours");
+            for (Integer skipHour : skipHours) {
+                writeSimpleElement(xml, "hour", String.valueOf(skipHour));
+            }
+            xml.writeEndElement();
+        }
+        List<String> skipDays = channel.getSkipDays();
+        if (isNotEmpty(skipDays)) {
+            xml.writeStartElement("skipDays");
+            for (String skipDay : skipDays) {
+                writeSimpleElement(xml, "day", skipDay);
+            }
+            xml.writeEndElement();
+        }
+        Cloud cloud = channel.getCloud();
+        if (cloud != null) {
+            xml.writeEmptyElement("cloud");
+            writeAttribute(xml, "domain", cloud.getDomain());
+            writeAttribute(xml, "port", String.valueOf(cloud.getPort()));
+            writeAttribute(xml, "path", cloud.getPath());
+            writeAttribute(xml, "registerProcedure", cloud.getRegisterProcedure());
+            writeAttribute(xml, "protocol", cloud.getProtocol());
+        }
+        writeSimpleElement(xml, "generator", channel.getGenerator());
+        int ttl = channel.getTtl();
+        if (ttl > -1) {
+            writeSimpleElement(xml, "ttl", String.valueOf(ttl));
+        }
+        writeRssCategories(xml, channel.getCategories());
+        Image image = channel.getImage();
+        if (image != null) {
+            xml.writeStartElement("image");
+            writeSimpleElement(xml, "title", image.getTitle());
+            writeSimpleElement(xml, "url", image.getUrl());
+            writeSimpleElement(xml, "link", image.getLink());
+            if (image.getWidth() != null) {
+                writeSimpleElement(xml, "width", String.valueOf(image.getWidth()));
+            }
+            if (image.getHeight() != null) {
+                writeSimpleElement(xml, "height", String.valueOf(image.getHeight()));
+            }
+            writeSimpleElement(xml, "description", image.getDescription());
+            xml.writeEndElement();
+        }
+        TextInput textInput = channel.getTextInput();
+        if (textInput != null) {
+            xml.writeStartElement("textInput");
+            writeSimpleElement(xml, "title", textInput.getTitle());
+            writeSimpleElement(xml, "description", textInput.getDescription());
+            writeSimpleElement(xml, "name", textInput.getName());
+            writeSimpleElement(xml, "link", textInput.getLink());
+            xml.writeEndElement();
+        }
+        writeForeignMarkup(xml, channel.getForeignMarkup());
+    }
+
+    private String renderItem(Item item) throws XMLStreamException {
+        Element eModules = generateModules(rssItemModuleGenerators, item.getModules());
+        StringWriter fragment = new StringWriter(1024);
+        XMLStreamWriter xml = XML_OUTPUT_FACTORY.createXMLStreamWriter(fragment);
+        xml.writeStartElement("item");
+        com.rometools.rome.feed.rss.Content content = item.getContent();
+        if (content != null) {
+            xml.writeNamespace(CONTENT_PREFIX, CONTENT_NAMESPACE);
+        }
+        writeNamespaceDeclarations(xml, eModules);
+        writeSimpleElement(xml, "title", item.getTitle());
+        writeSimpleElement(xml, "link", item.getLink());
+        Description description = item.getDescription();
+        if (description != null) {
+            writeSimpleElement(xml, "description", description.getValue());
+        }
+        if (content != null) {
+            xml.writeStartElement(CONTENT_PREFIX, "encoded", CONTENT_NAMESPACE);
+            writeText(xml, content.getValue());
+            xml.writeEndElement();
+        }
+        Source source = item.getSource();
+        if (source != null) {
+            xml.writeStartElement("source");
+            writeAttribute(xml, "url", source.getUrl());
+            writeText(xml, source.getValue());
+            xml.writeEndElement();
+        }
+        List<Enclosure> enclosures = item.getEnclosures();
+        if (isNotEmpty(enclosures)) {
+            for (Enclosure enclosure : enclosures) {
+                xml.writeEmptyElement("enclosure");
+                writeAttribute(xml, "url", enclosure.getUrl());
+                if (enclosure.getLength() != 0L) {
+                    writeAttribute(xml, "length", String.valueOf(enclosure.getLength()));
+                }
+                writeAttribute(xml, "type", enclosure.getType());
+            }
+        }
+        writeRssCategories(xml, item.getCategories());
+        writeSimpleElement(xml, "pubDate", formatRFC822Date(item.getPubDate()));
+        writeSimpleElement(xml, "author", item.getAuthor());
+        writeSimpleElement(xml, "comments", item.getComments());
+        Guid guid = item.getGuid();
+        if (guid != null) {
+            xml.writeStartElement("guid");
+            if (!guid.isPermaLink()) {
+                xml.writeAttribute("isPermaLink", "false");
+            }
+            writeText(xml, guid.getValue());
+            xml.writeEndElement();
+        }
+        writeModuleElements(xml, eModules);
+        xml.writeEndElement(); // item
+        xml.flush();
+        xml.close();
+        return fragment.toString();
+    }
+
+    private static void writeRssCategories(XMLStreamWriter xml, List<com.rometools.rome.feed.rss.Category> categories) throws XMLStreamException {
+        if (isNotEmpty(categories)) {
+            for (com.rometools.rome.feed.rss.Category category : categories) {
+                xml.writeStartElement("category");
+                writeAttribute(xml, "domain", category.getDomain());
+                writeText(xml, category.getValue());
+                xml.writeEndElement();
+            }
+        }
+    }
+
+    //
+    // ATOM
+    //
+
+    /**
+     * Writes the given feed as an ATOM 1.0 document.
+     *
+     * @param feed   the feed to write
+     * @param posts  the normalized posts that the feed entries were built from (in the same order), used to key the
+     *               entry fragment cache; may be null, in which case entries are not cached
+     * @param writer the destination
+     */
+    final void writeFeed(Feed feed, List<NormalizedPost> posts, Writer writer) throws XMLStreamException, IOException {
+        String header = renderFeedHeader(feed);
+        XMLStreamWriter xml = XML_OUTPUT_FACTORY.createXMLStreamWriter(writer);
+        xml.writeStartDocument("UTF-8", "1.0");
+        xml.writeStartElement("feed");
+        xml.writeDefaultNamespace(ATOM_NAMESPACE);
+        xml.writeCharacters("");
+        xml.flush();
+        writer.write(header);
+        // foreign markup (e.g., the RFC 5005 archive marker) follows the header, and is not part of entry sources
+        if (isNotEmpty(feed.getForeignMarkup())) {
+            writeForeignMarkup(xml, feed.getForeignMarkup());
+            xml.writeCharacters("");
+            xml.flush();
+        }
+        List<Entry> entries = feed.getEntries();
+        if (isNotEmpty(entries)) {
+            String headerScope = ItemFragmentCache.scopeOf(header);
+            for (int i = 0; i < entries.size(); i++) {
+                writer.write(getEntryFragment(entries.get(i), feed, header, headerScope, postAt(posts, i)));
+            }
+        }
+        xml.writeEndElement(); // feed
+        xml.writeEndDocument();
+        xml.flush();
+        xml.close();
+    }
+
+    /**
+     * Gets the serialized form of a single feed entry, as it is written by {@link #writeFeed}.
+     *
+     * @param entry       the entry
+     * @param feed        the feed that the entry belongs to
+     * @param feedHeader  the serialized feed header (see {@link #renderFeedHeader}), which entries embed as their source
+     * @param headerScope the scope of the feed header (see {@link ItemFragmentCache#scopeOf})
+     * @param post        the normalized post that the entry was built from, used to key the entry fragment cache; may
+     *                    be null, in which case the entry is not cached
+     */
+    final String getEntryFragment(Entry entry, Feed feed, String feedHeader, String headerScope, NormalizedPost post) throws XMLStreamException {
+        // entries embed the feed header as their source, so entry fragments are scoped to the header (and keyed by their
+        // published date, which may be the publish date of the feed)
+        return fragmentCache.getFragment(ATOM_FORMAT, post, headerScope, entry.getPublished(), () -> renderEntry(entry, feed, feedHeader));
+    }
+
+    static String renderFeedHeader(Feed feed) throws XMLStreamException {
+        StringWriter header = new StringWriter(1024);
+        XMLStreamWriter xml = XML_OUTPUT_FACTORY.createXMLStreamWriter(header);
+        writeTextConstruct(xml, "title", feed.getTitleEx());
+        writeAtomLinks(xml, feed.getAlternateLinks());
+        writeAtomLinks(xml, feed.getOtherLinks());
+        writeAtomCategories(xml, feed.getCategories());
+        writeAtomPersons(xml, "author", feed.getAuthors());
+        writeAtomPersons(xml, "contributor", feed.getContributors());
+        writeTextConstruct(xml, "subtitle", feed.getSubtitle());
+        writeSimpleElement(xml, "id", feed.getId());
+        Generator generator = feed.getGenerator();
+        if (generator != null) {
+            xml.writeStartElement("generator");
+            writeAttribute(xml, "uri", generator.getUrl());
+            writeAttribute(xml, "version", generator.getVersion());
+            writeText(xml, generator.getValue());
+            xml.writeEndElement();
+        }
+        writeSimpleElement(xml, "rights", feed.getRights());
+        writeSimpleElement(xml, "icon", feed.getIcon());
+        writeSimpleElement(xml, "logo", feed.getLogo());
+        writeSimpleElement(xml, "updated", formatW3CDate(feed.getUpdated()));
+        xml.flush();
+        xml.close();
+        return header.toString();
+    }
+
+    private String renderEntry(Entry entry, Feed feed, String feedHeader) throws XMLStreamException {
+        Element eModules = generateModules(atomEntryModuleGenerators, entry.getModules());
+        StringWriter fragment = new StringWriter(1024);
+        XMLStreamWriter xml = XML_OUTPUT_FACTORY.createXMLStreamWriter(fragment);
+        xml.writeStartElement("entry");
+        xml.writeDefaultNamespace(ATOM_NAMESPACE);
+        writeNamespaceDeclarations(xml, eModules);
+        writeTextConstruct(xml, "title", entry.getTitleEx());
+        writeAtomLinks(xml, entry.getAlternateLinks());
+        writeAtomLinks(xml, entry.getOtherLinks());
+        writeAtomCategories(xml, entry.getCategories());
+        writeAtomPersons(xml, "author", entry.getAuthors());
+        writeAtomPersons(xml, "contributor", entry.getContributors());
+        writeSimpleElement(xml, "id", entry.getId());
+        writeSimpleElement(xml, "updated", formatW3CDate(entry.getUpdated()));
+        writeSimpleElement(xml, "published", formatW3CDate(entry.getPublished()));
+        List<Content> contents = entry.getContents();
+        if (isNotEmpty(contents)) {
+            writeTextConstruct(xml, "content", contents.get(0));
+        }
+        writeTextConstruct(xml, "summary", entry.getSummary());
+        Feed source = entry.getSource();
+        if (source != null) {
+            xml.writeStartElement("source");
+            xml.writeCharacters("");
+            xml.flush();
+            fragment.write(source == feed ? feedHeader : renderFeedHeader(source));
+            xml.writeEndElement();
+        }
+        writeSimpleElement(xml, "rights", entry.getRights());
+        writeModuleElements(xml, eModules);
+        xml.writeEndElement(); // entry
+        xml.flush();
+        xml.close();
+        return fragment.toString();
+    }
+
+    private static void writeTextConstruct(XMLStreamWriter xml, String name, Content content) throws XMLStreamException {
+        if (content != null) {
+            xml.writeStartElement(name);
+            writeAttribute(xml, "type", content.getType());
+            writeAttribute(xml, "src", content.getSrc());
+            writeText(xml, content.getValue());
+            xml.writeEndElement();
+        }
+    }
+
+    private static void writeAtomLinks(XMLStreamWriter xml, List<Link> links) throws XMLStreamException {
+        if (isNotEmpty(links)) {
+            for (Link link : links) {
+                xml.writeEmptyElement("link");
+                writeAttribute(xml, "rel", link.getRel());
+                writeAttribute(xml, "type", link.getType());
+                writeAttribute(xml, "href", link.getHref());
+                writeAttribute(xml, "hreflang", link.getHreflang());
+                writeAttribute(xml, "title", link.getTitle());
+                if (link.getLength() != 0L) {
+                    writeAttribute(xml, "length", String.valueOf(link.getLength()));
+                }
+            }
+        }
+    }
+
+    private static void writeAtomCategories(XMLStreamWriter xml, List<Category> categories) throws XMLStreamException {
+        if (isNotEmpty(categories)) {
+            for (Category category : categories) {
+                xml.writeEmptyElement("category");
+                writeAttribute(xml, "term", category.getTerm());
+                writeAttribute(xml, "label", category.getLabel());
+                writeAttribute(xml, "scheme", category.getScheme());
+            }
+        }
+    }
+
+    private static void writeAtomPersons(XMLStreamWriter xml, String name, List<SyndPerson> persons) throws XMLStreamException {
+        if (isNotEmpty(persons)) {
+            for (SyndPerson person : persons) {
+                xml.writeStartElement(name);
+                writeSimpleElement(xml, "name", person.getName());
+                writeSimpleElement(xml, "uri", person.getUri());
+                writeSimpleElement(xml, "email", person.getEmail());
+                xml.writeEndElement();
+            }
+        }
+    }
+
+    //
+    // MODULES
+    //
+
+    private static Element generateModules(ModuleGenerators moduleGenerators, List<Module> modules) {
+        if (isNotEmpty(modules)) {
+            Element eModules = new Element("modules");
+            moduleGenerators.generateModules(modules, eModules);
+            return eModules;
+        }
+
+        return null;
+    }
+
+    private static void writeNamespaceDeclarations(XMLStreamWriter xml, Element eModules) throws XMLStreamException {
+        if (eModules != null) {
+            Map<String, String> namespaces = new LinkedHashMap<>(4);
+            for (Namespace namespace : eModules.getAdditionalNamespaces()) {
+                namespaces.putIfAbsent(namespace.getPrefix(), namespace.getURI());
+            }
+            for (Element e : eModules.getDescendants(Filters.element())) {
+                Namespace namespace = e.getNamespace();
+                namespaces.putIfAbsent(namespace.getPrefix(), namespace.getURI());
+                for (Attribute attribute : e.getAttributes()) {
+                    Namespace attributeNamespace = attribute.getNamespace();
+                    namespaces.putIfAbsent(attributeNamespace.getPrefix(), attributeNamespace.getURI());
+                }
+            }
+            for (Map.Entry<String, String> namespace : namespaces.entrySet()) {
+                String prefix = namespace.getKey();
+                if (!prefix.isEmpty() && !Namespace.XML_NAMESPACE.getPrefix().equals(prefix)) {
+                    xml.writeNamespace(prefix, namespace.getValue());
+                }
+            }
+        }
+    }
+
+    private static void writeModuleElements(XMLStreamWriter xml, Element eModules) throws XMLStreamException {
+        if (eModules != null) {
+            for (Element e : eModules.getChildren()) {
+                writeElement(xml, e);
+            }
+        }
+    }
+
+    /**
+     * Writes foreign markup elements, each declaring its own namespace.
+     */
+    private static void writeForeignMarkup(XMLStreamWriter xml, List<Element> foreignMarkup) throws XMLStreamException {
+        if (isNotEmpty(foreignMarkup)) {
+            for (Element e : foreignMarkup) {
+                writeElement(xml, e, true);
+            }
+        }
+    }
+
+    private static void writeElement(XMLStreamWriter xml, Element element) throws XMLStreamException {
+        writeElement(xml, element, false);
+    }
+
+    private static void writeElement(XMLStreamWriter xml, Element element, boolean declareNamespace) throws XMLStreamException {
+        Namespace namespace = element.getNamespace();
+        List<org.jdom2.Content> children = element.getContent();
+        if (children.isEmpty()) {
+            xml.writeEmptyElement(namespace.getPrefix(), element.getName(), namespace.getURI());
+        } else {
+            xml.writeStartElement(namespace.getPrefix(), element.getName(), namespace.getURI());
+        }
+        if (declareNamespace && !namespace.getPrefix().isEmpty()) {
+            xml.writeNamespace(namespace.getPrefix(), namespace.getURI());
+        }
+        for (Attribute attribute : element.getAttributes()) {
+            Namespace attributeNamespace = attribute.getNamespace();
+            if (attributeNamespace == Namespace.NO_NAMESPACE) {
+                xml.writeAttribute(attribute.getName(), attribute.getValue());
+            } else {
+                xml.writeAttribute(attributeNamespace.getPrefix(), attributeNamespace.getURI(), attribute.getName(), attribute.getValue());
+            }
+        }
+        if (!children.isEmpty()) {
+            for (org.jdom2.Content child : children) {
+                if (child instanceof Element e) {
+                    writeElement(xml, e);
+                } else if (child instanceof CDATA cdata) {
+                    xml.writeCData(cdata.getText());
+                } else if (child instanceof Text text) {
+                    writeText(xml, text.getText());
+                }
+            }
+            xml.writeEndElement();
+        }
+    }
+
+    //
+    //
+    //
+
+    private static void writeSimpleElement(XMLStreamWriter xml, String name, String value) throws XMLStreamException {
+        if (value != null) {
+            xml.writeStartElement(name);
+            writeText(xml, value);
+            xml.writeEndElement();
+        }
+    }
+
+    private static void writeAttribute(XMLStreamWriter xml, String name, String value) throws XMLStreamException {
+        if (value != null) {
+            xml.writeAttribute(name, value);
+        }
+    }
+
+    private static void writeText(XMLStreamWriter xml, String value) throws XMLStreamException {
+        // text is trimmed, as with ROME's (pretty-printed) output
+        String text = trim(value);
+        if (text != null && !text.isEmpty()) {
+            xml.writeCharacters(text);
+        }
+    }
+
+    static String formatRFC822Date(Date date) {
+        return date == null ? null : formatRFC822(date, US);
+    }
+
+    private static String formatW3CDate(Date date) {
+        return date == null ? null : formatW3CDateTime(date, US);
+    }
+
+    private static NormalizedPost postAt(List<NormalizedPost> posts, int idx) {
+        return posts == null ? null : posts.get(idx);
+    }
+
+    @Override
+    public final String toString() {
+        return "StreamingFeedWriter{" +
+                "fragmentCache=" + fragmentCache +
+                '}';
+    }
+}
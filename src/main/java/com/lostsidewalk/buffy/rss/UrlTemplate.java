@@ -0,0 +1,52 @@
+package com.lostsidewalk.buffy.rss;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Precompiled form of a single-argument URL template (e.g., {@code https://localhost/rss/%s}).  Templates consisting
+ * of a literal prefix, a single {@code %s} specifier and a literal suffix are expanded by concatenation; any other
+ * template is expanded with {@link String#format}, exactly as before.
+ */
+@Slf4j
+final class UrlTemplate {
+
+    private static final String SPECIFIER = "%s";
+
+    private final String template;
+
+    private final String prefix;
+
+    private final String suffix;
+
+    private UrlTemplate(String template, String prefix, String suffix) {
+        this.template = template;
+        this.prefix = prefix;
+        this.suffix = suffix;
+    }
+
+    static UrlTemplate compile(String template) {
+        if (template == null) {
+            return null;
+        }
+        int specifierIdx = template.indexOf(SPECIFIER);
+        if (specifierIdx >= 0 && template.indexOf('%') == specifierIdx && template.indexOf('%', specifierIdx + 1) < 0) {
+            return new UrlTemplate(template, template.substring(0, specifierIdx), template.substring(specifierIdx + SPECIFIER.length()));
+        }
+        // not a simple template (no specifier, escapes, or other specifiers)
+        return new UrlTemplate(template, null, null);
+    }
+
+    final String expand(String arg) {
+        if (prefix == null) {
+            return String.format(template, arg);
+        }
+        return prefix + arg + suffix;
+    }
+
+    @Override
+    public final String toString() {
+        return "UrlTemplate{" +
+                "template='" + template + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,187 @@
+package com.lostsidewalk.buffy.rss;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Thread-safe, least-recently-used cache bounded by the total weight of its values rather than by entry count.  Values
+ * heavier than the maximum weight are never retained.
+ * <p>
+ * Keys are spread over a fixed number of segments by hash, each with its own lock and its own access order, so that
+ * threads working on different keys rarely contend.  The segments share the weight budget: once it is exceeded, the
+ * least-recently-used entry of each segment is evicted in turn, so eviction order is least-recently-used within a
+ * segment, and approximately so across segments.  Values are weighed once, when they are cached.
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+@Slf4j
+final class WeightedLruCache<K, V> {
+
+    // a power of two, so that a segment is picked by masking the spread hash of its key
+    private static final int SEGMENT_CT = 16;
+
+    private final long maxWeight;
+
+    private final ToLongFunction<? super V> weigher;
+
+    private final Segment<K, V>[] segments;
+
+    private final AtomicLong weight = new AtomicLong();
+
+    private final AtomicInteger evictionCursor = new AtomicInteger();
+
+    WeightedLruCache(long maxWeight, ToLongFunction<? super V> weigher) {
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        @SuppressWarnings("unchecked")
+        Segment<K, V>[] segments = new Segment[SEGMENT_CT];
+        for (int i = 0; i < SEGMENT_CT; i++) {
+            segments[i] = new Segment<>(weight);
+        }
+        this.segments = segments;
+    }
+
+    final V get(K key) {
+        return segmentFor(key).get(key);
+    }
+
+    final void put(K key, V value) {
+        long valueWeight = weigher.applyAsLong(value);
+        if (valueWeight > maxWeight) {
+            remove(key);
+            return;
+        }
+        segmentFor(key).put(key, value, valueWeight);
+        evict(key);
+    }
+
+    /**
+     * Gets the value of the given key, computing (and caching) it if the key is absent.  The mapping function runs with
+     * the segment of the key locked, so each key is computed at most once at a time.
+     */
+    final V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        Segment<K, V> segment = segmentFor(key);
+        V value;
+        synchronized (segment) {
+            value = segment.get(key);
+            if (value == null) {
+                value = mappingFunction.apply(key);
+                long valueWeight = weigher.applyAsLong(value);
+                if (valueWeight <= maxWeight) {
+                    segment.put(key, value, valueWeight);
+                }
+            }
+        }
+        evict(key);
+        return value;
+    }
+
+    final V remove(K key) {
+        return segmentFor(key).remove(key);
+    }
+
+    /**
+     * Evicts entries until the cache is within its weight budget, taking the least-recently-used entry of each segment
+     * in turn, other than the entry that was just cached.  No two segments are ever locked at once.
+     */
+    private void evict(K cachedKey) {
+        int emptyCt = 0;
+        while (weight.get() > maxWeight && emptyCt < SEGMENT_CT) {
+            Segment<K, V> segment = segments[evictionCursor.getAndIncrement() & (SEGMENT_CT - 1)];
+            emptyCt = segment.evictEldest(cachedKey) ? 0 : emptyCt + 1;
+        }
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int h = key == null ? 0 : key.hashCode();
+        return segments[(h ^ (h >>> 16)) & (SEGMENT_CT - 1)];
+    }
+
+    final int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    final long weight() {
+        return weight.get();
+    }
+
+    //
+    //
+    //
+
+    private record Weighed<V>(V value, long weight) {
+    }
+
+    /**
+     * A lock-protected, access-ordered part of the cache, which accounts for the weight of its entries in the weight of
+     * the whole cache.
+     */
+    private static final class Segment<K, V> {
+
+        private final LinkedHashMap<K, Weighed<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+        private final AtomicLong weight;
+
+        private Segment(AtomicLong weight) {
+            this.weight = weight;
+        }
+
+        private synchronized V get(K key) {
+            Weighed<V> entry = entries.get(key);
+            return entry == null ? null : entry.value();
+        }
+
+        private synchronized void put(K key, V value, long valueWeight) {
+            Weighed<V> prior = entries.put(key, new Weighed<>(value, valueWeight));
+            weight.addAndGet(prior == null ? valueWeight : valueWeight - prior.weight());
+        }
+
+        private synchronized V remove(K key) {
+            Weighed<V> prior = entries.remove(key);
+            if (prior == null) {
+                return null;
+            }
+            weight.addAndGet(-prior.weight());
+            return prior.value();
+        }
+
+        private synchronized boolean evictEldest(K retainedKey) {
+            Iterator<Map.Entry<K, Weighed<V>>> iterator = entries.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<K, Weighed<V>> eldest = iterator.next();
+                if (!Objects.equals(eldest.getKey(), retainedKey)) {
+                    iterator.remove();
+                    weight.addAndGet(-eldest.getValue().weight());
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private synchronized int size() {
+            return entries.size();
+        }
+    }
+
+    @Override
+    public final String toString() {
+        return "WeightedLruCache{" +
+                "maxWeight=" + maxWeight +
+                ", size=" + size() +
+                ", weight=" + weight.get() +
+                '}';
+    }
+}
@@ -0,0 +1,75 @@
+package com.lostsidewalk.buffy.rss;
+
+import com.lostsidewalk.buffy.model.RenderedRSSFeed;
+import com.lostsidewalk.buffy.post.StagingPost;
+import com.lostsidewalk.buffy.queue.QueueDefinition;
+import com.rometools.rome.feed.rss.Channel;
+import lombok.extern.slf4j.Slf4j;
+import org.jdom2.Element;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+
+@Slf4j
+@TestPropertySource(properties = {"rss.publisher.max-items-per-feed=1", "rss.publisher.archive-page-size=1"})
+class ArchivePublisherTest extends BaseRSSPublisherTest {
+
+    @Test
+    public void testRssPublisher_archive() throws Exception {
+        QueueDefinition archiveQueueDefinition = testQueueDefinition("archive");
+        // the newest post is published in the feed; the two older posts roll into two archive pages
+        List<StagingPost> stagingPosts = List.of(
+                testStagingPost("oldestPostHash", new Date(1_000L)),
+                testStagingPost("newestPostHash", new Date(3_000L)),
+                testStagingPost("olderPostHash", new Date(2_000L)));
+        ArgumentCaptor<RenderedRSSFeed> rssChannelValueCapture = ArgumentCaptor.forClass(RenderedRSSFeed.class);
+        doNothing().when(renderedFeedDao).putRSSFeedAtTransportIdent(anyString(), rssChannelValueCapture.capture());
+        rssPublisher.publishFeed(archiveQueueDefinition, stagingPosts, TEST_PUBLISH_TIMESTAMP);
+        Map<String, Channel> channels = new LinkedHashMap<>(3);
+        for (RenderedRSSFeed renderedRSSFeed : rssChannelValueCapture.getAllValues()) {
+            channels.put(renderedRSSFeed.getTransportIdent(), renderedRSSFeed.getChannel());
+        }
+        assertEquals(List.of("archiveTransportIdent-archive-1", "archiveTransportIdent-archive-2", "archiveTransportIdent"), List.copyOf(channels.keySet()));
+        Channel head = channels.get("archiveTransportIdent");
+        assertEquals(1, head.getItems().size());
+        assertEquals("newestPostHash", head.getItems().get(0).getGuid().getValue());
+        assertEquals(Map.of("prev-archive", "https://localhost/rss/archiveTransportIdent-archive-2"), archiveLinks(head));
+        Channel oldest = channels.get("archiveTransportIdent-archive-1");
+        assertEquals("oldestPostHash", oldest.getItems().get(0).getGuid().getValue());
+        assertEquals(Map.of("current", "https://localhost/rss/archiveTransportIdent", "next-archive", "https://localhost/rss/archiveTransportIdent-archive-2"), archiveLinks(oldest));
+        assertTrue(oldest.getForeignMarkup().stream().anyMatch(e -> "archive".equals(e.getName())));
+        Channel older = channels.get("archiveTransportIdent-archive-2");
+        assertEquals("olderPostHash", older.getItems().get(0).getGuid().getValue());
+        assertEquals(Map.of("current", "https://localhost/rss/archiveTransportIdent", "prev-archive", "https://localhost/rss/archiveTransportIdent-archive-1"), archiveLinks(older));
+        PublishReport publishReport = rssPublisher.getPublishReport("archiveTransportIdent", RSSPublisher.RSS_PUBLISHER_ID);
+        assertEquals(2, publishReport.getArchivedCt());
+        assertEquals(2, publishReport.getArchivePageCt());
+        // unchanged archive pages are not published again
+        rssPublisher.publishFeed(archiveQueueDefinition, stagingPosts, TEST_PUBLISH_TIMESTAMP);
+        verify(renderedFeedDao, times(1)).putRSSFeedAtTransportIdent(eq("archiveTransportIdent-archive-1"), any());
+        verify(renderedFeedDao, times(1)).putATOMFeedAtTransportIdent(eq("archiveTransportIdent-archive-2"), any());
+    }
+
+    private static Map<String, String> archiveLinks(Channel channel) {
+        Map<String, String> archiveLinks = new LinkedHashMap<>(3);
+        for (Element e : channel.getForeignMarkup()) {
+            if ("link".equals(e.getName())) {
+                archiveLinks.put(e.getAttributeValue("rel"), e.getAttributeValue("href"));
+            }
+        }
+        return archiveLinks;
+    }
+}
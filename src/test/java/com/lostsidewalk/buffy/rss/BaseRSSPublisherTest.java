@@ -9,6 +9,7 @@ import com.rometools.modules.itunes.ITunes;
 import com.rometools.modules.mediarss.MediaEntryModuleImpl;
 import com.rometools.modules.mediarss.types.Metadata;
 import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -165,6 +166,78 @@ abstract class BaseRSSPublisherTest {
             TEST_LAST_UPDATED_TIMESTAMP // last updated timestamp
     );
 
+    static StagingPost testStagingPost(String postHash, Date timestamp) {
+        return testStagingPost(TEST_STAGING_POST.getQueueId(), "me", postHash, timestamp);
+    }
+
+    static StagingPost testStagingPost(Long queueId, String username, String postHash, Date timestamp) {
+        return stagingPost(queueId, username, postHash, postHash, timestamp, timestamp);
+    }
+
+    // a post without a publish timestamp, whose ATOM entry is published at the publish date of the feed
+    static StagingPost undatedStagingPost() {
+        return stagingPost(TEST_STAGING_POST.getQueueId(), "me", "undatedPostUrl", "undatedPostHash", new Date(500_000L), null);
+    }
+
+    private static StagingPost stagingPost(Long queueId, String username, String postUrl, String postHash, Date timestamp, Date publishTimestamp) {
+        return StagingPost.from(
+                "testImporterId",
+                queueId,
+                "testImporterDesc",
+                667L,
+                TEST_STAGING_POST.getPostTitle(),
+                TEST_STAGING_POST.getPostDesc(),
+                TEST_STAGING_POST.getPostContents(),
+                null,
+                null,
+                postUrl,
+                null,
+                null,
+                timestamp,
+                postHash,
+                username,
+                null,
+                null,
+                null,
+                null,
+                null,
+                publishTimestamp,
+                null,
+                null,
+                timestamp
+        );
+    }
+
+    /**
+     * Builds a queue definition whose properties are all derived from the given name, e.g., a transport ident of
+     * {@code <name>TransportIdent}.
+     */
+    static QueueDefinition testQueueDefinition(String name) {
+        return testQueueDefinition(name, "me", null);
+    }
+
+    static QueueDefinition testQueueDefinition(String name, String username, String exportConfig) {
+        return QueueDefinition.from(
+                name + "FeedIdent",
+                name + "Title",
+                name + "Description",
+                name + "Generator",
+                name + "TransportIdent",
+                username,
+                exportConfig,
+                name + "Copyright",
+                name + "Language",
+                null,
+                false
+        );
+    }
+
+    @BeforeEach
+    void forgetTestFeed() {
+        // the publisher is shared by all tests in the context; start each test without any previous publish
+        rssPublisher.forgetFeed(TEST_QUEUE_DEFINITION.getTransportIdent());
+    }
+
     @Override
     public String toString() {
         return "BaseRSSPublisherTest{" +
@@ -0,0 +1,92 @@
+package com.lostsidewalk.buffy.rss;
+
+import com.rometools.rome.feed.WireFeed;
+import com.rometools.rome.feed.atom.Feed;
+import com.rometools.rome.feed.rss.Channel;
+import com.rometools.rome.io.WireFeedInput;
+import com.rometools.rome.io.WireFeedOutput;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.xml.sax.InputSource;
+
+import java.io.StringReader;
+import java.util.Date;
+import java.util.List;
+
+import static com.lostsidewalk.buffy.rss.BaseRSSPublisherTest.*;
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+@Slf4j
+class CachingFeedRendererTest {
+
+    private static final RSSPublisherConfigProps CONFIG_PROPS = new RSSPublisherConfigProps();
+    static {
+        CONFIG_PROPS.setChannelLinkTemplate("https://localhost/rss/%s");
+        CONFIG_PROPS.setChannelUriTemplate("https://localhost/atom/%s");
+        CONFIG_PROPS.setChannelImageUrlTemplate("https://localhost/img/%s");
+        CONFIG_PROPS.setRssFeedType("rss_2.0");
+        CONFIG_PROPS.setAtomFeedType("atom_1.0");
+        CONFIG_PROPS.setChannelTtl(10);
+    }
+
+    @Test
+    public void testCachingFeedRenderer_RSS() throws Exception {
+        ItemFragmentCache fragmentCache = new ItemFragmentCache(1 << 20);
+        CachingFeedRenderer renderer = new CachingFeedRenderer(fragmentCache);
+        List<NormalizedPost> posts = NormalizedPost.normalize(singletonList(TEST_STAGING_POST));
+        Channel channel = new RSSChannelBuilder(CONFIG_PROPS).buildChannel(TEST_QUEUE_DEFINITION, posts, TEST_PUBLISH_TIMESTAMP);
+        // first render populates the fragment cache, the second is served from it
+        String rendered = renderer.renderChannel(channel, posts);
+        assertEquals(1, fragmentCache.size());
+        assertEquals(rendered, renderer.renderChannel(channel, posts));
+        // the namespaces of the items are declared on the items, rather than on the root element as ROME declares them
+        assertTrue(rendered.length() >= new WireFeedOutput().outputString(channel).length());
+        // the spliced document parses back to the same channel
+        Channel parsed = (Channel) parse(rendered);
+        assertEquals("testTitle", parsed.getTitle());
+        assertEquals(1, parsed.getItems().size());
+        assertEquals("testPostTitle", parsed.getItems().get(0).getTitle());
+        assertEquals("testPostHash", parsed.getItems().get(0).getGuid().getValue());
+    }
+
+    @Test
+    public void testCachingFeedRenderer_ATOM() throws Exception {
+        ItemFragmentCache fragmentCache = new ItemFragmentCache(1 << 20);
+        CachingFeedRenderer renderer = new CachingFeedRenderer(fragmentCache);
+        List<NormalizedPost> posts = NormalizedPost.normalize(singletonList(TEST_STAGING_POST));
+        Feed feed = new ATOMFeedBuilder(CONFIG_PROPS).buildFeed(TEST_QUEUE_DEFINITION, posts, TEST_PUBLISH_TIMESTAMP);
+        // first render populates the fragment cache, the second is served from it
+        String rendered = renderer.renderFeed(feed, posts);
+        assertEquals(1, fragmentCache.size());
+        assertEquals(rendered, renderer.renderFeed(feed, posts));
+        // the namespaces of the entries are declared on the entries, rather than on the root element as ROME declares them
+        assertTrue(rendered.length() >= new WireFeedOutput().outputString(feed).length());
+        // the spliced document parses back to the same feed
+        Feed parsed = (Feed) parse(rendered);
+        assertEquals("testTitle", parsed.getTitle());
+        assertEquals(1, parsed.getEntries().size());
+        assertEquals("testPostUrl", parsed.getEntries().get(0).getId());
+    }
+
+    @Test
+    public void testCachingFeedRenderer_ATOM_undatedPost() throws Exception {
+        ItemFragmentCache fragmentCache = new ItemFragmentCache(1 << 20);
+        CachingFeedRenderer renderer = new CachingFeedRenderer(fragmentCache);
+        // the entry of a post without a publish timestamp is published at the publish date of the feed
+        List<NormalizedPost> posts = NormalizedPost.normalize(singletonList(undatedStagingPost()));
+        ATOMFeedBuilder atomFeedBuilder = new ATOMFeedBuilder(CONFIG_PROPS);
+        Date firstPubDate = new Date(1_000_000L);
+        Date secondPubDate = new Date(2_000_000L);
+        String first = renderer.renderFeed(atomFeedBuilder.buildFeed(TEST_QUEUE_DEFINITION, posts, firstPubDate), posts);
+        String second = renderer.renderFeed(atomFeedBuilder.buildFeed(TEST_QUEUE_DEFINITION, posts, secondPubDate), posts);
+        assertEquals(2, fragmentCache.size());
+        assertEquals(firstPubDate, ((Feed) parse(first)).getEntries().get(0).getPublished());
+        assertEquals(secondPubDate, ((Feed) parse(second)).getEntries().get(0).getPublished());
+    }
+
+    private static WireFeed parse(String rendered) throws Exception {
+        return new WireFeedInput().build(new InputSource(new StringReader(rendered)));
+    }
+}
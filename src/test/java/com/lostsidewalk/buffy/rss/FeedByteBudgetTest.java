@@ -0,0 +1,175 @@
+package com.lostsidewalk.buffy.rss;
+
+import com.rometools.rome.feed.WireFeed;
+import com.rometools.rome.feed.atom.Entry;
+import com.rometools.rome.feed.atom.Feed;
+import com.rometools.rome.feed.rss.Channel;
+import com.rometools.rome.feed.rss.Item;
+import com.rometools.rome.io.WireFeedOutput;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static com.lostsidewalk.buffy.rss.BaseRSSPublisherTest.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptyList;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+@Slf4j
+class FeedByteBudgetTest {
+
+    private static final RSSPublisherConfigProps CONFIG_PROPS = new RSSPublisherConfigProps();
+    static {
+        CONFIG_PROPS.setChannelLinkTemplate("https://localhost/rss/%s");
+        CONFIG_PROPS.setChannelUriTemplate("https://localhost/atom/%s");
+        CONFIG_PROPS.setChannelImageUrlTemplate("https://localhost/img/%s");
+        CONFIG_PROPS.setRssFeedType("rss_2.0");
+        CONFIG_PROPS.setAtomFeedType("atom_1.0");
+    }
+
+    private static final String LARGE_CONTENT = "<p>Lorem ipsum dolor sit amet, cônsectetur adipiscing élit.</p>".repeat(200);
+
+    @Test
+    public void testFeedByteBudget_RSS() throws Exception {
+        FeedByteBudget feedByteBudget = new FeedByteBudget(new CachingFeedRenderer(new ItemFragmentCache(1 << 20)), new JsonFeedWriter(new ItemFragmentCache(0L)));
+        List<NormalizedPost> posts = testPosts();
+        // the middle item is too large for the budget, but its excerpt is not
+        Channel channel = new RSSChannelBuilder(CONFIG_PROPS).buildChannel(TEST_QUEUE_DEFINITION, posts, TEST_PUBLISH_TIMESTAMP);
+        Item largeItem = channel.getItems().get(1);
+        largeItem.getContent().setValue(LARGE_CONTENT);
+        long fullBytes = byteCt(channel);
+        long maxFeedBytes = fullBytes - 5_000L;
+        Function<NormalizedPost, Item> itemMapper = mapperOf(posts, channel.getItems());
+        channel.setItems(null);
+        FeedByteBudget.Outcome outcome = feedByteBudget.applyToChannel(channel, posts, itemMapper, maxFeedBytes);
+        assertEquals(List.of("postHash2"), outcome.getExcerptedPostHashes());
+        assertTrue(outcome.getDroppedPostHashes().isEmpty());
+        assertEquals(3, channel.getItems().size());
+        assertNull(channel.getItems().get(1).getContent());
+        assertTrue(channel.getItems().get(1).getDescription().getValue().length() <= FeedByteBudget.EXCERPT_LENGTH);
+        // the original item is left as it was
+        assertEquals(LARGE_CONTENT, largeItem.getContent().getValue());
+        assertNull(outcome.getPosts().get(1));
+        // the channel is served as ROME renders it; the streaming writer renders it more compactly
+        assertTrue(byteCt(channel) <= maxFeedBytes);
+        assertTrue(streamingByteCt(channel) <= maxFeedBytes);
+        // items that do not fit at all are dropped, without being built
+        channel = new RSSChannelBuilder(CONFIG_PROPS).buildChannelHeader(TEST_QUEUE_DEFINITION, QueueRenderContext.of(TEST_QUEUE_DEFINITION, CONFIG_PROPS), posts, TEST_PUBLISH_TIMESTAMP);
+        long envelopeBytes = byteCt(channel);
+        outcome = feedByteBudget.applyToChannel(channel, posts, post -> fail("posts that cannot fit are not built"), envelopeBytes + 1L);
+        assertEquals(List.of("postHash1", "postHash2", "postHash3"), outcome.getDroppedPostHashes());
+        assertTrue(channel.getItems().isEmpty());
+        assertEquals(envelopeBytes, byteCt(channel));
+    }
+
+    @Test
+    public void testFeedByteBudget_RSS_servedBytes() throws Exception {
+        FeedByteBudget feedByteBudget = new FeedByteBudget(new CachingFeedRenderer(new ItemFragmentCache(1 << 20)), new JsonFeedWriter(new ItemFragmentCache(0L)));
+        List<NormalizedPost> posts = new ArrayList<>(100);
+        for (int i = 0; i < 100; i++) {
+            posts.addAll(NormalizedPost.normalize(List.of(testStagingPost("postHash" + i, new Date(100_000L - i)))));
+        }
+        RSSChannelBuilder rssChannelBuilder = new RSSChannelBuilder(CONFIG_PROPS);
+        long fullBytes = byteCt(rssChannelBuilder.buildChannel(TEST_QUEUE_DEFINITION, posts, TEST_PUBLISH_TIMESTAMP));
+        // at every budget, the document that ROME renders (with the namespaces of the items declared once, on its root
+        // element) stays within the budget
+        for (long maxFeedBytes = fullBytes; maxFeedBytes > fullBytes / 10L; maxFeedBytes -= 997L) {
+            Channel channel = rssChannelBuilder.buildChannelHeader(TEST_QUEUE_DEFINITION, QueueRenderContext.of(TEST_QUEUE_DEFINITION, CONFIG_PROPS), posts, TEST_PUBLISH_TIMESTAMP);
+            FeedByteBudget.Outcome outcome = feedByteBudget.applyToChannel(channel, posts, RSSChannelItemBuilder::toItem, maxFeedBytes);
+            assertFalse(channel.getItems().isEmpty());
+            assertEquals(posts.size(), channel.getItems().size() + outcome.getDroppedPostHashes().size());
+            assertTrue(byteCt(channel) <= maxFeedBytes);
+        }
+    }
+
+    @Test
+    public void testFeedByteBudget_ATOM() throws Exception {
+        FeedByteBudget feedByteBudget = new FeedByteBudget(new CachingFeedRenderer(new ItemFragmentCache(1 << 20)), new JsonFeedWriter(new ItemFragmentCache(0L)));
+        List<NormalizedPost> posts = testPosts();
+        // the middle entry is too large for the budget, but its excerpt is not
+        Feed feed = new ATOMFeedBuilder(CONFIG_PROPS).buildFeed(TEST_QUEUE_DEFINITION, posts, TEST_PUBLISH_TIMESTAMP);
+        Entry largeEntry = feed.getEntries().get(1);
+        largeEntry.getContents().get(0).setValue(LARGE_CONTENT);
+        long fullBytes = byteCt(feed);
+        long maxFeedBytes = fullBytes - 5_000L;
+        Function<NormalizedPost, Entry> entryMapper = mapperOf(posts, feed.getEntries());
+        feed.setEntries(emptyList());
+        FeedByteBudget.Outcome outcome = feedByteBudget.applyToFeed(feed, posts, TEST_PUBLISH_TIMESTAMP, entryMapper, maxFeedBytes);
+        assertEquals(List.of("postHash2"), outcome.getExcerptedPostHashes());
+        assertTrue(outcome.getDroppedPostHashes().isEmpty());
+        assertTrue(feed.getEntries().get(1).getContents().isEmpty());
+        assertEquals(LARGE_CONTENT, largeEntry.getContents().get(0).getValue());
+        assertTrue(byteCt(feed) <= maxFeedBytes);
+        assertTrue(streamingByteCt(feed) <= maxFeedBytes);
+        assertSame(feed, feed.getEntries().get(1).getSource());
+    }
+
+    @Test
+    public void testFeedByteBudget_JSON() throws Exception {
+        JsonFeedWriter jsonFeedWriter = new JsonFeedWriter(new ItemFragmentCache(1 << 20));
+        FeedByteBudget feedByteBudget = new FeedByteBudget(new CachingFeedRenderer(new ItemFragmentCache(0L)), jsonFeedWriter);
+        List<NormalizedPost> posts = testPosts();
+        QueueRenderContext renderContext = QueueRenderContext.of(TEST_QUEUE_DEFINITION, CONFIG_PROPS);
+        long fullBytes = byteCt(jsonFeedWriter, renderContext, posts);
+        // the budget is exact
+        assertTrue(feedByteBudget.applyToJsonFeed(TEST_QUEUE_DEFINITION, renderContext, posts, fullBytes).getDroppedPostHashes().isEmpty());
+        // items that do not fit are dropped
+        FeedByteBudget.Outcome outcome = feedByteBudget.applyToJsonFeed(TEST_QUEUE_DEFINITION, renderContext, posts, fullBytes - 1L);
+        assertEquals(List.of("postHash3"), outcome.getDroppedPostHashes());
+        assertTrue(byteCt(jsonFeedWriter, renderContext, outcome.getPosts()) < fullBytes);
+    }
+
+    @Test
+    public void testFeedByteBudget_utf8Length() {
+        String s = "abc é € 📰";
+        assertEquals(s.getBytes(UTF_8).length, FeedByteBudget.utf8Length(s));
+    }
+
+    private static List<NormalizedPost> testPosts() {
+        return NormalizedPost.normalize(List.of(
+                testStagingPost("postHash1", new Date(3_000L)),
+                testStagingPost("postHash2", new Date(2_000L)),
+                testStagingPost("postHash3", new Date(1_000L))));
+    }
+
+    private static <T> Function<NormalizedPost, T> mapperOf(List<NormalizedPost> posts, List<T> items) {
+        Map<NormalizedPost, T> byPost = new IdentityHashMap<>(posts.size());
+        for (int i = 0; i < posts.size(); i++) {
+            byPost.put(posts.get(i), items.get(i));
+        }
+        return byPost::get;
+    }
+
+    private static long byteCt(JsonFeedWriter jsonFeedWriter, QueueRenderContext renderContext, List<NormalizedPost> posts) throws Exception {
+        StringWriter writer = new StringWriter();
+        jsonFeedWriter.writeFeed(TEST_QUEUE_DEFINITION, renderContext, posts, writer);
+        return writer.toString().getBytes(UTF_8).length;
+    }
+
+    /**
+     * Gets the size of the feed as it is served.
+     */
+    private static long byteCt(WireFeed wireFeed) throws Exception {
+        return new WireFeedOutput().outputString(wireFeed).getBytes(UTF_8).length;
+    }
+
+    private static long streamingByteCt(Channel channel) throws Exception {
+        StringWriter writer = new StringWriter();
+        new StreamingFeedWriter(new ItemFragmentCache(0L)).writeChannel(channel, null, writer);
+        return writer.toString().getBytes(UTF_8).length;
+    }
+
+    private static long streamingByteCt(Feed feed) throws Exception {
+        StringWriter writer = new StringWriter();
+        new StreamingFeedWriter(new ItemFragmentCache(0L)).writeFeed(feed, null, writer);
+        return writer.toString().getBytes(UTF_8).length;
+    }
+}
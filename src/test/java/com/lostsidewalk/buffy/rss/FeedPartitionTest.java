@@ -0,0 +1,147 @@
+package com.lostsidewalk.buffy.rss;
+
+import com.lostsidewalk.buffy.post.StagingPost;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static com.lostsidewalk.buffy.rss.BaseRSSPublisherTest.testStagingPost;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+@Slf4j
+class FeedPartitionTest {
+
+    @Test
+    public void testFeedPartition_topK() {
+        // posts with timestamps 5, 1, 4, 2, 3 (x1000)
+        List<NormalizedPost> posts = new ArrayList<>(5);
+        for (long t : new long[] { 5L, 1L, 4L, 2L, 3L }) {
+            posts.add(post(t));
+        }
+        FeedPartition partition = FeedPartition.of(posts, 2);
+        // the newest posts, in input order
+        assertEquals(List.of(5L, 4L), timestamps(partition.getHead()));
+        // the remaining posts, oldest first
+        assertEquals(List.of(1L, 2L, 3L), timestamps(partition.getArchived()));
+        assertEquals(2, partition.getArchivePageCt(2));
+        assertEquals(List.of(1L, 2L), timestamps(partition.getArchivePage(1, 2)));
+        assertEquals(List.of(3L), timestamps(partition.getArchivePage(2, 2)));
+        assertEquals(0, partition.getArchivePageCt(0));
+    }
+
+    @Test
+    public void testFeedPartition_unbounded() {
+        List<NormalizedPost> posts = List.of(post(1L), post(2L));
+        assertSame(posts, FeedPartition.of(posts, 0).getHead());
+        assertSame(posts, FeedPartition.of(posts, 2).getHead());
+        assertTrue(FeedPartition.of(posts, 2).getArchived().isEmpty());
+    }
+
+    @Test
+    public void testFeedPartition_streaming() {
+        // posts with timestamps 5, 1, 4, 2, 3 (x1000), produced lazily
+        List<StagingPost> stagingPosts = new ArrayList<>(5);
+        for (long t : new long[] { 5L, 1L, 4L, 2L, 3L }) {
+            stagingPosts.add(testStagingPost("postHash" + t, new Date(t * 1_000L)));
+        }
+        FeedPartition partition = FeedPartition.of(stagingPosts.iterator(), 2, true);
+        // the same partition as from the materialized posts
+        assertEquals(List.of(5L, 4L), timestamps(partition.getHead()));
+        assertEquals(List.of(1L, 2L, 3L), timestamps(partition.getArchived()));
+        assertEquals(3, partition.getArchivedCt());
+        // older posts are counted, but not held, if the archive is not retained
+        partition = FeedPartition.of(stagingPosts.iterator(), 2, false);
+        assertEquals(List.of(5L, 4L), timestamps(partition.getHead()));
+        assertTrue(partition.getArchived().isEmpty());
+        assertEquals(3, partition.getArchivedCt());
+        // unbounded
+        assertEquals(5, FeedPartition.of(stagingPosts.iterator(), 0, false).getHead().size());
+    }
+
+    @Test
+    public void testFeedPartition_streamingBound() {
+        int postCt = 10_000;
+        // only the newest posts are held if the archive is not retained
+        FeedPartition partition = FeedPartition.of(lazyStagingPosts(postCt), 10, false);
+        assertEquals(10, partition.getHead().size());
+        assertEquals(postCt - 1L, partition.getHead().get(9).getLastUpdatedTimestamp().getTime() / 1_000L);
+        assertTrue(partition.getArchived().isEmpty());
+        assertEquals(postCt - 10, partition.getArchivedCt());
+        // every post is held if the archive is retained, or if the feed is unbounded
+        partition = FeedPartition.of(lazyStagingPosts(postCt), 10, true);
+        assertEquals(10, partition.getHead().size());
+        assertEquals(postCt - 10, partition.getArchived().size());
+        assertEquals(postCt, FeedPartition.of(lazyStagingPosts(postCt), 0, false).getHead().size());
+    }
+
+    @Test
+    public void testFeedPartition_dedup() {
+        // postHash1 appears three times; the copy updated at 4 is kept, in the position of the first copy
+        List<StagingPost> stagingPosts = List.of(
+                testStagingPost("postHash1", new Date(3_000L)),
+                testStagingPost("postHash2", new Date(2_000L)),
+                testStagingPost("postHash1", new Date(4_000L)),
+                testStagingPost("postHash3", new Date(1_000L)),
+                testStagingPost("postHash1", new Date(1_000L)));
+        FeedPartition partition = FeedPartition.of(NormalizedPost.normalize(stagingPosts), 0);
+        assertEquals(List.of(4L, 2L, 1L), timestamps(partition.getHead()));
+        assertEquals(2, partition.getDuplicateCt());
+        // the same, in a single pass
+        partition = FeedPartition.of(stagingPosts.iterator(), 2, true);
+        assertEquals(List.of(4L, 2L), timestamps(partition.getHead()));
+        assertEquals(List.of(1L), timestamps(partition.getArchived()));
+        assertEquals(1, partition.getArchivedCt());
+        assertEquals(2, partition.getDuplicateCt());
+        // a newer copy of a post that was already dropped from the head replaces it
+        partition = FeedPartition.of(List.of(
+                testStagingPost("postHash1", new Date(1_000L)),
+                testStagingPost("postHash2", new Date(2_000L)),
+                testStagingPost("postHash1", new Date(3_000L))).iterator(), 1, false);
+        assertEquals(List.of(3L), timestamps(partition.getHead()));
+        assertEquals(1, partition.getArchivedCt());
+        assertEquals(1, partition.getDuplicateCt());
+    }
+
+    @Test
+    public void testFeedPartition_manyDuplicates() {
+        // 2,000 posts, each produced 50 times, with each copy newer than the last; copies of a post are spread out, so
+        // that newer copies replace posts both in the head and in the archive
+        int distinctCt = 2_000;
+        int copyCt = 50;
+        List<StagingPost> stagingPosts = new ArrayList<>(distinctCt * copyCt);
+        for (int copy = 0; copy < copyCt; copy++) {
+            for (int i = 0; i < distinctCt; i++) {
+                stagingPosts.add(testStagingPost("postHash" + i, new Date(((long) copy * distinctCt + ((i * 7L) % distinctCt)) * 1_000L)));
+            }
+        }
+        FeedPartition expected = FeedPartition.of(NormalizedPost.normalize(stagingPosts), 10);
+        for (boolean retainArchived : new boolean[] { true, false }) {
+            FeedPartition partition = FeedPartition.of(stagingPosts.iterator(), 10, retainArchived);
+            assertEquals(timestamps(expected.getHead()), timestamps(partition.getHead()));
+            assertEquals(retainArchived ? timestamps(expected.getArchived()) : List.of(), timestamps(partition.getArchived()));
+            assertEquals(distinctCt - 10, partition.getArchivedCt());
+            assertEquals(distinctCt * (copyCt - 1), partition.getDuplicateCt());
+        }
+    }
+
+    // produces posts with timestamps 0, 1, 2, ... (x1000), each built only when it is asked for
+    private static Iterator<StagingPost> lazyStagingPosts(int postCt) {
+        return IntStream.range(0, postCt)
+                .mapToObj(t -> testStagingPost("postHash" + t, new Date(t * 1_000L)))
+                .iterator();
+    }
+
+    private static NormalizedPost post(long t) {
+        return NormalizedPost.from(testStagingPost("postHash" + t, new Date(t * 1_000L)));
+    }
+
+    private static List<Long> timestamps(List<NormalizedPost> posts) {
+        return posts.stream().map(p -> p.getLastUpdatedTimestamp().getTime() / 1_000L).toList();
+    }
+}
@@ -0,0 +1,42 @@
+package com.lostsidewalk.buffy.rss;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Feed variant store that holds the most recently used feed variants in memory, bounded by their total size.
+ */
+@Slf4j
+final class InMemoryFeedVariantStore implements FeedVariantStore {
+
+    private final WeightedLruCache<String, RenderedFeedVariants> variants;
+
+    InMemoryFeedVariantStore(long maxBytes) {
+        this.variants = new WeightedLruCache<>(maxBytes, RenderedFeedVariants::getByteCt);
+    }
+
+    @Override
+    public void putVariants(RenderedFeedVariants feedVariants) {
+        variants.put(variantsKey(feedVariants.getTransportIdent(), feedVariants.getPublisherId()), feedVariants);
+    }
+
+    @Override
+    public RenderedFeedVariants getVariants(String transportIdent, String publisherId) {
+        return variants.get(variantsKey(transportIdent, publisherId));
+    }
+
+    @Override
+    public void removeVariants(String transportIdent, String publisherId) {
+        variants.remove(variantsKey(transportIdent, publisherId));
+    }
+
+    private static String variantsKey(String transportIdent, String publisherId) {
+        return transportIdent + '/' + publisherId;
+    }
+
+    @Override
+    public String toString() {
+        return "InMemoryFeedVariantStore{" +
+                "variants=" + variants +
+                '}';
+    }
+}
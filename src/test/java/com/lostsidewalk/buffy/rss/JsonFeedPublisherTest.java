@@ -0,0 +1,43 @@
+package com.lostsidewalk.buffy.rss;
+
+import com.lostsidewalk.buffy.publisher.FeedPreview;
+import com.lostsidewalk.buffy.publisher.Publisher;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.singletonList;
+import static org.apache.commons.collections4.CollectionUtils.size;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+
+@Slf4j
+@TestPropertySource(properties = {"rss.publisher.json-feed-enabled=true", "rss.publisher.skip-unchanged-writes=true"})
+class JsonFeedPublisherTest extends BaseRSSPublisherTest {
+
+    @Test
+    public void testRssPublisher_jsonFeed() throws Exception {
+        Map<String, Publisher.PubResult> pubResults = rssPublisher.publishFeed(TEST_QUEUE_DEFINITION, singletonList(TEST_STAGING_POST), TEST_PUBLISH_TIMESTAMP);
+        Publisher.PubResult jsonFeedResult = pubResults.get(RSSPublisher.JSON_FEED_PUBLISHER_ID);
+        assertNotNull(jsonFeedResult);
+        assertEquals(0, size(jsonFeedResult.getErrors()));
+        RenderedFeedVariants feedVariants = rssPublisher.getFeedVariants(TEST_QUEUE_DEFINITION.getTransportIdent(), RSSPublisher.JSON_FEED_PUBLISHER_ID);
+        assertNotNull(feedVariants);
+        assertTrue(feedVariants.getContentType().startsWith("application/feed+json"));
+        String content = new String(feedVariants.getContent(RenderedFeedVariants.IDENTITY_ENCODING), UTF_8);
+        assertTrue(content.contains(JsonFeedWriter.JSON_FEED_VERSION));
+        // an unchanged feed is not stored again
+        rssPublisher.publishFeed(TEST_QUEUE_DEFINITION, singletonList(TEST_STAGING_POST), TEST_PUBLISH_TIMESTAMP);
+        assertTrue(rssPublisher.getPublishReport(TEST_QUEUE_DEFINITION.getTransportIdent(), RSSPublisher.JSON_FEED_PUBLISHER_ID).isStoreSkipped());
+        // previews
+        when(queueDefinitionDao.findByQueueId("jsonUser", TEST_QUEUE_DEFINITION.getId())).thenReturn(TEST_QUEUE_DEFINITION);
+        List<FeedPreview> feedPreviews = rssPublisher.doJsonFeedPreview("jsonUser", singletonList(TEST_STAGING_POST));
+        assertEquals(1, feedPreviews.size());
+        assertEquals(content, feedPreviews.get(0).getPreviewArtifact());
+    }
+}
@@ -0,0 +1,102 @@
+package com.lostsidewalk.buffy.rss;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.lostsidewalk.buffy.post.StagingPost;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.List;
+
+import static com.lostsidewalk.buffy.rss.BaseRSSPublisherTest.*;
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+@Slf4j
+class JsonFeedWriterTest {
+
+    private static final RSSPublisherConfigProps CONFIG_PROPS = new RSSPublisherConfigProps();
+    static {
+        CONFIG_PROPS.setChannelLinkTemplate("https://localhost/rss/%s");
+        CONFIG_PROPS.setChannelUriTemplate("https://localhost/atom/%s");
+        CONFIG_PROPS.setChannelImageUrlTemplate("https://localhost/img/%s");
+        CONFIG_PROPS.setChannelJsonFeedUrlTemplate("https://localhost/json/%s");
+    }
+
+    @Test
+    public void testJsonFeedWriter() throws Exception {
+        ItemFragmentCache fragmentCache = new ItemFragmentCache(1 << 20);
+        JsonFeedWriter jsonFeedWriter = new JsonFeedWriter(fragmentCache);
+        List<NormalizedPost> posts = NormalizedPost.normalize(singletonList(TEST_STAGING_POST));
+        QueueRenderContext renderContext = QueueRenderContext.of(TEST_QUEUE_DEFINITION, CONFIG_PROPS);
+        StringWriter writer = new StringWriter();
+        jsonFeedWriter.writeFeed(TEST_QUEUE_DEFINITION, renderContext, posts, writer);
+        String written = writer.toString();
+        assertEquals(1, fragmentCache.size());
+        JsonObject feed = JsonParser.parseString(written).getAsJsonObject();
+        assertEquals(JsonFeedWriter.JSON_FEED_VERSION, feed.get("version").getAsString());
+        assertEquals("testTitle", feed.get("title").getAsString());
+        assertEquals("https://localhost/rss/testTransportIdent", feed.get("home_page_url").getAsString());
+        assertEquals("https://localhost/json/testTransportIdent", feed.get("feed_url").getAsString());
+        assertEquals("testDescription", feed.get("description").getAsString());
+        JsonArray items = feed.getAsJsonArray("items");
+        assertEquals(1, items.size());
+        JsonObject item = items.get(0).getAsJsonObject();
+        assertEquals(TEST_STAGING_POST.getPostHash(), item.get("id").getAsString());
+        assertEquals(TEST_STAGING_POST.getPostUrl(), item.get("url").getAsString());
+        assertEquals("testPostTitle", item.get("title").getAsString());
+        assertEquals("testPostContent", item.get("content_text").getAsString());
+        assertEquals("testPostDescription", item.get("summary").getAsString());
+        assertTrue(item.has("date_published"));
+        assertEquals("testEnclosureUrl", item.getAsJsonArray("attachments").get(0).getAsJsonObject().get("url").getAsString());
+        // a second write is served from the fragment cache
+        StringWriter second = new StringWriter();
+        jsonFeedWriter.writeFeed(TEST_QUEUE_DEFINITION, renderContext, posts, second);
+        assertEquals(written, second.toString());
+        // an empty feed still has its items
+        StringWriter empty = new StringWriter();
+        jsonFeedWriter.writeFeed(TEST_QUEUE_DEFINITION, renderContext, List.of(), empty);
+        assertEquals(0, JsonParser.parseString(empty.toString()).getAsJsonObject().getAsJsonArray("items").size());
+    }
+
+    @Test
+    public void testJsonFeedWriter_requiredItemFields() throws Exception {
+        JsonFeedWriter jsonFeedWriter = new JsonFeedWriter(new ItemFragmentCache(1 << 20));
+        // a post without a hash, a URL, content, or a description
+        StagingPost barePost = StagingPost.from(
+                "testImporterId",
+                TEST_STAGING_POST.getQueueId(),
+                "testImporterDesc",
+                667L,
+                TEST_STAGING_POST.getPostTitle(),
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                null,
+                TEST_PUBLISH_TIMESTAMP,
+                null,
+                "me",
+                null,
+                null,
+                null,
+                null,
+                null,
+                TEST_PUBLISH_TIMESTAMP,
+                null,
+                null,
+                TEST_PUBLISH_TIMESTAMP
+        );
+        StringWriter writer = new StringWriter();
+        jsonFeedWriter.writeFeed(TEST_QUEUE_DEFINITION, QueueRenderContext.of(TEST_QUEUE_DEFINITION, CONFIG_PROPS), NormalizedPost.normalize(singletonList(barePost)), writer);
+        JsonObject item = JsonParser.parseString(writer.toString()).getAsJsonObject().getAsJsonArray("items").get(0).getAsJsonObject();
+        assertFalse(item.get("id").isJsonNull());
+        assertFalse(item.get("id").getAsString().isEmpty());
+        assertEquals("", item.get("content_text").getAsString());
+    }
+}
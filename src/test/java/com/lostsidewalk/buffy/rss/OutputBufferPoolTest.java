@@ -0,0 +1,51 @@
+package com.lostsidewalk.buffy.rss;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+@Slf4j
+class OutputBufferPoolTest {
+
+    @Test
+    public void testOutputBufferPool_reuse() {
+        OutputBufferPool outputBufferPool = new OutputBufferPool(1, 1_048_576, false);
+        PooledOutputBuffer buffer = outputBufferPool.acquire();
+        buffer.write("<rss/>".getBytes(UTF_8), 0, 6);
+        outputBufferPool.release(buffer);
+        assertEquals(1, outputBufferPool.size());
+        // the released buffer is handed out again, empty
+        PooledOutputBuffer reused = outputBufferPool.acquire();
+        assertSame(buffer, reused);
+        assertEquals(0, reused.size());
+        // buffers that grew beyond the retained size are dropped
+        byte[] large = new byte[2_097_152];
+        reused.write(large, 0, large.length);
+        outputBufferPool.release(reused);
+        assertEquals(0, outputBufferPool.size());
+    }
+
+    @Test
+    public void testOutputBufferPool_write() throws Exception {
+        for (boolean direct : new boolean[] { false, true }) {
+            OutputBufferPool outputBufferPool = new OutputBufferPool(1, 1_048_576, direct);
+            PooledOutputBuffer buffer = outputBufferPool.acquire();
+            String text = "<title>café 📰</title>\r\n".repeat(2_000);
+            try (Writer writer = new LineBreakFilterWriter(new OutputStreamWriter(buffer, UTF_8))) {
+                writer.write(text);
+                writer.write('\n');
+                writer.write("x\ny".toCharArray());
+            }
+            String expected = text.replace("\r", "").replace("\n", "") + "xy";
+            assertEquals(expected, buffer.toString(UTF_8));
+            assertArrayEquals(expected.getBytes(UTF_8), buffer.toByteArray());
+            assertEquals(expected.getBytes(UTF_8).length, buffer.size());
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.lostsidewalk.buffy.rss;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+@Slf4j
+@TestPropertySource(properties = "rss.publisher.precompress-enabled=true")
+class PrecompressedFeedPublisherTest extends BaseRSSPublisherTest {
+
+    @Test
+    public void testRssPublisher_precompressed() throws Exception {
+        rssPublisher.publishFeed(TEST_QUEUE_DEFINITION, singletonList(TEST_STAGING_POST), TEST_PUBLISH_TIMESTAMP);
+        PublishReport publishReport = rssPublisher.getPublishReport(TEST_QUEUE_DEFINITION.getTransportIdent(), RSSPublisher.RSS_PUBLISHER_ID);
+        RenderedFeedVariants feedVariants = rssPublisher.getFeedVariants(TEST_QUEUE_DEFINITION.getTransportIdent(), RSSPublisher.RSS_PUBLISHER_ID);
+        assertNotNull(feedVariants);
+        assertEquals(Set.of(GzipFeedCompressor.GZIP_ENCODING), feedVariants.getEncodings());
+        assertEquals(publishReport.getETag(), feedVariants.getETag(RenderedFeedVariants.IDENTITY_ENCODING));
+        assertNotEquals(feedVariants.getETag(RenderedFeedVariants.IDENTITY_ENCODING), feedVariants.getETag(GzipFeedCompressor.GZIP_ENCODING));
+        byte[] content = feedVariants.getContent(RenderedFeedVariants.IDENTITY_ENCODING);
+        // the stored document is the one rendered by the digest pass, publication date included
+        assertTrue(new String(content, UTF_8).contains("<rss"));
+        assertTrue(new String(content, UTF_8).contains("<pubDate>" + StreamingFeedWriter.formatRFC822Date(TEST_PUBLISH_TIMESTAMP) + "</pubDate>"));
+        try (GZIPInputStream gzipStream = new GZIPInputStream(new ByteArrayInputStream(feedVariants.getContent(GzipFeedCompressor.GZIP_ENCODING)))) {
+            assertArrayEquals(content, gzipStream.readAllBytes());
+        }
+        assertNotNull(rssPublisher.getFeedVariants(TEST_QUEUE_DEFINITION.getTransportIdent(), RSSPublisher.ATOM_PUBLISHER_ID));
+    }
+}
@@ -0,0 +1,79 @@
+package com.lostsidewalk.buffy.rss;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+@Slf4j
+class PublishCoalescerTest {
+
+    @Test
+    public void testPublishCoalescer() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        // signals the first coalesced publish, which registers the counter
+        CountDownLatch coalesced = new CountDownLatch(1);
+        meterRegistry.config().onMeterAdded(meter -> {
+            if (PublisherMetrics.COALESCED_COUNTER.equals(meter.getId().getName())) {
+                coalesced.countDown();
+            }
+        });
+        PublisherMetrics publisherMetrics = new PublisherMetrics(meterRegistry);
+        PublishCoalescer<String> publishCoalescer = new PublishCoalescer<>(4, 0L, publisherMetrics);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            // the first publish holds the lock of the transport identity
+            CountDownLatch running = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            Future<String> first = executor.submit(() -> publishCoalescer.publish("testTransportIdent", () -> {
+                running.countDown();
+                await(release);
+                return "first";
+            }));
+            assertTrue(running.await(10L, SECONDS));
+            // of the two publishes that arrive while it runs, one waits for the lock and the other replaces it
+            CyclicBarrier arrival = new CyclicBarrier(2);
+            AtomicInteger runs = new AtomicInteger();
+            Future<String> second = executor.submit(() -> {
+                arrival.await(10L, SECONDS);
+                return publishCoalescer.publish("testTransportIdent", () -> {
+                    runs.incrementAndGet();
+                    return "second";
+                });
+            });
+            Future<String> third = executor.submit(() -> {
+                arrival.await(10L, SECONDS);
+                return publishCoalescer.publish("testTransportIdent", () -> {
+                    runs.incrementAndGet();
+                    return "third";
+                });
+            });
+            assertTrue(coalesced.await(10L, SECONDS));
+            release.countDown();
+            assertEquals("first", first.get(10L, SECONDS));
+            String coalescedResult = second.get(10L, SECONDS);
+            assertEquals(coalescedResult, third.get(10L, SECONDS));
+            assertEquals(1, runs.get());
+            assertEquals(1.0, meterRegistry.counter(PublisherMetrics.COALESCED_COUNTER).count());
+            // publishes that do not overlap are not coalesced
+            assertEquals("fourth", publishCoalescer.publish("testTransportIdent", () -> "fourth"));
+            assertEquals("fifth", publishCoalescer.publishNow("testTransportIdent", () -> "fifth"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10L, SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
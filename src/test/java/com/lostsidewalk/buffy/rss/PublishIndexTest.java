@@ -0,0 +1,83 @@
+package com.lostsidewalk.buffy.rss;
+
+import com.rometools.rome.feed.atom.Entry;
+import com.rometools.rome.feed.atom.Feed;
+import com.rometools.rome.feed.rss.Item;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.List;
+
+import static com.lostsidewalk.buffy.rss.BaseRSSPublisherTest.TEST_STAGING_POST;
+import static com.lostsidewalk.buffy.rss.BaseRSSPublisherTest.testStagingPost;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+@Slf4j
+class PublishIndexTest {
+
+    @Test
+    public void testPublishIndex_reuse() {
+        PublishIndex<Entry> publishIndex = new PublishIndex<>(16L, post -> true, ATOMFeedEntryBuilder::copyOf);
+        List<NormalizedPost> posts = NormalizedPost.normalize(List.of(testStagingPost("postHash", new Date(1_000L))));
+        Date pubDate = new Date(2_000L);
+        PublishIndex<Entry>.Pass first = publishIndex.begin("transportIdent", 0);
+        Entry published = first.map(posts.get(0), post -> ATOMFeedEntryBuilder.toEntry(post, pubDate));
+        Feed previousFeed = new Feed();
+        published.setSource(previousFeed);
+        first.commit();
+        // the unchanged post is reused as a copy, which the next feed may modify without touching the retained entry
+        PublishIndex<Entry>.Pass second = publishIndex.begin("transportIdent", 0);
+        Entry reused = second.map(posts.get(0), post -> fail("unchanged posts are not rebuilt"));
+        assertNotSame(published, reused);
+        assertEquals(published.getId(), reused.getId());
+        reused.setSource(new Feed());
+        assertSame(previousFeed, published.getSource());
+        PublishReport publishReport = new PublishReport();
+        second.report(publishReport);
+        assertEquals(1, publishReport.getUnchangedCt());
+    }
+
+    @Test
+    public void testPublishIndex_modules() {
+        PublishIndex<Entry> publishIndex = new PublishIndex<>(16L, post -> true, ATOMFeedEntryBuilder::copyOf);
+        NormalizedPost post = NormalizedPost.from(TEST_STAGING_POST);
+        // the RSS item and the ATOM entry of a post each own their module list
+        Item item = RSSChannelItemBuilder.toItem(post);
+        PublishIndex<Entry>.Pass first = publishIndex.begin("transportIdent", 0);
+        Entry published = first.map(post, p -> ATOMFeedEntryBuilder.toEntry(p, null));
+        first.commit();
+        assertEquals(2, item.getModules().size());
+        assertNotSame(item.getModules(), published.getModules());
+        assertNotSame(post.getModules(), item.getModules());
+        item.getModules().clear();
+        assertEquals(2, published.getModules().size());
+        // as does the reused copy of the entry
+        PublishIndex<Entry>.Pass second = publishIndex.begin("transportIdent", 0);
+        Entry reused = second.map(post, p -> fail("unchanged posts are not rebuilt"));
+        assertNotSame(published.getModules(), reused.getModules());
+        reused.getModules().clear();
+        assertEquals(2, published.getModules().size());
+        assertEquals(2, post.getModules().size());
+    }
+
+    @Test
+    public void testPublishIndex_bounded() {
+        // room for two single-post snapshots
+        PublishIndex<Entry> publishIndex = new PublishIndex<>(4L, post -> true, ATOMFeedEntryBuilder::copyOf);
+        List<NormalizedPost> posts = NormalizedPost.normalize(List.of(testStagingPost("postHash", new Date(1_000L))));
+        for (String transportIdent : List.of("first", "second", "third")) {
+            PublishIndex<Entry>.Pass pass = publishIndex.begin(transportIdent, 0);
+            pass.map(posts.get(0), post -> ATOMFeedEntryBuilder.toEntry(post, null));
+            pass.commit();
+        }
+        // the least recently published transport identifier is forgotten
+        assertEquals(2, publishIndex.size());
+        PublishReport publishReport = new PublishReport();
+        PublishIndex<Entry>.Pass pass = publishIndex.begin("first", 0);
+        pass.map(posts.get(0), post -> ATOMFeedEntryBuilder.toEntry(post, null));
+        pass.report(publishReport);
+        assertEquals(1, publishReport.getAddedCt());
+    }
+}
@@ -0,0 +1,58 @@
+package com.lostsidewalk.buffy.rss;
+
+import com.lostsidewalk.buffy.publisher.Publisher;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.lang.System.nanoTime;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.synchronizedList;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.apache.commons.collections4.CollectionUtils.size;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+
+
+@Slf4j
+@TestPropertySource(properties = "rss.publisher.publish-timeout-millis=100")
+class PublishTimeoutTest extends BaseRSSPublisherTest {
+
+    @Test
+    public void testRssPublisher_publishTimeout() throws Exception {
+        String transportIdent = TEST_QUEUE_DEFINITION.getTransportIdent();
+        List<String> storeEvents = synchronizedList(new ArrayList<>(3));
+        // the first store write outlasts the publish timeout, and (like a blocking socket write) ignores interrupts
+        doAnswer(invocation -> {
+            storeEvents.add("slowWriteStarted");
+            long until = nanoTime() + MILLISECONDS.toNanos(500L);
+            for (long remaining = until - nanoTime(); remaining > 0L; remaining = until - nanoTime()) {
+                LockSupport.parkNanos(remaining);
+            }
+            storeEvents.add("slowWriteFinished");
+            return null;
+        }).doAnswer(invocation -> {
+            storeEvents.add("writeStarted");
+            return null;
+        }).when(renderedFeedDao).putRSSFeedAtTransportIdent(eq(transportIdent), any());
+        Map<String, Publisher.PubResult> pubResults = rssPublisher.publishFeed(TEST_QUEUE_DEFINITION, singletonList(TEST_STAGING_POST), TEST_PUBLISH_TIMESTAMP);
+        List<Throwable> errors = pubResults.get(RSSPublisher.RSS_PUBLISHER_ID).getErrors();
+        assertEquals(1, size(errors));
+        assertInstanceOf(TimeoutException.class, errors.get(0));
+        // the abandoned publish stopped after its write, without committing
+        assertNull(rssPublisher.getPublishReport(transportIdent, RSSPublisher.RSS_PUBLISHER_ID));
+        // the next publish runs only once the abandoned write has finished
+        pubResults = rssPublisher.publishFeed(TEST_QUEUE_DEFINITION, singletonList(TEST_STAGING_POST), TEST_PUBLISH_TIMESTAMP);
+        assertEquals(0, size(pubResults.get(RSSPublisher.RSS_PUBLISHER_ID).getErrors()));
+        assertEquals(List.of("slowWriteStarted", "slowWriteFinished", "writeStarted"), storeEvents);
+        assertNotNull(rssPublisher.getPublishReport(transportIdent, RSSPublisher.RSS_PUBLISHER_ID));
+    }
+}
@@ -0,0 +1,67 @@
+package com.lostsidewalk.buffy.rss;
+
+import com.lostsidewalk.buffy.queue.QueueDefinition;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+@Slf4j
+class QueueExportConfigTest {
+
+    @Test
+    public void testQueueExportConfig_parse() {
+        QueueExportConfig exportConfig = QueueExportConfig.of(BaseRSSPublisherTest.TEST_QUEUE_DEFINITION);
+        //
+        QueueExportConfig.RssConfig rssConfig = exportConfig.getRssConfig();
+        assertNotNull(rssConfig);
+        assertEquals("testManagingEditor", rssConfig.getManagingEditor());
+        assertEquals("testCloudPath", rssConfig.getCloudPath());
+        assertNull(rssConfig.getCloudPort());
+        assertEquals(List.of(1, 2), rssConfig.getSkipHours());
+        assertEquals(List.of("Monday", "Tuesday"), rssConfig.getSkipDays());
+        //
+        QueueExportConfig.AtomConfig atomConfig = exportConfig.getAtomConfig();
+        assertNotNull(atomConfig);
+        assertEquals("testAuthorName", atomConfig.getAuthorName());
+        assertEquals("testCategoryScheme", atomConfig.getCategoryScheme());
+    }
+
+    @Test
+    public void testQueueExportConfig_cache() {
+        QueueDefinition queueDefinition = newQueueDefinition(1L, "{ \"rssConfig\": { \"docs\" : \"testDocs\" } }");
+        QueueExportConfig exportConfig = QueueExportConfig.of(queueDefinition);
+        // unchanged source is served from the cache, whether or not it is the same object
+        assertSame(exportConfig, QueueExportConfig.of(queueDefinition));
+        assertSame(exportConfig, QueueExportConfig.of(newQueueDefinition(1L, new String("{ \"rssConfig\": { \"docs\" : \"testDocs\" } }"))));
+        // changed source is re-parsed
+        QueueExportConfig updated = QueueExportConfig.of(newQueueDefinition(1L, "{ \"rssConfig\": { \"docs\" : \"updatedDocs\" } }"));
+        assertNotSame(exportConfig, updated);
+        assertEquals("updatedDocs", updated.getRssConfig().getDocs());
+        assertNull(updated.getAtomConfig());
+        assertNull(updated.getMaxFeedBytes());
+        // the per-queue byte budget is a top-level property
+        assertEquals(65_536L, QueueExportConfig.of(newQueueDefinition(2L, "{ \"maxFeedBytes\": 65536 }")).getMaxFeedBytes());
+    }
+
+    private static QueueDefinition newQueueDefinition(Long id, String exportConfig) {
+        QueueDefinition queueDefinition = QueueDefinition.from(
+                "testFeedIdent",
+                "testTitle",
+                "testDescription",
+                "testGenerator",
+                "testTransportIdent",
+                "me",
+                exportConfig,
+                "testCopyright",
+                "testLanguage",
+                "testFeedImgSrc",
+                false
+        );
+        queueDefinition.setId(id);
+        return queueDefinition;
+    }
+}
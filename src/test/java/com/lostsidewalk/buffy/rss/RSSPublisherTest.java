@@ -1,19 +1,36 @@
 package com.lostsidewalk.buffy.rss;
 
+import com.lostsidewalk.buffy.publisher.FeedPreview;
 import com.lostsidewalk.buffy.publisher.Publisher;
 import com.lostsidewalk.buffy.model.RenderedRSSFeed;
+import com.lostsidewalk.buffy.post.StagingPost;
+import com.lostsidewalk.buffy.queue.QueueDefinition;
 import com.rometools.rome.feed.rss.*;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Stream;
 
+import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.apache.commons.collections4.CollectionUtils.size;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
 
 
 @Slf4j
@@ -43,6 +60,197 @@ class RSSPublisherTest extends BaseRSSPublisherTest {
         validateChannelOptionalProperties(channel);
         // validate channel items
         validateChannelItems(channel);
+        // JSON feeds are not published by default
+        assertNull(pubResults.get(RSSPublisher.JSON_FEED_PUBLISHER_ID));
+        // validate metrics
+        MeterRegistry meterRegistry = rssPublisher.publisherMetrics.getMeterRegistry();
+        for (String phase : List.of(PublisherMetrics.PHASE_NORMALIZE, PublisherMetrics.PHASE_CONFIG)) {
+            assertNotNull(meterRegistry.find(PublisherMetrics.PHASE_TIMER).tags("operation", PublisherMetrics.OPERATION_PUBLISH, "phase", phase).timer());
+        }
+        for (String phase : List.of(PublisherMetrics.PHASE_BUILD, PublisherMetrics.PHASE_STORE)) {
+            assertNotNull(meterRegistry.find(PublisherMetrics.PHASE_TIMER).tags("operation", PublisherMetrics.OPERATION_PUBLISH, "phase", phase, "format", RSSPublisher.RSS_PUBLISHER_ID).timer());
+        }
+        assertNotNull(meterRegistry.find(PublisherMetrics.ITEM_COUNT_SUMMARY).tags("format", RSSPublisher.RSS_PUBLISHER_ID).summary());
+    }
+
+    @Test
+    public void testRssPublisher_batch() {
+        // setup batch
+        QueueDefinition otherQueueDefinition = testQueueDefinition("other");
+        Map<QueueDefinition, List<StagingPost>> stagingPostsByQueue = new LinkedHashMap<>(2);
+        stagingPostsByQueue.put(TEST_QUEUE_DEFINITION, singletonList(TEST_STAGING_POST));
+        stagingPostsByQueue.put(otherQueueDefinition, emptyList());
+        // invoke test
+        Map<String, Map<String, Publisher.PubResult>> pubResults = rssPublisher.publishFeeds(stagingPostsByQueue, TEST_PUBLISH_TIMESTAMP);
+        // evaluate the result
+        assertNotNull(pubResults);
+        assertEquals(2, pubResults.size());
+        for (String transportIdent : List.of("testTransportIdent", "otherTransportIdent")) {
+            Map<String, Publisher.PubResult> queuePubResults = pubResults.get(transportIdent);
+            assertNotNull(queuePubResults);
+            assertEquals(0, size(queuePubResults.get(RSSPublisher.RSS_PUBLISHER_ID).getErrors()));
+            assertEquals(0, size(queuePubResults.get(RSSPublisher.ATOM_PUBLISHER_ID).getErrors()));
+        }
+    }
+
+    @Test
+    public void testRssPublisher_incremental() {
+        // setup mocks
+        ArgumentCaptor<RenderedRSSFeed> rssChannelValueCapture = ArgumentCaptor.forClass(RenderedRSSFeed.class);
+        try {
+            doNothing().when(renderedFeedDao).putRSSFeedAtTransportIdent(anyString(), rssChannelValueCapture.capture());
+        } catch (Exception e) {
+            fail(e.getMessage());
+        }
+        QueueDefinition incrementalQueueDefinition = testQueueDefinition("incremental");
+        // first publish: everything is new
+        rssPublisher.publishFeed(incrementalQueueDefinition, singletonList(TEST_STAGING_POST), TEST_PUBLISH_TIMESTAMP);
+        PublishReport firstReport = rssPublisher.getPublishReport("incrementalTransportIdent", RSSPublisher.RSS_PUBLISHER_ID);
+        assertNotNull(firstReport);
+        assertEquals(1, firstReport.getAddedCt());
+        assertEquals(0, firstReport.getUnchangedCt());
+        assertTrue(firstReport.isHeaderChanged());
+        Item firstItem = rssChannelValueCapture.getValue().getChannel().getItems().get(0);
+        // second publish: the unchanged post is carried over
+        rssPublisher.publishFeed(incrementalQueueDefinition, singletonList(TEST_STAGING_POST), TEST_PUBLISH_TIMESTAMP);
+        PublishReport secondReport = rssPublisher.getPublishReport("incrementalTransportIdent", RSSPublisher.RSS_PUBLISHER_ID);
+        assertEquals(0, secondReport.getAddedCt());
+        assertEquals(0, secondReport.getChangedCt());
+        assertEquals(1, secondReport.getUnchangedCt());
+        assertFalse(secondReport.isHeaderChanged());
+        assertSame(firstItem, rssChannelValueCapture.getValue().getChannel().getItems().get(0));
+        // third publish: the post is removed
+        rssPublisher.publishFeed(incrementalQueueDefinition, emptyList(), TEST_PUBLISH_TIMESTAMP);
+        PublishReport thirdReport = rssPublisher.getPublishReport("incrementalTransportIdent", RSSPublisher.RSS_PUBLISHER_ID);
+        assertEquals(1, thirdReport.getRemovedCt());
+        assertEquals(1, rssPublisher.getPublishReport("incrementalTransportIdent", RSSPublisher.ATOM_PUBLISHER_ID).getRemovedCt());
+    }
+
+    @Test
+    public void testRssPublisher_variants() throws Exception {
+        rssPublisher.publishFeed(TEST_QUEUE_DEFINITION, singletonList(TEST_STAGING_POST), TEST_PUBLISH_TIMESTAMP);
+        PublishReport publishReport = rssPublisher.getPublishReport(TEST_QUEUE_DEFINITION.getTransportIdent(), RSSPublisher.RSS_PUBLISHER_ID);
+        // precompression is off by default, so only the identity variant is stored
+        RenderedFeedVariants feedVariants = rssPublisher.getFeedVariants(TEST_QUEUE_DEFINITION.getTransportIdent(), RSSPublisher.RSS_PUBLISHER_ID);
+        assertNotNull(feedVariants);
+        assertTrue(feedVariants.getEncodings().isEmpty());
+        assertEquals(publishReport.getDigest(), feedVariants.getDigest());
+        assertNull(feedVariants.getContent(GzipFeedCompressor.GZIP_ENCODING));
+    }
+
+    @Test
+    public void testRssPublisher_previewBulkLookup() throws Exception {
+        QueueDefinition otherQueueDefinition = testQueueDefinition("other", "previewUser", null);
+        otherQueueDefinition.setId(TEST_STAGING_POST.getQueueId() + 1L);
+        StagingPost otherStagingPost = testStagingPost(otherQueueDefinition.getId(), "previewUser", "otherPostHash", TEST_PUBLISH_TIMESTAMP);
+        when(queueDefinitionDao.findByQueueId("previewUser", TEST_QUEUE_DEFINITION.getId())).thenReturn(TEST_QUEUE_DEFINITION);
+        when(queueDefinitionDao.findByUser("previewUser")).thenReturn(List.of(TEST_QUEUE_DEFINITION, otherQueueDefinition));
+        List<StagingPost> stagingPosts = List.of(TEST_STAGING_POST, otherStagingPost);
+        // a cold multi-queue preview costs a single DAO call
+        assertEquals(2, rssPublisher.doPreview("previewUser", stagingPosts, Publisher.PubFormat.RSS).size());
+        verify(queueDefinitionDao, times(1)).findByUser("previewUser");
+        verify(queueDefinitionDao, never()).findByQueueId(eq("previewUser"), any());
+        // subsequent previews are served from the cache
+        assertEquals(2, rssPublisher.doPreview("previewUser", stagingPosts, Publisher.PubFormat.ATOM).size());
+        assertEquals(1, rssPublisher.doPreview("previewUser", List.of(TEST_STAGING_POST), Publisher.PubFormat.RSS).size());
+        verify(queueDefinitionDao, times(1)).findByUser("previewUser");
+        verify(queueDefinitionDao, never()).findByQueueId(eq("previewUser"), any());
+        // previews are rendered concurrently, but returned in order of first appearance
+        List<FeedPreview> feedPreviews = rssPublisher.doPreview("previewUser", List.of(otherStagingPost, TEST_STAGING_POST, otherStagingPost), Publisher.PubFormat.RSS);
+        assertEquals(List.of(otherQueueDefinition.getId(), TEST_QUEUE_DEFINITION.getId()), feedPreviews.stream().map(FeedPreview::getId).toList());
+        assertTrue(feedPreviews.get(0).getPreviewArtifact().contains("otherTitle"));
+        // evicting the user's queue definitions forces a reload; a single-queue preview looks up only its own queue
+        rssPublisher.evictQueueDefinitions("previewUser");
+        assertEquals(1, rssPublisher.doPreview("previewUser", List.of(TEST_STAGING_POST), Publisher.PubFormat.RSS).size());
+        verify(queueDefinitionDao, times(1)).findByQueueId("previewUser", TEST_QUEUE_DEFINITION.getId());
+        verify(queueDefinitionDao, times(1)).findByUser("previewUser");
+    }
+
+    @Test
+    public void testRssPublisher_byteBudget() throws Exception {
+        // a per-queue budget too small for any item
+        QueueDefinition budgetQueueDefinition = testQueueDefinition("budget", "me", "{ \"maxFeedBytes\": 1 }");
+        ArgumentCaptor<RenderedRSSFeed> rssChannelValueCapture = ArgumentCaptor.forClass(RenderedRSSFeed.class);
+        doNothing().when(renderedFeedDao).putRSSFeedAtTransportIdent(anyString(), rssChannelValueCapture.capture());
+        rssPublisher.publishFeed(budgetQueueDefinition, singletonList(TEST_STAGING_POST), TEST_PUBLISH_TIMESTAMP);
+        assertTrue(rssChannelValueCapture.getValue().getChannel().getItems().isEmpty());
+        for (String publisherId : List.of(RSSPublisher.RSS_PUBLISHER_ID, RSSPublisher.ATOM_PUBLISHER_ID)) {
+            PublishReport publishReport = rssPublisher.getPublishReport("budgetTransportIdent", publisherId);
+            assertEquals(List.of(TEST_STAGING_POST.getPostHash()), publishReport.getDroppedPostHashes());
+            assertTrue(publishReport.getExcerptedPostHashes().isEmpty());
+        }
+    }
+
+    @Test
+    public void testRssPublisher_publishAsync() throws Exception {
+        Map<String, Publisher.PubResult> pubResults = rssPublisher.publishFeedAsync(TEST_QUEUE_DEFINITION, singletonList(TEST_STAGING_POST), TEST_PUBLISH_TIMESTAMP)
+                .get(10L, SECONDS);
+        assertEquals(0, size(pubResults.get(RSSPublisher.RSS_PUBLISHER_ID).getErrors()));
+        assertEquals(0, size(pubResults.get(RSSPublisher.ATOM_PUBLISHER_ID).getErrors()));
+        // publishes beyond the in-flight bound are rejected until a slot is released
+        List<Runnable> heldTasks = new ArrayList<>();
+        int maxInFlight = rssPublisher.configProps.getAsyncPublishMaxInFlight();
+        List<CompletableFuture<Map<String, Publisher.PubResult>>> futures = new ArrayList<>(maxInFlight);
+        for (int i = 0; i < maxInFlight; i++) {
+            futures.add(rssPublisher.publishFeedAsync(TEST_QUEUE_DEFINITION, singletonList(TEST_STAGING_POST), TEST_PUBLISH_TIMESTAMP, heldTasks::add));
+        }
+        CompletableFuture<Map<String, Publisher.PubResult>> rejected =
+                rssPublisher.publishFeedAsync(TEST_QUEUE_DEFINITION, singletonList(TEST_STAGING_POST), TEST_PUBLISH_TIMESTAMP);
+        ExecutionException e = assertThrows(ExecutionException.class, () -> rejected.get(10L, SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+        heldTasks.forEach(Runnable::run);
+        for (CompletableFuture<Map<String, Publisher.PubResult>> future : futures) {
+            assertEquals(0, size(future.get(10L, SECONDS).get(RSSPublisher.RSS_PUBLISHER_ID).getErrors()));
+        }
+        assertNotNull(rssPublisher.publishFeedAsync(TEST_QUEUE_DEFINITION, singletonList(TEST_STAGING_POST), TEST_PUBLISH_TIMESTAMP)
+                .get(10L, SECONDS));
+    }
+
+    @Test
+    public void testRssPublisher_publishAsyncSubmitFailure() throws Exception {
+        int maxInFlight = rssPublisher.configProps.getAsyncPublishMaxInFlight();
+        // publishes that the executor rejects (or fails to accept) give back their slots
+        Executor rejectingExecutor = task -> {
+            throw new RejectedExecutionException("testRejected");
+        };
+        Executor failingExecutor = task -> {
+            throw new IllegalStateException("testFailed");
+        };
+        for (int i = 0; i <= maxInFlight; i++) {
+            CompletableFuture<Map<String, Publisher.PubResult>> rejected =
+                    rssPublisher.publishFeedAsync(TEST_QUEUE_DEFINITION, singletonList(TEST_STAGING_POST), TEST_PUBLISH_TIMESTAMP, rejectingExecutor);
+            ExecutionException e = assertThrows(ExecutionException.class, () -> rejected.get(10L, SECONDS));
+            assertEquals("testRejected", e.getCause().getMessage());
+            CompletableFuture<Map<String, Publisher.PubResult>> failed =
+                    rssPublisher.publishFeedAsync(TEST_QUEUE_DEFINITION, singletonList(TEST_STAGING_POST), TEST_PUBLISH_TIMESTAMP, failingExecutor);
+            e = assertThrows(ExecutionException.class, () -> failed.get(10L, SECONDS));
+            assertInstanceOf(IllegalStateException.class, e.getCause());
+        }
+        // all slots are still available
+        List<Runnable> heldTasks = new ArrayList<>(maxInFlight);
+        List<CompletableFuture<Map<String, Publisher.PubResult>>> futures = new ArrayList<>(maxInFlight);
+        for (int i = 0; i < maxInFlight; i++) {
+            futures.add(rssPublisher.publishFeedAsync(TEST_QUEUE_DEFINITION, singletonList(TEST_STAGING_POST), TEST_PUBLISH_TIMESTAMP, heldTasks::add));
+        }
+        assertEquals(maxInFlight, heldTasks.size());
+        heldTasks.forEach(Runnable::run);
+        for (CompletableFuture<Map<String, Publisher.PubResult>> future : futures) {
+            assertEquals(0, size(future.get(10L, SECONDS).get(RSSPublisher.RSS_PUBLISHER_ID).getErrors()));
+        }
+    }
+
+    @Test
+    public void testRssPublisher_stream() throws Exception {
+        ArgumentCaptor<RenderedRSSFeed> rssChannelValueCapture = ArgumentCaptor.forClass(RenderedRSSFeed.class);
+        doNothing().when(renderedFeedDao).putRSSFeedAtTransportIdent(eq("streamTransportIdent"), rssChannelValueCapture.capture());
+        QueueDefinition queueDefinition = testQueueDefinition("stream");
+        Map<String, Publisher.PubResult> pubResults = rssPublisher.publishFeed(queueDefinition,
+                Stream.of(testStagingPost("postHash1", new Date(1_000L)), testStagingPost("postHash2", new Date(2_000L))), TEST_PUBLISH_TIMESTAMP);
+        assertEquals(0, size(pubResults.get(RSSPublisher.RSS_PUBLISHER_ID).getErrors()));
+        assertEquals(0, size(pubResults.get(RSSPublisher.ATOM_PUBLISHER_ID).getErrors()));
+        List<Item> items = rssChannelValueCapture.getValue().getChannel().getItems();
+        assertEquals(2, items.size());
+        assertEquals(new Date(2_000L), rssChannelValueCapture.getValue().getChannel().getLastBuildDate());
     }
 
     private static void validateChannelRequiredProperties(Channel channel) {
@@ -0,0 +1,119 @@
+package com.lostsidewalk.buffy.rss;
+
+import com.rometools.rome.feed.WireFeed;
+import com.rometools.rome.feed.atom.Entry;
+import com.rometools.rome.feed.atom.Feed;
+import com.rometools.rome.feed.rss.Channel;
+import com.rometools.rome.feed.rss.Item;
+import com.rometools.rome.io.WireFeedInput;
+import com.rometools.rome.io.WireFeedOutput;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.xml.sax.InputSource;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Date;
+import java.util.List;
+
+import static com.lostsidewalk.buffy.rss.BaseRSSPublisherTest.*;
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+@Slf4j
+class StreamingFeedWriterTest {
+
+    private static final RSSPublisherConfigProps CONFIG_PROPS = new RSSPublisherConfigProps();
+    static {
+        CONFIG_PROPS.setChannelLinkTemplate("https://localhost/rss/%s");
+        CONFIG_PROPS.setChannelUriTemplate("https://localhost/atom/%s");
+        CONFIG_PROPS.setChannelImageUrlTemplate("https://localhost/img/%s");
+        CONFIG_PROPS.setRssFeedType("rss_2.0");
+        CONFIG_PROPS.setAtomFeedType("atom_1.0");
+        CONFIG_PROPS.setChannelTtl(10);
+    }
+
+    @Test
+    public void testStreamingFeedWriter_RSS() throws Exception {
+        ItemFragmentCache fragmentCache = new ItemFragmentCache(1 << 20);
+        StreamingFeedWriter streamingFeedWriter = new StreamingFeedWriter(fragmentCache);
+        List<NormalizedPost> posts = NormalizedPost.normalize(singletonList(TEST_STAGING_POST));
+        Channel channel = new RSSChannelBuilder(CONFIG_PROPS).buildChannel(TEST_QUEUE_DEFINITION, posts, TEST_PUBLISH_TIMESTAMP);
+        StringWriter writer = new StringWriter();
+        streamingFeedWriter.writeChannel(channel, posts, writer);
+        String streamed = writer.toString();
+        assertEquals(1, fragmentCache.size());
+        // the streamed document parses back to the same channel that ROME renders
+        Channel expected = (Channel) parse(new WireFeedOutput().outputString(channel));
+        Channel actual = (Channel) parse(streamed);
+        assertEquals(expected.getTitle(), actual.getTitle());
+        assertEquals(expected.getLink(), actual.getLink());
+        assertEquals(expected.getDescription(), actual.getDescription());
+        assertEquals(expected.getPubDate(), actual.getPubDate());
+        assertEquals(expected.getLastBuildDate(), actual.getLastBuildDate());
+        assertEquals(expected.getTtl(), actual.getTtl());
+        assertEquals(expected.getImage().getUrl(), actual.getImage().getUrl());
+        assertEquals(expected.getItems().size(), actual.getItems().size());
+        Item expectedItem = expected.getItems().get(0);
+        Item actualItem = actual.getItems().get(0);
+        assertEquals(expectedItem.getTitle(), actualItem.getTitle());
+        assertEquals(expectedItem.getLink(), actualItem.getLink());
+        assertEquals(expectedItem.getGuid().getValue(), actualItem.getGuid().getValue());
+        assertEquals(expectedItem.getPubDate(), actualItem.getPubDate());
+        assertEquals(expectedItem.getModules().size(), actualItem.getModules().size());
+        // a second write is served from the fragment cache
+        StringWriter second = new StringWriter();
+        streamingFeedWriter.writeChannel(channel, posts, second);
+        assertEquals(streamed, second.toString());
+    }
+
+    @Test
+    public void testStreamingFeedWriter_ATOM() throws Exception {
+        ItemFragmentCache fragmentCache = new ItemFragmentCache(1 << 20);
+        StreamingFeedWriter streamingFeedWriter = new StreamingFeedWriter(fragmentCache);
+        List<NormalizedPost> posts = NormalizedPost.normalize(singletonList(TEST_STAGING_POST));
+        Feed feed = new ATOMFeedBuilder(CONFIG_PROPS).buildFeed(TEST_QUEUE_DEFINITION, posts, TEST_PUBLISH_TIMESTAMP);
+        StringWriter writer = new StringWriter();
+        streamingFeedWriter.writeFeed(feed, posts, writer);
+        String streamed = writer.toString();
+        assertEquals(1, fragmentCache.size());
+        // the streamed document parses back to the same feed that ROME renders
+        Feed expected = (Feed) parse(new WireFeedOutput().outputString(feed));
+        Feed actual = (Feed) parse(streamed);
+        assertEquals(expected.getTitle(), actual.getTitle());
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getUpdated(), actual.getUpdated());
+        assertEquals(expected.getAlternateLinks().size(), actual.getAlternateLinks().size());
+        assertEquals(expected.getEntries().size(), actual.getEntries().size());
+        Entry expectedEntry = expected.getEntries().get(0);
+        Entry actualEntry = actual.getEntries().get(0);
+        assertEquals(expectedEntry.getTitle(), actualEntry.getTitle());
+        assertEquals(expectedEntry.getId(), actualEntry.getId());
+        assertEquals(expectedEntry.getPublished(), actualEntry.getPublished());
+        assertEquals(expectedEntry.getUpdated(), actualEntry.getUpdated());
+        assertEquals(expectedEntry.getModules().size(), actualEntry.getModules().size());
+    }
+
+    @Test
+    public void testStreamingFeedWriter_ATOM_undatedPost() throws Exception {
+        ItemFragmentCache fragmentCache = new ItemFragmentCache(1 << 20);
+        StreamingFeedWriter streamingFeedWriter = new StreamingFeedWriter(fragmentCache);
+        List<NormalizedPost> posts = NormalizedPost.normalize(singletonList(undatedStagingPost()));
+        ATOMFeedBuilder atomFeedBuilder = new ATOMFeedBuilder(CONFIG_PROPS);
+        Date firstPubDate = new Date(1_000_000L);
+        Date secondPubDate = new Date(2_000_000L);
+        StringWriter first = new StringWriter();
+        streamingFeedWriter.writeFeed(atomFeedBuilder.buildFeed(TEST_QUEUE_DEFINITION, posts, firstPubDate), posts, first);
+        StringWriter second = new StringWriter();
+        streamingFeedWriter.writeFeed(atomFeedBuilder.buildFeed(TEST_QUEUE_DEFINITION, posts, secondPubDate), posts, second);
+        // the entry is not served from the fragment cache with the published date of the earlier publish
+        assertEquals(2, fragmentCache.size());
+        assertEquals(firstPubDate, ((Feed) parse(first.toString())).getEntries().get(0).getPublished());
+        assertEquals(secondPubDate, ((Feed) parse(second.toString())).getEntries().get(0).getPublished());
+    }
+
+    private static WireFeed parse(String rendered) throws Exception {
+        return new WireFeedInput().build(new InputSource(new StringReader(rendered)));
+    }
+}
@@ -1,7 +1,9 @@
 package com.lostsidewalk.buffy.rss;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -25,6 +27,22 @@ class TestConfig {
         return new ATOMFeedBuilder(configProps);
     }
 
+    @Bean
+    PublisherMetrics publisherMetrics() {
+        return new PublisherMetrics(new SimpleMeterRegistry());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "rss.publisher", name = "precompress-enabled", havingValue = "true")
+    FeedCompressor gzipFeedCompressor() {
+        return new GzipFeedCompressor(configProps.getGzipLevel());
+    }
+
+    @Bean
+    FeedVariantStore feedVariantStore() {
+        return new InMemoryFeedVariantStore(67_108_864L);
+    }
+
     @Override
     public String toString() {
         return "TestConfig{" +
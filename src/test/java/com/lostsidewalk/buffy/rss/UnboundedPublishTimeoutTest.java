@@ -0,0 +1,26 @@
+package com.lostsidewalk.buffy.rss;
+
+import com.lostsidewalk.buffy.publisher.Publisher;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.Map;
+
+import static java.util.Collections.singletonList;
+import static org.apache.commons.collections4.CollectionUtils.size;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+
+// an unset (or non-positive) publish timeout means that publishes have no deadline
+@Slf4j
+@TestPropertySource(properties = "rss.publisher.publish-timeout-millis=0")
+class UnboundedPublishTimeoutTest extends BaseRSSPublisherTest {
+
+    @Test
+    public void testRssPublisher_noPublishTimeout() {
+        Map<String, Publisher.PubResult> pubResults = rssPublisher.publishFeed(TEST_QUEUE_DEFINITION, singletonList(TEST_STAGING_POST), TEST_PUBLISH_TIMESTAMP);
+        assertEquals(0, size(pubResults.get(RSSPublisher.RSS_PUBLISHER_ID).getErrors()));
+        assertEquals(0, size(pubResults.get(RSSPublisher.ATOM_PUBLISHER_ID).getErrors()));
+    }
+}
@@ -0,0 +1,70 @@
+package com.lostsidewalk.buffy.rss;
+
+import com.lostsidewalk.buffy.publisher.Publisher;
+import com.lostsidewalk.buffy.queue.QueueDefinition;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.Date;
+import java.util.Map;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.apache.commons.collections4.CollectionUtils.size;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+
+@Slf4j
+class UnchangedFeedPublisherTest extends BaseRSSPublisherTest {
+
+    @Autowired
+    FeedVariantStore feedVariantStore;
+
+    @Test
+    public void testRssPublisher_skipUnchanged() throws Exception {
+        QueueDefinition digestQueueDefinition = testQueueDefinition("digest");
+        // first publish stores the feeds
+        rssPublisher.publishFeed(digestQueueDefinition, singletonList(TEST_STAGING_POST), TEST_PUBLISH_TIMESTAMP);
+        PublishReport firstReport = rssPublisher.getPublishReport("digestTransportIdent", RSSPublisher.RSS_PUBLISHER_ID);
+        assertNotNull(firstReport.getDigest());
+        assertEquals('"' + firstReport.getDigest() + '"', firstReport.getETag());
+        assertFalse(firstReport.isStoreSkipped());
+        // second publish (at a later publication date) renders the same content, and skips the store
+        Map<String, Publisher.PubResult> pubResults = rssPublisher.publishFeed(digestQueueDefinition, singletonList(TEST_STAGING_POST), new Date(TEST_PUBLISH_TIMESTAMP.getTime() + 60_000L));
+        assertEquals(0, size(pubResults.get(RSSPublisher.RSS_PUBLISHER_ID).getErrors()));
+        PublishReport secondReport = rssPublisher.getPublishReport("digestTransportIdent", RSSPublisher.RSS_PUBLISHER_ID);
+        assertEquals(firstReport.getDigest(), secondReport.getDigest());
+        assertTrue(secondReport.isStoreSkipped());
+        assertTrue(rssPublisher.getPublishReport("digestTransportIdent", RSSPublisher.ATOM_PUBLISHER_ID).isStoreSkipped());
+        verify(renderedFeedDao, times(1)).putRSSFeedAtTransportIdent(eq("digestTransportIdent"), any());
+        verify(renderedFeedDao, times(1)).putATOMFeedAtTransportIdent(eq("digestTransportIdent"), any());
+        // a changed feed is stored again
+        rssPublisher.publishFeed(digestQueueDefinition, emptyList(), TEST_PUBLISH_TIMESTAMP);
+        PublishReport thirdReport = rssPublisher.getPublishReport("digestTransportIdent", RSSPublisher.RSS_PUBLISHER_ID);
+        assertNotEquals(firstReport.getDigest(), thirdReport.getDigest());
+        assertFalse(thirdReport.isStoreSkipped());
+        verify(renderedFeedDao, times(2)).putRSSFeedAtTransportIdent(eq("digestTransportIdent"), any());
+    }
+
+    @Test
+    public void testRssPublisher_skipUnchangedStoredDigest() throws Exception {
+        QueueDefinition storedQueueDefinition = testQueueDefinition("storedDigest");
+        rssPublisher.publishFeed(storedQueueDefinition, singletonList(TEST_STAGING_POST), TEST_PUBLISH_TIMESTAMP);
+        PublishReport firstReport = rssPublisher.getPublishReport("storedDigestTransportIdent", RSSPublisher.RSS_PUBLISHER_ID);
+        // the digest is kept with the stored variants
+        assertEquals(firstReport.getDigest(), feedVariantStore.getDigest("storedDigestTransportIdent", RSSPublisher.RSS_PUBLISHER_ID));
+        // the stored variants decide, not the digests remembered by this instance: once they are gone, the feed is stored again
+        feedVariantStore.removeVariants("storedDigestTransportIdent", RSSPublisher.RSS_PUBLISHER_ID);
+        rssPublisher.publishFeed(storedQueueDefinition, singletonList(TEST_STAGING_POST), TEST_PUBLISH_TIMESTAMP);
+        assertFalse(rssPublisher.getPublishReport("storedDigestTransportIdent", RSSPublisher.RSS_PUBLISHER_ID).isStoreSkipped());
+        assertTrue(rssPublisher.getPublishReport("storedDigestTransportIdent", RSSPublisher.ATOM_PUBLISHER_ID).isStoreSkipped());
+        verify(renderedFeedDao, times(2)).putRSSFeedAtTransportIdent(eq("storedDigestTransportIdent"), any());
+        verify(renderedFeedDao, times(1)).putATOMFeedAtTransportIdent(eq("storedDigestTransportIdent"), any());
+        assertEquals(firstReport.getDigest(), feedVariantStore.getDigest("storedDigestTransportIdent", RSSPublisher.RSS_PUBLISHER_ID));
+    }
+}
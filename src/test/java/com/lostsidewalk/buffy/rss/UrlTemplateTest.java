@@ -0,0 +1,26 @@
+package com.lostsidewalk.buffy.rss;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+@Slf4j
+class UrlTemplateTest {
+
+    @Test
+    public void testUrlTemplate_simple() {
+        assertEquals("https://localhost/rss/testTransportIdent", UrlTemplate.compile("https://localhost/rss/%s").expand("testTransportIdent"));
+        assertEquals("https://localhost/testTransportIdent/rss.xml", UrlTemplate.compile("https://localhost/%s/rss.xml").expand("testTransportIdent"));
+        assertEquals(String.format("https://localhost/rss/%s", (Object) null), UrlTemplate.compile("https://localhost/rss/%s").expand(null));
+    }
+
+    @Test
+    public void testUrlTemplate_fallback() {
+        // templates that are not a single %s specifier are expanded with String.format
+        assertEquals("https://localhost/rss/100%/testTransportIdent", UrlTemplate.compile("https://localhost/rss/100%%/%s").expand("testTransportIdent"));
+        assertEquals("https://localhost/rss", UrlTemplate.compile("https://localhost/rss").expand("testTransportIdent"));
+        assertNull(UrlTemplate.compile(null));
+    }
+}
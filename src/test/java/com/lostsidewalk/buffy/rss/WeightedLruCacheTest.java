@@ -0,0 +1,84 @@
+package com.lostsidewalk.buffy.rss;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+@Slf4j
+class WeightedLruCacheTest {
+
+    @Test
+    public void testWeightedLruCache_weight() {
+        WeightedLruCache<String, String> cache = new WeightedLruCache<>(100L, String::length);
+        cache.put("a", "x".repeat(60));
+        cache.put("b", "x".repeat(30));
+        assertEquals(90L, cache.weight());
+        // replacing a value re-weighs its key
+        cache.put("b", "x".repeat(10));
+        assertEquals(70L, cache.weight());
+        // values heavier than the whole cache are never retained, and displace the value of their key
+        cache.put("b", "x".repeat(101));
+        assertNull(cache.get("b"));
+        assertEquals(60L, cache.weight());
+        // a value as heavy as the whole cache is retained, at the expense of every other value
+        cache.put("c", "x".repeat(100));
+        assertEquals("x".repeat(100), cache.get("c"));
+        assertNull(cache.get("a"));
+        assertEquals(1, cache.size());
+        assertEquals(100L, cache.weight());
+        assertEquals("x".repeat(100), cache.remove("c"));
+        assertEquals(0L, cache.weight());
+    }
+
+    @Test
+    public void testWeightedLruCache_computeIfAbsent() {
+        WeightedLruCache<String, List<String>> cache = new WeightedLruCache<>(10L, list -> 1L);
+        List<String> computed = cache.computeIfAbsent("a", key -> new ArrayList<>());
+        assertSame(computed, cache.computeIfAbsent("a", key -> fail("present values are not computed again")));
+        assertEquals(1L, cache.weight());
+    }
+
+    @Test
+    public void testWeightedLruCache_concurrent() throws Exception {
+        int threadCt = 8;
+        WeightedLruCache<Integer, String> cache = new WeightedLruCache<>(1_000L, String::length);
+        CyclicBarrier start = new CyclicBarrier(threadCt);
+        ExecutorService executor = Executors.newFixedThreadPool(threadCt);
+        try {
+            List<Future<?>> futures = new ArrayList<>(threadCt);
+            for (int t = 0; t < threadCt; t++) {
+                int offset = t * 10_000;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 10_000; i++) {
+                        cache.put(offset + i, "x".repeat(1 + (i % 10)));
+                        cache.get(offset + i / 2);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        // the cache is within its budget, and its weight is the weight of what it holds
+        assertTrue(cache.weight() <= 1_000L);
+        long weight = 0L;
+        for (int key = 0; key < threadCt * 10_000; key++) {
+            String value = cache.get(key);
+            weight += value == null ? 0L : value.length();
+        }
+        assertEquals(cache.weight(), weight);
+    }
+}